@@ -0,0 +1,45 @@
+package client;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full GET and POST exchanges through ApiClient against the stand-in API on loopback
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ExchangeBenchmarks {
+    private final byte[] postBody = "{\"userId\":1,\"title\":\"Benchmark Title\",\"body\":\"Benchmark post body\"}"
+            .getBytes(StandardCharsets.UTF_8);
+    
+    @Benchmark
+    public ApiClient.ApiResponse getPost(LoopbackServer loopback) throws IOException {
+        return loopback.getClient().get("/posts/1");
+    }
+    
+    // 100 posts, the largest list the stand-in serves
+    @Benchmark
+    public ApiClient.ApiResponse getPosts(LoopbackServer loopback) throws IOException {
+        return loopback.getClient().get("/posts");
+    }
+    
+    @Benchmark
+    public ApiClient.ApiResponse createPost(LoopbackServer loopback) throws IOException {
+        return loopback.getClient().post("/posts", postBody);
+    }
+}
\ No newline at end of file
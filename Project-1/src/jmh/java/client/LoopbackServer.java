@@ -0,0 +1,39 @@
+package client;
+
+import config.ApiConfiguration;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import server.StandInServer;
+
+import java.io.IOException;
+
+/**
+ * Stand-in API on the loopback interface with a client pointed at it, shared by every benchmark thread
+ */
+@State(Scope.Benchmark)
+public class LoopbackServer {
+    private StandInServer server;
+    private ApiClient client;
+    
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        server = new StandInServer(0);
+        server.start();
+        ApiConfiguration.getInstance().setProperty("api.base.url", server.getBaseUrl());
+        // no cache and no traffic log, every call goes over the socket
+        client = new ApiClient(null, null);
+    }
+    
+    @TearDown(Level.Trial)
+    public void stop() throws IOException {
+        client.close();
+        server.close();
+    }
+    
+    public ApiClient getClient() {
+        return client;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,50 @@
+package client;
+
+import config.ApiConfiguration;
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request work done before anything is sent: URL building and header assembly
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RequestBenchmarks {
+    private final ApiConfiguration config = ApiConfiguration.getInstance();
+    private final Map<String, String> overlay = Map.of("Accept", "text/plain", "If-None-Match", "\"v1\"");
+    
+    @Benchmark
+    public String buildUrl() {
+        return RequestSupport.buildUrl(config, "/posts/1");
+    }
+    
+    @Benchmark
+    public HttpGet addDefaultHeaders() {
+        HttpGet request = new HttpGet("/posts/1");
+        RequestSupport.addHeaders(config, request, null);
+        return request;
+    }
+    
+    // per-request headers replacing one default and adding another
+    @Benchmark
+    public HttpGet addHeadersWithOverlay() {
+        HttpGet request = new HttpGet("/posts/1");
+        RequestSupport.addHeaders(config, request, overlay);
+        return request;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,102 @@
+package client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectReader;
+import diff.Difference;
+import diff.JsonDiff;
+import model.Post;
+import model.User;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.io.HttpClientResponseHandler;
+import org.apache.hc.core5.http.io.entity.ByteArrayEntity;
+import org.apache.hc.core5.http.message.BasicClassicHttpResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import schema.JsonSchema;
+import schema.Schemas;
+import schema.Violation;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Work done on a received response: reading and decoding the body, parsing, validating and diffing it as JSON.
+ * Bodies are real /posts and /users payloads fetched once from the stand-in API.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ResponseBenchmarks {
+    @Param({"/posts/1", "/posts", "/users"})
+    public String endpoint;
+    
+    private byte[] body;
+    private BasicClassicHttpResponse response;
+    private HttpClientResponseHandler<ApiClient.ApiResponse> buffered;
+    private HttpClientResponseHandler<ApiClient.ApiResponse> discard;
+    private ObjectReader typedReader;
+    private JsonSchema schema;
+    private byte[] expected;
+    
+    @Setup(Level.Trial)
+    public void fetch(LoopbackServer loopback) throws IOException {
+        ApiClient client = loopback.getClient();
+        body = client.get(endpoint).getBodyBytes();
+        // ByteArrayEntity hands out a fresh stream on every read, so one response serves every call
+        response = new BasicClassicHttpResponse(200);
+        response.setEntity(new ByteArrayEntity(body, ContentType.APPLICATION_JSON));
+        buffered = client.createResponseHandler(ApiClient.BodyMode.BUFFERED);
+        discard = client.createResponseHandler(ApiClient.BodyMode.DISCARD);
+        Class<?> type = endpoint.startsWith("/users") ? User.class : Post.class;
+        typedReader = endpoint.indexOf('/', 1) > 0 ? JsonCodec.reader(type) : JsonCodec.listReader(type);
+        schema = Schemas.forRequest("GET", endpoint);
+        expected = body.clone();
+    }
+    
+    // body read into a byte array and decoded to a String
+    @Benchmark
+    public String decodeBuffered() throws Exception {
+        return buffered.handleResponse(response).getBody();
+    }
+    
+    @Benchmark
+    public long decodeDiscard() throws Exception {
+        return discard.handleResponse(response).getBodyLength();
+    }
+    
+    @Benchmark
+    public JsonNode parseTree() throws IOException {
+        return JsonCodec.mapper().readTree(body);
+    }
+    
+    @Benchmark
+    public Object parseTyped() throws IOException {
+        return typedReader.readValue(body);
+    }
+    
+    // one pass over the tokens, against parseTree which field-by-field checks need first
+    @Benchmark
+    public List<Violation> validateSchema() {
+        return schema.validate(body);
+    }
+    
+    // both documents streamed in step, against two parseTree calls and JsonNode.equals
+    @Benchmark
+    public List<Difference> diffExact() {
+        return JsonDiff.exact().compare(expected, body);
+    }
+}
\ No newline at end of file
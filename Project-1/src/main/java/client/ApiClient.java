@@ -1,54 +1,150 @@
 package client;
 
 import config.ApiConfiguration;
-import org.apache.hc.client5.http.classic.methods.HttpDelete;
-import org.apache.hc.client5.http.classic.methods.HttpGet;
-import org.apache.hc.client5.http.classic.methods.HttpPost;
-import org.apache.hc.client5.http.classic.methods.HttpPut;
-import org.apache.hc.client5.http.config.RequestConfig;
+import metrics.MetricsRegistry;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.HdrHistogram.Histogram;
+import org.apache.hc.client5.http.ClientProtocolException;
+import org.apache.hc.client5.http.HttpResponseException;
+import org.apache.hc.client5.http.classic.methods.HttpUriRequestBase;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
-import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.impl.EnglishReasonPhraseCatalog;
 import org.apache.hc.core5.http.io.HttpClientResponseHandler;
 import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.io.entity.ByteArrayEntity;
 import org.apache.hc.core5.http.io.entity.EntityUtils;
 import org.apache.hc.core5.http.io.entity.StringEntity;
-import org.apache.hc.core5.util.Timeout;
+import org.apache.hc.core5.http.message.BasicClassicHttpResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 /**
  * API client for making HTTP requests to the JSONPlaceholder API
  */
 public class ApiClient {
     private static final Logger logger = LoggerFactory.getLogger(ApiClient.class);
+    private static final JsonFactory jsonFactory = JsonCodec.mapper().getFactory();
+    // recorded latencies needed before the hedge delay follows the endpoint's percentile
+    private static final int HEDGE_MIN_SAMPLES = 20;
+    // methods that leave the server's state alone, any other one invalidates cached copies of its target
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS", "TRACE");
     private final CloseableHttpClient client;
+    private final H2Transport http2;
     private final ApiConfiguration config;
+    private final MetricsRegistry metrics = MetricsRegistry.getInstance();
+    private final ResponseCache cache;
+    private final Map<String, ResiliencePolicy> policies = new ConcurrentHashMap<>();
+    private final RateLimits rateLimits = RateLimits.shared();
+    private final TrafficLog traffic;
+    private final RequestLog requestLog;
+    private final AtomicBoolean closed = new AtomicBoolean();
     
     public ApiClient() {
+        this(ApiConfiguration.getInstance().isCacheEnabled()
+                ? ResponseCache.shared(ApiConfiguration.getInstance().getCacheMaxBytes()) : null);
+    }
+    
+    // cache GET responses in the given cache, null disables caching
+    public ApiClient(ResponseCache cache) {
+        this(cache, TrafficLog.shared(ApiConfiguration.getInstance()));
+    }
+    
+    // records to or replays from the given traffic log, null talks to the API directly
+    public ApiClient(ResponseCache cache, TrafficLog traffic) {
         this.config = ApiConfiguration.getInstance();
-        RequestConfig requestConfig = RequestConfig.custom()
-                .setResponseTimeout(Timeout.ofSeconds(config.getTimeout()))
-                .build();
-                
-        this.client = HttpClients.custom()
-                .setDefaultRequestConfig(requestConfig)
-                .build();
+        this.cache = cache;
+        this.traffic = traffic;
+        this.requestLog = new RequestLog(config);
+        // all instances share one pooled client, see HttpClientFactory
+        this.client = HttpClientFactory.acquire();
+        // api.http.version is read once, a reload switches protocol for clients created after it
+        this.http2 = "2".equals(config.getHttpVersion()) ? H2Transport.acquire() : null;
+        if (config.getMetricsDir() != null) {
+            metrics.writeReportsOnExit(Path.of(config.getMetricsDir()));
+        }
     }
     
     public ApiResponse get(String endpoint) throws IOException {
-        return get(endpoint, null);
+        return get(endpoint, (Map<String, String>) null);
     }
     
     public ApiResponse get(String endpoint, Map<String, String> headers) throws IOException {
-        String url = buildUrl(endpoint);
-        HttpGet request = new HttpGet(url);
-        addHeaders(request, headers);
-        
-        logRequest("GET", url, null);
-        return client.execute(request, createResponseHandler("GET"));
+        return execute("GET", endpoint, null, headers, BodyMode.BUFFERED);
+    }
+    
+    public ApiResponse get(String endpoint, BodyMode mode) throws IOException {
+        return execute("GET", endpoint, null, null, mode);
+    }
+    
+    // hands the parser straight to the response stream, nothing is buffered on HTTP/1.1;
+    // over HTTP/2 the parser reads from the response H2Transport already holds in memory.
+    // never hedged, the handler is the caller's and may not be safe to run twice
+    public <T> T getStreaming(String endpoint, JsonResponseHandler<T> handler) throws IOException {
+        return execute("GET", endpoint, null, null, false, response -> {
+            HttpEntity entity = response.getEntity();
+            InputStream body = entity != null ? entity.getContent() : InputStream.nullInputStream();
+            try (InputStream content = body;
+                 JsonParser parser = jsonFactory.createParser(content)) {
+                return handler.handle(response.getCode(), parser);
+            }
+        });
+    }
+    
+    // decode a 2xx response straight from the stream, anything else raises HttpResponseException;
+    // with a cache the body is buffered so it can be stored, and decoded from the buffer
+    public <T> T get(String endpoint, Class<T> responseType) throws IOException {
+        if (cache != null) {
+            return cachedTyped(endpoint, JsonCodec.reader(responseType));
+        }
+        return execute("GET", endpoint, null, null, createTypedHandler(JsonCodec.reader(responseType)));
+    }
+    
+    public <T> List<T> getList(String endpoint, Class<T> elementType) throws IOException {
+        if (cache != null) {
+            return cachedTyped(endpoint, JsonCodec.listReader(elementType));
+        }
+        return execute("GET", endpoint, null, null, createTypedHandler(JsonCodec.listReader(elementType)));
+    }
+    
+    public <T> T postForObject(String endpoint, Object body, Class<T> responseType) throws IOException {
+        return execute("POST", endpoint, toEntity(body), null, createTypedHandler(JsonCodec.reader(responseType)));
+    }
+    
+    public <T> T putForObject(String endpoint, Object body, Class<T> responseType) throws IOException {
+        return execute("PUT", endpoint, toEntity(body), null, createTypedHandler(JsonCodec.reader(responseType)));
     }
     
     public ApiResponse post(String endpoint, String jsonBody) throws IOException {
@@ -56,13 +152,22 @@ public class ApiClient {
     }
     
     public ApiResponse post(String endpoint, String jsonBody, Map<String, String> headers) throws IOException {
-        String url = buildUrl(endpoint);
-        HttpPost request = new HttpPost(url);
-        request.setEntity(new StringEntity(jsonBody, ContentType.APPLICATION_JSON));
-        addHeaders(request, headers);
-        
-        logRequest("POST", url, jsonBody);
-        return client.execute(request, createResponseHandler("POST"));
+        return execute("POST", endpoint, jsonBody, headers, BodyMode.BUFFERED);
+    }
+    
+    // body already serialized as UTF-8 JSON, sent as is
+    public ApiResponse post(String endpoint, byte[] jsonBody) throws IOException {
+        return post(endpoint, jsonBody, null);
+    }
+    
+    public ApiResponse post(String endpoint, byte[] jsonBody, Map<String, String> headers) throws IOException {
+        return post(endpoint, jsonBody, headers, BodyMode.BUFFERED);
+    }
+    
+    public ApiResponse post(String endpoint, byte[] jsonBody, Map<String, String> headers, BodyMode mode)
+            throws IOException {
+        return execute("POST", endpoint, new ByteArrayEntity(jsonBody, ContentType.APPLICATION_JSON), headers,
+                createResponseHandler(mode));
     }
     
     public ApiResponse put(String endpoint, String jsonBody) throws IOException {
@@ -70,13 +175,21 @@ public class ApiClient {
     }
     
     public ApiResponse put(String endpoint, String jsonBody, Map<String, String> headers) throws IOException {
-        String url = buildUrl(endpoint);
-        HttpPut request = new HttpPut(url);
-        request.setEntity(new StringEntity(jsonBody, ContentType.APPLICATION_JSON));
-        addHeaders(request, headers);
-        
-        logRequest("PUT", url, jsonBody);
-        return client.execute(request, createResponseHandler("PUT"));
+        return execute("PUT", endpoint, jsonBody, headers, BodyMode.BUFFERED);
+    }
+    
+    public ApiResponse put(String endpoint, byte[] jsonBody) throws IOException {
+        return put(endpoint, jsonBody, null);
+    }
+    
+    public ApiResponse put(String endpoint, byte[] jsonBody, Map<String, String> headers) throws IOException {
+        return put(endpoint, jsonBody, headers, BodyMode.BUFFERED);
+    }
+    
+    public ApiResponse put(String endpoint, byte[] jsonBody, Map<String, String> headers, BodyMode mode)
+            throws IOException {
+        return execute("PUT", endpoint, new ByteArrayEntity(jsonBody, ContentType.APPLICATION_JSON), headers,
+                createResponseHandler(mode));
     }
     
     public ApiResponse delete(String endpoint) throws IOException {
@@ -84,72 +197,636 @@ public class ApiClient {
     }
     
     public ApiResponse delete(String endpoint, Map<String, String> headers) throws IOException {
+        return execute("DELETE", endpoint, null, headers, BodyMode.BUFFERED);
+    }
+    
+    public ApiResponse execute(String method, String endpoint, String jsonBody, Map<String, String> headers,
+                               BodyMode mode) throws IOException {
+        if (cache != null && mode == BodyMode.BUFFERED && "GET".equals(method)) {
+            return cachedGet(endpoint, headers);
+        }
+        HttpEntity entity = jsonBody != null ? new StringEntity(jsonBody, ContentType.APPLICATION_JSON) : null;
+        return execute(method, endpoint, entity, headers, createResponseHandler(mode));
+    }
+    
+    public ApiResponse execute(ApiRequest request) throws IOException {
+        return execute(request.getMethod(), request.getEndpoint(), request.getBody(), request.getHeaders(),
+                request.getMode());
+    }
+    
+    // runs every request with up to api.batch.concurrency in flight, failures are collected
+    public BatchResult executeAll(List<ApiRequest> requests) throws IOException {
+        return executeAll(requests, config.getBatchConcurrency(), BatchMode.COLLECT_ALL);
+    }
+    
+    // outcomes come back in request order whatever order the requests complete in
+    public BatchResult executeAll(List<ApiRequest> requests, int concurrency, BatchMode mode) throws IOException {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("Batch concurrency must be at least 1, got " + concurrency);
+        }
+        BatchResult.Outcome[] outcomes = new BatchResult.Outcome[requests.size()];
+        Semaphore permits = new Semaphore(concurrency);
+        AtomicInteger failedIndex = new AtomicInteger(-1);
+        long start = System.nanoTime();
+        
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            for (int i = 0; i < requests.size(); i++) {
+                permits.acquire();
+                if (mode == BatchMode.FAIL_FAST && failedIndex.get() >= 0) {
+                    permits.release();
+                    break;
+                }
+                int index = i;
+                try {
+                    executor.execute(() -> {
+                        try {
+                            outcomes[index] = runBatched(requests.get(index), mode, failedIndex);
+                            if (mode == BatchMode.FAIL_FAST && outcomes[index].getError() != null
+                                    && failedIndex.compareAndSet(-1, index)) {
+                                // interrupt the requests still in flight
+                                executor.shutdownNow();
+                            }
+                        } finally {
+                            permits.release();
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    // a fail-fast abort shut the executor down between the check and the submit
+                    permits.release();
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+            throw new InterruptedIOException("Interrupted while running batch of " + requests.size() + " requests");
+        } finally {
+            executor.close();
+        }
+        
+        for (int i = 0; i < outcomes.length; i++) {
+            if (outcomes[i] == null) {
+                outcomes[i] = BatchResult.Outcome.skipped(requests.get(i));
+            }
+        }
+        BatchResult result = new BatchResult(Arrays.asList(outcomes), System.nanoTime() - start);
+        logger.debug("Batch finished: {}", result);
+        if (failedIndex.get() >= 0) {
+            throw new BatchException(result, failedIndex.get(), outcomes[failedIndex.get()].getError());
+        }
+        return result;
+    }
+    
+    private BatchResult.Outcome runBatched(ApiRequest request, BatchMode mode, AtomicInteger failedIndex) {
+        long start = System.nanoTime();
+        try {
+            ApiResponse response = execute(request);
+            return new BatchResult.Outcome(request, response, null, System.nanoTime() - start);
+        } catch (IOException | RuntimeException e) {
+            if (mode == BatchMode.FAIL_FAST && failedIndex.get() >= 0) {
+                // interrupted by the abort, the request did not fail on its own
+                return BatchResult.Outcome.cancelled(request, System.nanoTime() - start);
+            }
+            return new BatchResult.Outcome(request, null, e, System.nanoTime() - start);
+        }
+    }
+    
+    private <T> T execute(String method, String endpoint, HttpEntity entity, Map<String, String> headers,
+                          HttpClientResponseHandler<T> handler) throws IOException {
+        return execute(method, endpoint, entity, headers, true, handler);
+    }
+    
+    // applies the method's resilience policy around single exchanges; hedgeable handlers are the built-in
+    // ones that only read the response, a hedge may run them for both requests
+    private <T> T execute(String method, String endpoint, HttpEntity entity, Map<String, String> headers,
+                          boolean hedgeable, HttpClientResponseHandler<T> handler) throws IOException {
+        ResiliencePolicy policy = getResiliencePolicy(method);
+        if (cache != null && !SAFE_METHODS.contains(method)) {
+            handler = invalidating(endpoint, handler);
+        }
+        if ("all".equals(config.getCompression())) {
+            entity = Compression.encode(entity, config.getCompressionMinSize());
+        }
+        for (int attempt = 1; ; attempt++) {
+            Exchange<T> exchange;
+            try {
+                exchange = hedgeable && policy.isHedged() && "GET".equals(method)
+                        ? exchangeHedged(method, endpoint, entity, headers, handler, policy)
+                        : exchange(newRequest(method, endpoint, entity, headers), endpoint, handler);
+            } catch (IOException e) {
+                if (!policy.shouldRetry(attempt, e)) {
+                    throw e;
+                }
+                backoff(policy, attempt, method, endpoint, e.toString());
+                continue;
+            }
+            if (!policy.shouldRetry(attempt, exchange.statusCode)) {
+                return exchange.result;
+            }
+            backoff(policy, attempt, method, endpoint, "status " + exchange.statusCode);
+        }
+    }
+    
+    private HttpUriRequestBase newRequest(String method, String endpoint, HttpEntity entity, Map<String, String> headers) {
         String url = buildUrl(endpoint);
-        HttpDelete request = new HttpDelete(url);
+        HttpUriRequestBase request = new HttpUriRequestBase(method, URI.create(url));
+        request.setConfig(HttpClientFactory.getRequestConfig());
+        request.setEntity(entity);
         addHeaders(request, headers);
+        if (!"off".equals(config.getCompression()) && !request.containsHeader(HttpHeaders.ACCEPT_ENCODING)) {
+            request.addHeader(HttpHeaders.ACCEPT_ENCODING, Compression.ACCEPT_ENCODING);
+        }
+        logger.debug("{} request to: {}", method, url);
+        return request;
+    }
+    
+    // one request/response exchange, timed and recorded
+    private <T> Exchange<T> exchange(HttpUriRequestBase request, String endpoint,
+                                     HttpClientResponseHandler<T> handler) throws IOException {
+        if (traffic != null && traffic.getMode() == TrafficLog.Mode.REPLAY) {
+            return replay(request, endpoint, handler);
+        }
+        String method = request.getMethod();
+        // logged as the caller passed it, even when it goes out gzipped
+        HttpEntity entity = Compression.uncompressed(request.getEntity());
+        try {
+            rateLimits.acquire(endpoint);
+        } catch (InterruptedException e) {
+            throw interrupted(method, endpoint);
+        }
+        RequestTimer timer = RequestTimer.start();
+        timer.setBytesSent(contentLength(request.getEntity()), contentLength(entity));
+        try {
+            HttpClientResponseHandler<T> recorded = traffic != null ? recording(request, endpoint, handler, timer) : handler;
+            T result = http2 != null
+                    ? http2.execute(request, timed(recorded, timer), client)
+                    : client.execute(request, timed(recorded, timer));
+            RequestTimings timings = timer.finish();
+            metrics.record(method, endpoint, timer.getStatusCode(), timings);
+            // typed results are logged without their body, only the raw bytes of an ApiResponse are truncated
+            ApiResponse logged = result instanceof ApiResponse apiResponse ? apiResponse : null;
+            if (logged != null) {
+                logged.setTimings(timings);
+            }
+            requestLog.completed(method, endpoint, timer.getStatusCode(), timings.getTotalNanos(), entity, logged);
+            return new Exchange<>(request, result, timer.getStatusCode());
+        } catch (IOException | RuntimeException e) {
+            if (request.isCancelled()) {
+                // the losing side of a hedge, not a failure of the endpoint
+                throw e;
+            }
+            if (timer.getStatusCode() > 0) {
+                RequestTimings timings = timer.finish();
+                metrics.record(method, endpoint, timer.getStatusCode(), timings);
+                requestLog.completed(method, endpoint, timer.getStatusCode(), timings.getTotalNanos(), entity, null);
+            } else {
+                metrics.recordFailure(method, endpoint, timer.elapsedNanos());
+                requestLog.failed(method, endpoint, timer.elapsedNanos(), e);
+            }
+            throw e;
+        } finally {
+            timer.stop();
+        }
+    }
+    
+    // send a duplicate if the first attempt is slower than the hedge delay, the first answer wins
+    private <T> Exchange<T> exchangeHedged(String method, String endpoint, HttpEntity entity, Map<String, String> headers,
+                                           HttpClientResponseHandler<T> handler, ResiliencePolicy policy) throws IOException {
+        HttpUriRequestBase primaryRequest = newRequest(method, endpoint, entity, headers);
+        CompletableFuture<Exchange<T>> primary = exchangeAsync(primaryRequest, endpoint, handler);
+        try {
+            return primary.get(hedgeDelayNanos(method, endpoint, policy), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // still waiting, hedge below
+        } catch (InterruptedException e) {
+            primaryRequest.cancel();
+            throw interrupted(method, endpoint);
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        }
         
-        logRequest("DELETE", url, null);
-        return client.execute(request, createResponseHandler("DELETE"));
+        HttpUriRequestBase hedgeRequest = newRequest(method, endpoint, entity, headers);
+        CompletableFuture<Exchange<T>> hedge = exchangeAsync(hedgeRequest, endpoint, handler);
+        CompletableFuture<Exchange<T>> first = new CompletableFuture<>();
+        primary.whenComplete((result, error) -> completeWithFirstSuccess(first, result, error, hedge));
+        hedge.whenComplete((result, error) -> completeWithFirstSuccess(first, result, error, primary));
+        try {
+            Exchange<T> winner = first.get();
+            boolean hedgeWon = winner.request == hedgeRequest;
+            (hedgeWon ? primaryRequest : hedgeRequest).cancel();
+            metrics.recordHedge(method, endpoint, hedgeWon);
+            logger.debug("Hedged {} {}, {} answered first", method, endpoint, hedgeWon ? "hedge" : "original");
+            return winner;
+        } catch (InterruptedException e) {
+            primaryRequest.cancel();
+            hedgeRequest.cancel();
+            throw interrupted(method, endpoint);
+        } catch (ExecutionException e) {
+            metrics.recordHedge(method, endpoint, false);
+            throw unwrap(e);
+        }
     }
     
-    private String buildUrl(String endpoint) {
-        return config.getBaseUrl() + endpoint;
+    private <T> CompletableFuture<Exchange<T>> exchangeAsync(HttpUriRequestBase request, String endpoint,
+                                                             HttpClientResponseHandler<T> handler) {
+        CompletableFuture<Exchange<T>> future = new CompletableFuture<>();
+        Thread.startVirtualThread(() -> {
+            try {
+                future.complete(exchange(request, endpoint, handler));
+            } catch (IOException | RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+    
+    // fails only once both attempts have failed, each future is complete before its callback runs
+    private static <T> void completeWithFirstSuccess(CompletableFuture<T> first, T result, Throwable error,
+                                                     CompletableFuture<T> other) {
+        if (error == null) {
+            first.complete(result);
+        } else if (other.isCompletedExceptionally()) {
+            first.completeExceptionally(error);
+        }
     }
     
-    private void logRequest(String method, String url, String body) {
-        if (body != null) {
-            logger.info("{} request to: {} with body: {}", method, url, body);
-        } else {
-            logger.info("{} request to: {}", method, url);
+    // the policy's percentile of recorded latencies, or its fallback delay until there are enough samples
+    private long hedgeDelayNanos(String method, String endpoint, ResiliencePolicy policy) {
+        Histogram latency = metrics.metricsFor(method, endpoint).getLatency();
+        if (latency.getTotalCount() < HEDGE_MIN_SAMPLES) {
+            return TimeUnit.MILLISECONDS.toNanos(policy.getHedgeDelayMillis());
         }
+        return TimeUnit.MICROSECONDS.toNanos(latency.getValueAtPercentile(policy.getHedgePercentile()));
     }
     
-    private String truncateForLogging(String text) {
-        return text.length() > 200 ? text.substring(0, 200) + "..." : text;
+    private void backoff(ResiliencePolicy policy, int attempt, String method, String endpoint, String reason)
+            throws InterruptedIOException {
+        metrics.recordRetry(method, endpoint);
+        long delay = policy.backoffNanos(attempt);
+        logger.debug("Retrying {} {} after attempt {} ({}), backing off {} ms", method, endpoint, attempt, reason,
+                TimeUnit.NANOSECONDS.toMillis(delay));
+        try {
+            TimeUnit.NANOSECONDS.sleep(delay);
+        } catch (InterruptedException e) {
+            throw interrupted(method, endpoint);
+        }
+    }
+    
+    private static InterruptedIOException interrupted(String method, String endpoint) {
+        Thread.currentThread().interrupt();
+        return new InterruptedIOException("Interrupted during " + method + " " + endpoint);
     }
     
-    private HttpClientResponseHandler<ApiResponse> createResponseHandler(String method) {
+    private static IOException unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof IOException) {
+            return (IOException) cause;
+        }
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        return new IOException(cause);
+    }
+    
+    // buffers the body so it can be appended to the traffic log before the handler reads it
+    private <T> HttpClientResponseHandler<T> recording(HttpUriRequestBase request, String endpoint,
+                                                      HttpClientResponseHandler<T> handler, RequestTimer timer) {
         return response -> {
-            String responseBody = response.getEntity() != null ? EntityUtils.toString(response.getEntity()) : "";
-            logger.info("{} response: {} - {}", method, response.getCode(), truncateForLogging(responseBody));
-            return new ApiResponse(response.getCode(), responseBody);
+            HttpEntity entity = response.getEntity();
+            byte[] body = entity != null ? EntityUtils.toByteArray(entity) : new byte[0];
+            String contentType = entity != null ? entity.getContentType() : null;
+            if (entity != null) {
+                response.setEntity(new ByteArrayEntity(body, contentType != null ? ContentType.parse(contentType) : null));
+            }
+            traffic.append(fingerprint(request, endpoint), request.getMethod(), endpoint, response.getCode(),
+                    contentType, timer.elapsedNanos(), body);
+            return handler.handleResponse(response);
         };
     }
     
-    private void addHeaders(org.apache.hc.core5.http.HttpRequest request, Map<String, String> additionalHeaders) {
-        // get defaults from config
-        Map<String, String> defaultHeaders = config.getDefaultHeaders();
-        for (Map.Entry<String, String> header : defaultHeaders.entrySet()) {
-            request.addHeader(header.getKey(), header.getValue());
+    // answers from the traffic log, paced by api.traffic.replay.speed, without touching the network
+    private <T> Exchange<T> replay(HttpUriRequestBase request, String endpoint,
+                                   HttpClientResponseHandler<T> handler) throws IOException {
+        String method = request.getMethod();
+        TrafficLog.Recorded recorded = traffic.find(fingerprint(request, endpoint));
+        if (recorded == null) {
+            throw new NotRecordedException(method, endpoint);
+        }
+        RequestTimer timer = RequestTimer.start();
+        HttpEntity entity = Compression.uncompressed(request.getEntity());
+        timer.setBytesSent(contentLength(request.getEntity()), contentLength(entity));
+        try {
+            double speed = config.getTrafficReplaySpeed();
+            if (speed > 0) {
+                RateLimiter.await((long) (recorded.durationNanos / speed));
+            }
+            BasicClassicHttpResponse response = new BasicClassicHttpResponse(recorded.status);
+            response.setEntity(new ByteArrayEntity(recorded.body,
+                    recorded.contentType != null ? ContentType.parse(recorded.contentType) : null));
+            T result = timed(handler, timer).handleResponse(response);
+            RequestTimings timings = timer.finish();
+            metrics.record(method, endpoint, recorded.status, timings);
+            ApiResponse logged = result instanceof ApiResponse apiResponse ? apiResponse : null;
+            if (logged != null) {
+                logged.setTimings(timings);
+            }
+            requestLog.completed(method, endpoint, recorded.status, timings.getTotalNanos(), entity, logged);
+            return new Exchange<>(request, result, recorded.status);
+        } catch (InterruptedException e) {
+            throw interrupted(method, endpoint);
+        } catch (HttpException e) {
+            throw new ClientProtocolException(e);
+        } finally {
+            timer.stop();
+        }
+    }
+    
+    // method, endpoint and body; the base URL is left out so a log replays against any host
+    private static long fingerprint(HttpUriRequestBase request, String endpoint) throws IOException {
+        // the same request matches whether or not its body was gzipped
+        HttpEntity entity = Compression.uncompressed(request.getEntity());
+        return TrafficLog.fingerprint(request.getMethod(), endpoint, entity != null ? EntityUtils.toByteArray(entity) : null);
+    }
+    
+    // retry and hedging rules, read from api.retry.* and api.hedge.* unless overridden
+    public ResiliencePolicy getResiliencePolicy(String method) {
+        return policies.computeIfAbsent(method, m -> ResiliencePolicy.fromConfig(config, m));
+    }
+    
+    public void setResiliencePolicy(String method, ResiliencePolicy policy) {
+        policies.put(method, policy);
+    }
+    
+    // serve fresh entries locally, revalidate stale ones with a conditional request
+    private ApiResponse cachedGet(String endpoint, Map<String, String> headers) throws IOException {
+        Function<String, String> requestHeaders = name -> requestHeader(name, headers);
+        ResponseCache.Lookup lookup = cache.lookup(buildUrl(endpoint), requestHeaders);
+        if (lookup.isFresh()) {
+            logger.debug("GET {} served from cache", endpoint);
+            return lookup.toResponse();
         }
         
-        // overlay any additional headers
-        if (additionalHeaders != null) {
-            for (Map.Entry<String, String> header : additionalHeaders.entrySet()) {
-                request.addHeader(header.getKey(), header.getValue());
+        Map<String, String> validators = lookup.validators();
+        Map<String, String> requestHeadersWithValidators = headers;
+        if (!validators.isEmpty()) {
+            requestHeadersWithValidators = headers != null ? new HashMap<>(headers) : new HashMap<>();
+            requestHeadersWithValidators.putAll(validators);
+        }
+        HttpClientResponseHandler<ApiResponse> handler = createResponseHandler(BodyMode.BUFFERED);
+        return execute("GET", endpoint, null, requestHeadersWithValidators,
+                response -> cache.onResponse(lookup, response, handler.handleResponse(response), requestHeaders));
+    }
+    
+    private <T> T cachedTyped(String endpoint, ObjectReader reader) throws IOException {
+        ApiResponse response = cachedGet(endpoint, null);
+        int status = response.getStatusCode();
+        if (status >= 300) {
+            throw new HttpResponseException(status, EnglishReasonPhraseCatalog.INSTANCE.getReason(status, Locale.ROOT));
+        }
+        if (response.getBodyBytes().length == 0) {
+            throw new HttpResponseException(status, "Response has no body");
+        }
+        return reader.readValue(response.getBodyBytes());
+    }
+    
+    // a successful write makes the cached copies of its target stale, checked before the caller's handler runs
+    private <T> HttpClientResponseHandler<T> invalidating(String endpoint, HttpClientResponseHandler<T> handler) {
+        return response -> {
+            cache.onUnsafeResponse(buildUrl(endpoint), response);
+            return handler.handleResponse(response);
+        };
+    }
+    
+    // value a request header will carry, per-request headers win over configured defaults
+    private String requestHeader(String name, Map<String, String> headers) {
+        if (headers != null) {
+            for (Map.Entry<String, String> header : headers.entrySet()) {
+                if (header.getKey().equalsIgnoreCase(name)) {
+                    return header.getValue();
+                }
+            }
+        }
+        return config.getHeaderSet().get(name);
+    }
+    
+    // null when caching is disabled
+    public ResponseCache getResponseCache() {
+        return cache;
+    }
+    
+    // null unless recording or replaying
+    public TrafficLog getTrafficLog() {
+        return traffic;
+    }
+    
+    // marks the arrival of the response head, decodes gzip/deflate bodies and counts body bytes on the wire
+    // and after decoding as the handler reads them
+    private static <T> HttpClientResponseHandler<T> timed(HttpClientResponseHandler<T> handler, RequestTimer timer) {
+        return response -> {
+            timer.responseHead(response.getCode());
+            if (response.getEntity() != null) {
+                HttpEntity wire = new CountingEntity(response.getEntity(), timer::addBytesReceived);
+                HttpEntity decoded = Compression.decode(wire);
+                response.setEntity(decoded == wire ? wire
+                        : new CountingEntity(decoded, timer::addUncompressedBytesReceived));
+            }
+            try {
+                return handler.handleResponse(response);
+            } finally {
+                timer.bodyDone();
+            }
+        };
+    }
+    
+    private static long contentLength(HttpEntity entity) {
+        return entity != null ? Math.max(0, entity.getContentLength()) : 0;
+    }
+    
+    private String buildUrl(String endpoint) {
+        return RequestSupport.buildUrl(config, endpoint);
+    }
+    
+    private static HttpEntity toEntity(Object body) throws IOException {
+        byte[] json = JsonCodec.writer(body.getClass()).writeValueAsBytes(body);
+        return new ByteArrayEntity(json, ContentType.APPLICATION_JSON);
+    }
+    
+    private static <T> HttpClientResponseHandler<T> createTypedHandler(ObjectReader reader) {
+        return response -> {
+            HttpEntity entity = response.getEntity();
+            if (response.getCode() >= 300) {
+                EntityUtils.consume(entity);
+                throw new HttpResponseException(response.getCode(), response.getReasonPhrase());
+            }
+            if (entity == null) {
+                throw new HttpResponseException(response.getCode(), "Response has no body");
             }
+            try (InputStream content = entity.getContent()) {
+                return reader.readValue(content);
+            }
+        };
+    }
+    
+    // package-private for the response decoding benchmark
+    HttpClientResponseHandler<ApiResponse> createResponseHandler(BodyMode mode) {
+        return response -> {
+            HttpEntity entity = response.getEntity();
+            ApiResponse apiResponse;
+            if (entity == null) {
+                apiResponse = new ApiResponse(response.getCode(), new byte[0], StandardCharsets.UTF_8);
+            } else if (mode == BodyMode.DISCARD) {
+                long length;
+                try (InputStream content = entity.getContent()) {
+                    length = content.transferTo(OutputStream.nullOutputStream());
+                }
+                apiResponse = ApiResponse.discarded(response.getCode(), length);
+            } else {
+                apiResponse = new ApiResponse(response.getCode(), readBody(entity), charsetOf(entity));
+            }
+            return apiResponse;
+        };
+    }
+    
+    // read the entity into a single array, sized up front when the length is known
+    private static byte[] readBody(HttpEntity entity) throws IOException {
+        try (InputStream content = entity.getContent()) {
+            long length = entity.getContentLength();
+            if (length < 0 || length > Integer.MAX_VALUE - 8) {
+                return content.readAllBytes();
+            }
+            byte[] body = new byte[(int) length];
+            int read = content.readNBytes(body, 0, body.length);
+            return read == body.length ? body : Arrays.copyOf(body, read);
         }
     }
     
+    private static Charset charsetOf(HttpEntity entity) {
+        ContentType contentType = ContentType.parseLenient(entity.getContentType());
+        Charset charset = contentType != null ? contentType.getCharset() : null;
+        return charset != null ? charset : StandardCharsets.UTF_8;
+    }
+    
+    private void addHeaders(org.apache.hc.core5.http.HttpRequest request, Map<String, String> additionalHeaders) {
+        RequestSupport.addHeaders(config, request, additionalHeaders);
+    }
+    
+    // releases this instance's hold on the shared pool, safe to call more than once
     public void close() throws IOException {
-        client.close();
+        if (closed.compareAndSet(false, true)) {
+            if (http2 != null) {
+                H2Transport.release();
+            }
+            HttpClientFactory.release();
+        }
+    }
+    
+    /**
+     * How a response body is read: kept as raw bytes, or drained and only counted. Over HTTP/2 the body
+     * is in memory either way, DISCARD only spares the copy into the ApiResponse.
+     */
+    public enum BodyMode {
+        BUFFERED,
+        DISCARD
+    }
+    
+    /**
+     * What a batch does when a request throws: abort the rest, or run everything and report each failure
+     */
+    public enum BatchMode {
+        FAIL_FAST,
+        COLLECT_ALL
+    }
+    
+    private static final class Exchange<T> {
+        private final HttpUriRequestBase request;
+        private final T result;
+        private final int statusCode;
+        
+        Exchange(HttpUriRequestBase request, T result, int statusCode) {
+            this.request = request;
+            this.result = result;
+            this.statusCode = statusCode;
+        }
     }
     
     public static class ApiResponse {
         private final int statusCode;
-        private final String body;
+        private final byte[] bodyBytes;
+        private final Charset charset;
+        private final long bodyLength;
+        private volatile String body;
+        private volatile RequestTimings timings = RequestTimings.NONE;
         
         public ApiResponse(int statusCode, String body) {
             this.statusCode = statusCode;
             this.body = body;
+            this.bodyBytes = null;
+            this.charset = StandardCharsets.UTF_8;
+            this.bodyLength = body.getBytes(StandardCharsets.UTF_8).length;
+        }
+        
+        public ApiResponse(int statusCode, byte[] bodyBytes, Charset charset) {
+            this.statusCode = statusCode;
+            this.bodyBytes = bodyBytes;
+            this.charset = charset;
+            this.bodyLength = bodyBytes.length;
+        }
+        
+        private ApiResponse(int statusCode, long bodyLength) {
+            this.statusCode = statusCode;
+            this.bodyBytes = new byte[0];
+            this.charset = StandardCharsets.UTF_8;
+            this.bodyLength = bodyLength;
+        }
+        
+        // response whose body was read off the wire but not kept
+        static ApiResponse discarded(int statusCode, long bodyLength) {
+            return new ApiResponse(statusCode, bodyLength);
         }
         
         public int getStatusCode() {
             return statusCode;
         }
         
+        Charset getCharset() {
+            return charset;
+        }
+        
+        // decoded on first use, empty for discarded bodies
         public String getBody() {
-            return body;
+            String decoded = body;
+            if (decoded == null) {
+                decoded = new String(bodyBytes, charset);
+                body = decoded;
+            }
+            return decoded;
+        }
+        
+        // raw body, shared with this response so callers must not modify it
+        public byte[] getBodyBytes() {
+            if (bodyBytes == null) {
+                return body.getBytes(charset);
+            }
+            return bodyBytes;
+        }
+        
+        public ByteBuffer getBodyBuffer() {
+            return ByteBuffer.wrap(getBodyBytes()).asReadOnlyBuffer();
+        }
+        
+        // bytes received, also counted when the body was discarded
+        public long getBodyLength() {
+            return bodyLength;
+        }
+        
+        // lease, connect, time to first byte and body read phases of the exchange
+        public RequestTimings getTimings() {
+            return timings;
+        }
+        
+        void setTimings(RequestTimings timings) {
+            this.timings = timings;
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,78 @@
+package client;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Immutable description of one request, used to hand work to ApiClient.executeAll
+ */
+public final class ApiRequest {
+    private final String method;
+    private final String endpoint;
+    private final String body;
+    private final Map<String, String> headers;
+    private final ApiClient.BodyMode mode;
+    
+    private ApiRequest(String method, String endpoint, String body, Map<String, String> headers,
+                       ApiClient.BodyMode mode) {
+        this.method = method;
+        this.endpoint = endpoint;
+        this.body = body;
+        this.headers = headers;
+        this.mode = mode;
+    }
+    
+    public static ApiRequest get(String endpoint) {
+        return new ApiRequest("GET", endpoint, null, null, ApiClient.BodyMode.BUFFERED);
+    }
+    
+    public static ApiRequest post(String endpoint, String jsonBody) {
+        return new ApiRequest("POST", endpoint, jsonBody, null, ApiClient.BodyMode.BUFFERED);
+    }
+    
+    public static ApiRequest put(String endpoint, String jsonBody) {
+        return new ApiRequest("PUT", endpoint, jsonBody, null, ApiClient.BodyMode.BUFFERED);
+    }
+    
+    public static ApiRequest delete(String endpoint) {
+        return new ApiRequest("DELETE", endpoint, null, null, ApiClient.BodyMode.BUFFERED);
+    }
+    
+    // copy of this request carrying additional headers
+    public ApiRequest withHeaders(Map<String, String> headers) {
+        Map<String, String> copy = headers != null ? Collections.unmodifiableMap(new LinkedHashMap<>(headers)) : null;
+        return new ApiRequest(method, endpoint, body, copy, mode);
+    }
+    
+    public ApiRequest withMode(ApiClient.BodyMode mode) {
+        return new ApiRequest(method, endpoint, body, headers, mode);
+    }
+    
+    public String getMethod() {
+        return method;
+    }
+    
+    public String getEndpoint() {
+        return endpoint;
+    }
+    
+    // JSON body, null for GET and DELETE
+    public String getBody() {
+        return body;
+    }
+    
+    // additional headers on top of the configured defaults, null when there are none
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+    
+    public ApiClient.BodyMode getMode() {
+        return mode;
+    }
+    
+    @Override
+    public String toString() {
+        return method + " " + endpoint;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,198 @@
+package client;
+
+import config.ApiConfiguration;
+import metrics.MetricsRegistry;
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.async.methods.SimpleRequestProducer;
+import org.apache.hc.client5.http.async.methods.SimpleResponseConsumer;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Non-blocking API client, many in-flight requests are multiplexed over a few I/O threads
+ */
+public class AsyncApiClient implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(AsyncApiClient.class);
+    private final CloseableHttpAsyncClient client;
+    private final PoolingAsyncClientConnectionManager connectionManager;
+    private final ApiConfiguration config;
+    private final MetricsRegistry metrics = MetricsRegistry.getInstance();
+    private final RateLimits rateLimits = RateLimits.shared();
+    private final RequestLog requestLog;
+    private final Consumer<Set<String>> reloader = this::configChanged;
+    
+    public AsyncApiClient() {
+        this.config = ApiConfiguration.getInstance();
+        this.requestLog = new RequestLog(config);
+        
+        this.connectionManager = PoolingAsyncClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(config.getAsyncMaxConnections())
+                .setMaxConnPerRoute(config.getAsyncMaxConnections())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofSeconds(config.getTimeout()))
+                        .build())
+                .build();
+        
+        this.client = HttpAsyncClients.custom()
+                .setConnectionManager(connectionManager)
+                .setIOReactorConfig(IOReactorConfig.custom()
+                        .setIoThreadCount(config.getAsyncIoThreads())
+                        .build())
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofSeconds(config.getTimeout()))
+                        .setResponseTimeout(Timeout.ofSeconds(config.getTimeout()))
+                        .build())
+                .evictIdleConnections(TimeValue.ofSeconds(config.getPoolIdleEvict()))
+                .build();
+        this.client.start();
+        config.addChangeListener(reloader);
+    }
+    
+    private void configChanged(Set<String> keys) {
+        if (keys.contains("api.async.max.connections")) {
+            connectionManager.setMaxTotal(config.getAsyncMaxConnections());
+            connectionManager.setDefaultMaxPerRoute(config.getAsyncMaxConnections());
+        }
+        if (keys.contains("api.timeout")) {
+            connectionManager.setDefaultConnectionConfig(ConnectionConfig.custom()
+                    .setConnectTimeout(Timeout.ofSeconds(config.getTimeout()))
+                    .build());
+        }
+    }
+    
+    public CompletableFuture<ApiClient.ApiResponse> get(String endpoint) {
+        return get(endpoint, null);
+    }
+    
+    public CompletableFuture<ApiClient.ApiResponse> get(String endpoint, Map<String, String> headers) {
+        return execute("GET", endpoint, null, headers);
+    }
+    
+    public CompletableFuture<ApiClient.ApiResponse> post(String endpoint, String jsonBody) {
+        return post(endpoint, jsonBody, null);
+    }
+    
+    public CompletableFuture<ApiClient.ApiResponse> post(String endpoint, String jsonBody, Map<String, String> headers) {
+        return execute("POST", endpoint, jsonBody, headers);
+    }
+    
+    public CompletableFuture<ApiClient.ApiResponse> put(String endpoint, String jsonBody) {
+        return put(endpoint, jsonBody, null);
+    }
+    
+    public CompletableFuture<ApiClient.ApiResponse> put(String endpoint, String jsonBody, Map<String, String> headers) {
+        return execute("PUT", endpoint, jsonBody, headers);
+    }
+    
+    public CompletableFuture<ApiClient.ApiResponse> delete(String endpoint) {
+        return delete(endpoint, null);
+    }
+    
+    public CompletableFuture<ApiClient.ApiResponse> delete(String endpoint, Map<String, String> headers) {
+        return execute("DELETE", endpoint, null, headers);
+    }
+    
+    // connections leased/available and requests waiting for a connection
+    public PoolStats getPoolStats() {
+        return connectionManager.getTotalStats();
+    }
+    
+    private CompletableFuture<ApiClient.ApiResponse> execute(String method, String endpoint, String body,
+                                                             Map<String, String> headers) {
+        String url = RequestSupport.buildUrl(config, endpoint);
+        SimpleHttpRequest request = SimpleHttpRequest.create(method, url);
+        if (body != null) {
+            request.setBody(body, ContentType.APPLICATION_JSON);
+        }
+        RequestSupport.addHeaders(config, request, headers);
+        
+        logger.debug("{} request to: {}", method, url);
+        CompletableFuture<ApiClient.ApiResponse> result = new CompletableFuture<>();
+        // wait for a rate limit permit without tying up an I/O thread
+        rateLimits.acquireAsync(endpoint).thenRun(() -> {
+            if (!result.isDone()) {
+                try {
+                    send(method, endpoint, request, result);
+                } catch (RuntimeException e) {
+                    result.completeExceptionally(e);
+                }
+            }
+        });
+        return result;
+    }
+    
+    private void send(String method, String endpoint, SimpleHttpRequest request,
+                      CompletableFuture<ApiClient.ApiResponse> result) {
+        long start = System.nanoTime();
+        long bytesSent = request.getBodyBytes() != null ? request.getBodyBytes().length : 0;
+        Future<SimpleHttpResponse> exchange = client.execute(
+                SimpleRequestProducer.create(request),
+                SimpleResponseConsumer.create(),
+                new FutureCallback<>() {
+                    @Override
+                    public void completed(SimpleHttpResponse response) {
+                        byte[] responseBody = response.getBodyBytes() != null ? response.getBodyBytes() : new byte[0];
+                        ContentType contentType = response.getContentType();
+                        Charset charset = contentType != null && contentType.getCharset() != null
+                                ? contentType.getCharset() : StandardCharsets.UTF_8;
+                        ApiClient.ApiResponse apiResponse = new ApiClient.ApiResponse(response.getCode(), responseBody, charset);
+                        // phases are not observable on the async path, only the total is recorded
+                        RequestTimings timings = new RequestTimings(0, 0, 0, 0, System.nanoTime() - start,
+                                bytesSent, responseBody.length);
+                        apiResponse.setTimings(timings);
+                        metrics.record(method, endpoint, response.getCode(), timings);
+                        requestLog.completed(method, endpoint, response.getCode(), timings.getTotalNanos(),
+                                request.getBodyBytes(), apiResponse);
+                        result.complete(apiResponse);
+                    }
+                    
+                    @Override
+                    public void failed(Exception ex) {
+                        long elapsed = System.nanoTime() - start;
+                        metrics.recordFailure(method, endpoint, elapsed);
+                        requestLog.failed(method, endpoint, elapsed, ex);
+                        result.completeExceptionally(ex);
+                    }
+                    
+                    @Override
+                    public void cancelled() {
+                        result.cancel(false);
+                    }
+                });
+        
+        // cancelling the returned future aborts the exchange
+        result.whenComplete((response, error) -> {
+            if (result.isCancelled()) {
+                exchange.cancel(true);
+            }
+        });
+    }
+    
+    @Override
+    public void close() {
+        config.removeChangeListener(reloader);
+        client.close(CloseMode.GRACEFUL);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,27 @@
+package client;
+
+import java.io.IOException;
+
+/**
+ * Raised when a fail-fast batch is aborted, carries the outcomes gathered so far
+ */
+public class BatchException extends IOException {
+    private final transient BatchResult result;
+    private final int failedIndex;
+    
+    public BatchException(BatchResult result, int failedIndex, Throwable cause) {
+        super("Batch aborted at request " + failedIndex + " (" + result.get(failedIndex).getRequest() + "): "
+                + cause.getMessage(), cause);
+        this.result = result;
+        this.failedIndex = failedIndex;
+    }
+    
+    public BatchResult getResult() {
+        return result;
+    }
+    
+    // position of the first failed request in the batch
+    public int getFailedIndex() {
+        return failedIndex;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,164 @@
+package client;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outcomes of a batch in request order, with the wall time of the whole batch
+ */
+public class BatchResult {
+    private final List<Outcome> outcomes;
+    private final long wallNanos;
+    
+    BatchResult(List<Outcome> outcomes, long wallNanos) {
+        this.outcomes = Collections.unmodifiableList(outcomes);
+        this.wallNanos = wallNanos;
+    }
+    
+    // one outcome per request, in the order the requests were given
+    public List<Outcome> getOutcomes() {
+        return outcomes;
+    }
+    
+    public Outcome get(int index) {
+        return outcomes.get(index);
+    }
+    
+    public int size() {
+        return outcomes.size();
+    }
+    
+    // responses in request order, null where the request failed or never ran
+    public List<ApiClient.ApiResponse> getResponses() {
+        List<ApiClient.ApiResponse> responses = new ArrayList<>(outcomes.size());
+        for (Outcome outcome : outcomes) {
+            responses.add(outcome.getResponse());
+        }
+        return responses;
+    }
+    
+    public List<Outcome> getFailures() {
+        List<Outcome> failures = new ArrayList<>();
+        for (Outcome outcome : outcomes) {
+            if (outcome.getError() != null) {
+                failures.add(outcome);
+            }
+        }
+        return failures;
+    }
+    
+    public int getSuccessCount() {
+        int count = 0;
+        for (Outcome outcome : outcomes) {
+            if (outcome.isSuccess()) {
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    public int getFailureCount() {
+        return getFailures().size();
+    }
+    
+    public long getWallNanos() {
+        return wallNanos;
+    }
+    
+    public double getWallMillis() {
+        return wallNanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+    
+    // requests in flight when a fail-fast abort interrupted them
+    public int getCancelledCount() {
+        int count = 0;
+        for (Outcome outcome : outcomes) {
+            if (outcome.isCancelled()) {
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("%d requests, %d succeeded, %d failed, %d cancelled in %.1f ms",
+                outcomes.size(), getSuccessCount(), getFailureCount(), getCancelledCount(), getWallMillis());
+    }
+    
+    /**
+     * Result of one request in a batch: a response, an error, or cancelled or skipped after a fail-fast abort
+     */
+    public static final class Outcome {
+        private final ApiRequest request;
+        private final ApiClient.ApiResponse response;
+        private final Exception error;
+        private final boolean cancelled;
+        private final long latencyNanos;
+        
+        Outcome(ApiRequest request, ApiClient.ApiResponse response, Exception error, long latencyNanos) {
+            this(request, response, error, false, latencyNanos);
+        }
+        
+        private Outcome(ApiRequest request, ApiClient.ApiResponse response, Exception error, boolean cancelled,
+                        long latencyNanos) {
+            this.request = request;
+            this.response = response;
+            this.error = error;
+            this.cancelled = cancelled;
+            this.latencyNanos = latencyNanos;
+        }
+        
+        static Outcome skipped(ApiRequest request) {
+            return new Outcome(request, null, null, 0);
+        }
+        
+        static Outcome cancelled(ApiRequest request, long latencyNanos) {
+            return new Outcome(request, null, null, true, latencyNanos);
+        }
+        
+        public ApiRequest getRequest() {
+            return request;
+        }
+        
+        // null unless the request completed, whatever its status code
+        public ApiClient.ApiResponse getResponse() {
+            return response;
+        }
+        
+        public Exception getError() {
+            return error;
+        }
+        
+        public boolean isSuccess() {
+            return response != null;
+        }
+        
+        // never sent because an earlier request failed in fail-fast mode
+        public boolean isSkipped() {
+            return response == null && error == null && !cancelled;
+        }
+        
+        // sent, but interrupted before it completed because another request failed in fail-fast mode
+        public boolean isCancelled() {
+            return cancelled;
+        }
+        
+        public long getLatencyNanos() {
+            return latencyNanos;
+        }
+        
+        public double getLatencyMillis() {
+            return latencyNanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+        }
+        
+        @Override
+        public String toString() {
+            String result = response != null ? String.valueOf(response.getStatusCode())
+                    : error != null ? error.toString() : cancelled ? "cancelled" : "skipped";
+            return String.format("%s -> %s (%.1f ms)", request, result, getLatencyMillis());
+        }
+    }
+}
\ No newline at end of file
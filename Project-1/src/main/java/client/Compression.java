@@ -0,0 +1,75 @@
+package client;
+
+import org.apache.hc.client5.http.entity.DeflateDecompressingEntity;
+import org.apache.hc.client5.http.entity.GzipDecompressingEntity;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.io.entity.ByteArrayEntity;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Content-Encoding for ApiClient: encoded responses are decoded while the handler reads them,
+ * request bodies past a size threshold are gzipped once before the first attempt
+ */
+final class Compression {
+    static final String ACCEPT_ENCODING = "gzip, deflate";
+    
+    private Compression() {
+    }
+    
+    // gzip and deflate bodies are inflated as they are read, anything else is passed through untouched
+    static HttpEntity decode(HttpEntity entity) {
+        String encoding = entity.getContentEncoding();
+        if (encoding == null) {
+            return entity;
+        }
+        switch (encoding.trim().toLowerCase(Locale.ROOT)) {
+            case "gzip", "x-gzip" -> {
+                return new GzipDecompressingEntity(entity);
+            }
+            case "deflate" -> {
+                return new DeflateDecompressingEntity(entity);
+            }
+            default -> {
+                return entity;
+            }
+        }
+    }
+    
+    // gzipped copy of a repeatable body of at least minSize bytes, held in memory so retries and hedges resend it as is
+    static HttpEntity encode(HttpEntity entity, int minSize) throws IOException {
+        if (entity == null || !entity.isRepeatable() || entity.getContentEncoding() != null
+                || entity.getContentLength() < minSize) {
+            return entity;
+        }
+        long length = entity.getContentLength();
+        ByteArrayOutputStream out = new ByteArrayOutputStream((int) Math.min(length / 4 + 64, Integer.MAX_VALUE));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out, 8192)) {
+            entity.writeTo(gzip);
+        }
+        if (out.size() >= length) {
+            // already compact, gzip would only add its header
+            return entity;
+        }
+        return new GzippedEntity(out.toByteArray(), entity);
+    }
+    
+    // the body as the caller passed it, before encode
+    static HttpEntity uncompressed(HttpEntity entity) {
+        return entity instanceof GzippedEntity ? ((GzippedEntity) entity).original : entity;
+    }
+    
+    private static final class GzippedEntity extends ByteArrayEntity {
+        private final HttpEntity original;
+        
+        GzippedEntity(byte[] compressed, HttpEntity original) {
+            super(compressed, original.getContentType() != null ? ContentType.parse(original.getContentType()) : null,
+                    "gzip");
+            this.original = original;
+        }
+    }
+}
\ No newline at end of file
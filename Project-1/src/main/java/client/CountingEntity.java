@@ -0,0 +1,52 @@
+package client;
+
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.io.entity.HttpEntityWrapper;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.LongConsumer;
+
+/**
+ * Response entity wrapper that reports bytes read, e.g. to the request's timer
+ */
+final class CountingEntity extends HttpEntityWrapper {
+    private final LongConsumer counter;
+    
+    CountingEntity(HttpEntity entity, LongConsumer counter) {
+        super(entity);
+        this.counter = counter;
+    }
+    
+    @Override
+    public InputStream getContent() throws IOException {
+        InputStream content = super.getContent();
+        return content == null ? null : new FilterInputStream(content) {
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b >= 0) {
+                    counter.accept(1);
+                }
+                return b;
+            }
+            
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                int read = super.read(buffer, offset, length);
+                if (read > 0) {
+                    counter.accept(read);
+                }
+                return read;
+            }
+            
+            @Override
+            public long skip(long n) throws IOException {
+                long skipped = super.skip(n);
+                counter.accept(skipped);
+                return skipped;
+            }
+        };
+    }
+}
\ No newline at end of file
@@ -0,0 +1,351 @@
+package client;
+
+import config.ApiConfiguration;
+import org.apache.hc.client5.http.ClientProtocolException;
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.async.methods.SimpleRequestProducer;
+import org.apache.hc.client5.http.async.methods.SimpleResponseConsumer;
+import org.apache.hc.client5.http.classic.methods.HttpUriRequestBase;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.H2AsyncClientBuilder;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.ConnectionClosedException;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.io.HttpClientResponseHandler;
+import org.apache.hc.core5.http.io.entity.ByteArrayEntity;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.apache.hc.core5.http.message.BasicClassicHttpResponse;
+import org.apache.hc.core5.http.nio.AsyncResponseConsumer;
+import org.apache.hc.core5.http.nio.CapacityChannel;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.http2.H2ConnectionException;
+import org.apache.hc.core5.http2.config.H2Config;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.apache.hc.core5.reactor.IOSession;
+import org.apache.hc.core5.reactor.IOSessionListener;
+import org.apache.hc.core5.util.TimeValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shared, reference-counted HTTP/2 client for ApiClient: requests go out as streams multiplexed over one
+ * connection per host, hosts that refuse HTTP/2 are remembered and served by the HTTP/1.1 pool instead.
+ * Responses are read into memory before the handler sees them, so streaming and discarding handlers
+ * save no memory on this transport.
+ */
+public final class H2Transport {
+    private static final Logger logger = LoggerFactory.getLogger(H2Transport.class);
+    private static final Object lock = new Object();
+    // hop-by-hop headers are not allowed on an HTTP/2 stream
+    private static final Set<String> CONNECTION_HEADERS = Set.of(
+            "connection", "keep-alive", "proxy-connection", "transfer-encoding", "upgrade", "host", "content-length");
+    
+    private static H2Transport shared;
+    private static int references;
+    private static final AtomicLong connectionsOpened = new AtomicLong();
+    private static final AtomicInteger openConnections = new AtomicInteger();
+    private static final AtomicLong streamsOpened = new AtomicLong();
+    private static final AtomicLong fallbacks = new AtomicLong();
+    
+    private final CloseableHttpAsyncClient client;
+    private final Semaphore streams;
+    // scheme://host:port that answered over HTTP/2, and those that did not
+    private final Set<String> http2Hosts = ConcurrentHashMap.newKeySet();
+    private final Set<String> http1Hosts = ConcurrentHashMap.newKeySet();
+    
+    private H2Transport(ApiConfiguration config) {
+        this.streams = new Semaphore(config.getHttp2MaxStreams(), true);
+        this.client = H2AsyncClientBuilder.create()
+                .setH2Config(H2Config.custom()
+                        .setMaxConcurrentStreams(config.getHttp2MaxStreams())
+                        .setPushEnabled(false)
+                        .build())
+                .setIOReactorConfig(IOReactorConfig.custom()
+                        .setIoThreadCount(config.getAsyncIoThreads())
+                        .build())
+                .setIOSessionListener(new ConnectionCounter())
+                // ApiClient retries according to its ResiliencePolicy, the client must not add its own
+                .disableAutomaticRetries()
+                .disableRedirectHandling()
+                .evictIdleConnections(TimeValue.ofSeconds(config.getPoolIdleEvict()))
+                .build();
+        this.client.start();
+        logger.debug("Created shared HTTP/2 client (max {} concurrent streams)", config.getHttp2MaxStreams());
+    }
+    
+    // hand out the shared transport, building it on first use; api.http2.max.streams applies from the next build
+    static H2Transport acquire() {
+        synchronized (lock) {
+            if (shared == null) {
+                shared = new H2Transport(ApiConfiguration.getInstance());
+            }
+            references++;
+            return shared;
+        }
+    }
+    
+    // drop one reference, connections are closed when the last holder lets go
+    static void release() {
+        H2Transport toClose = null;
+        synchronized (lock) {
+            if (references == 0) {
+                return;
+            }
+            references--;
+            if (references == 0) {
+                toClose = shared;
+                shared = null;
+            }
+        }
+        if (toClose != null) {
+            logger.debug("Closing shared HTTP/2 client");
+            toClose.client.close(CloseMode.GRACEFUL);
+        }
+    }
+    
+    // HTTP/2 connections opened since startup, compare with the requests sent to see how far streams were shared
+    public static long getConnectionsOpened() {
+        return connectionsOpened.get();
+    }
+    
+    public static int getOpenConnections() {
+        return openConnections.get();
+    }
+    
+    public static long getStreamsOpened() {
+        return streamsOpened.get();
+    }
+    
+    // requests handed to HTTP/1.1 because their host would not speak HTTP/2
+    public static long getFallbacks() {
+        return fallbacks.get();
+    }
+    
+    // sends the request as an HTTP/2 stream and hands the buffered response to the handler, or sends it
+    // through http1 when the host is known not to speak HTTP/2
+    <T> T execute(HttpUriRequestBase request, HttpClientResponseHandler<T> handler, CloseableHttpClient http1)
+            throws IOException {
+        String host = request.getScheme() + "://" + request.getAuthority();
+        if (http1Hosts.contains(host)) {
+            fallbacks.incrementAndGet();
+            return http1.execute(request, handler);
+        }
+        HeadTracker consumer = new HeadTracker();
+        SimpleHttpResponse response;
+        try {
+            response = exchange(request, consumer);
+        } catch (IOException e) {
+            if (consumer.answered) {
+                http2Hosts.add(host);
+            }
+            if (consumer.answered || http2Hosts.contains(host) || !refused(e)) {
+                throw e;
+            }
+            if (http1Hosts.add(host)) {
+                logger.warn("{} did not accept HTTP/2 ({}), falling back to HTTP/1.1", host, e.toString());
+            }
+            // the server may have read part of the request, only methods that are safe to repeat are resent
+            if (!ResiliencePolicy.isIdempotent(request.getMethod())) {
+                throw e;
+            }
+            fallbacks.incrementAndGet();
+            return http1.execute(request, handler);
+        }
+        http2Hosts.add(host);
+        try {
+            return handler.handleResponse(toClassic(response));
+        } catch (HttpException e) {
+            throw new ClientProtocolException(e);
+        }
+    }
+    
+    private SimpleHttpResponse exchange(HttpUriRequestBase request, HeadTracker consumer) throws IOException {
+        SimpleHttpRequest stream = toStream(request);
+        long start = System.nanoTime();
+        try {
+            if (!streams.tryAcquire(request.getConfig().getConnectionRequestTimeout().toMilliseconds(),
+                    TimeUnit.MILLISECONDS)) {
+                throw new InterruptedIOException("Timed out waiting for a free HTTP/2 stream");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a free HTTP/2 stream");
+        } finally {
+            // waiting for a stream is what leasing a connection is on HTTP/1.1
+            RequestTimer timer = RequestTimer.current();
+            if (timer != null) {
+                timer.addLease(System.nanoTime() - start);
+            }
+        }
+        try {
+            streamsOpened.incrementAndGet();
+            Future<SimpleHttpResponse> future = client.execute(SimpleRequestProducer.create(stream), consumer, null);
+            // a hedge cancels the losing request, which resets its stream
+            request.setDependency(() -> future.cancel(true));
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted during HTTP/2 exchange");
+        } catch (CancellationException e) {
+            throw new InterruptedIOException("HTTP/2 stream cancelled");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new ClientProtocolException(String.valueOf(cause), cause);
+        } finally {
+            streams.release();
+        }
+    }
+    
+    private static SimpleHttpRequest toStream(HttpUriRequestBase request) throws IOException {
+        SimpleHttpRequest stream;
+        try {
+            stream = SimpleHttpRequest.create(request.getMethod(), request.getUri());
+        } catch (URISyntaxException e) {
+            throw new ClientProtocolException(e.getMessage(), e);
+        }
+        stream.setConfig(request.getConfig());
+        for (Header header : request.getHeaders()) {
+            if (!CONNECTION_HEADERS.contains(header.getName().toLowerCase(Locale.ROOT))) {
+                stream.addHeader(header);
+            }
+        }
+        HttpEntity entity = request.getEntity();
+        if (entity != null) {
+            stream.setBody(EntityUtils.toByteArray(entity),
+                    entity.getContentType() != null ? ContentType.parse(entity.getContentType()) : null);
+            if (entity.getContentEncoding() != null) {
+                stream.setHeader(HttpHeaders.CONTENT_ENCODING, entity.getContentEncoding());
+            }
+        }
+        return stream;
+    }
+    
+    // the body is already in memory, so the response head is seen by the handler once the whole stream is in
+    private static BasicClassicHttpResponse toClassic(SimpleHttpResponse response) {
+        BasicClassicHttpResponse classic = new BasicClassicHttpResponse(response.getCode(), response.getReasonPhrase());
+        classic.setVersion(response.getVersion());
+        classic.setHeaders(response.getHeaders());
+        byte[] body = response.getBodyBytes();
+        if (body != null) {
+            Header encoding = response.getFirstHeader(HttpHeaders.CONTENT_ENCODING);
+            classic.setEntity(new ByteArrayEntity(body, response.getContentType(),
+                    encoding != null ? encoding.getValue() : null));
+        }
+        return classic;
+    }
+    
+    // what an HTTP/1.1-only server does to the h2c preface: close the connection, or answer with an HTTP/1.1
+    // error that fails to parse as a frame; resets, timeouts and unreachable hosts say nothing about HTTP/2
+    private static boolean refused(IOException e) {
+        return e instanceof ConnectionClosedException || e instanceof H2ConnectionException;
+    }
+    
+    /**
+     * Buffers the response like SimpleResponseConsumer and notes whether its head arrived, after which a
+     * failure is the stream's own and not the host turning HTTP/2 down
+     */
+    private static final class HeadTracker implements AsyncResponseConsumer<SimpleHttpResponse> {
+        private final SimpleResponseConsumer delegate = SimpleResponseConsumer.create();
+        private volatile boolean answered;
+        
+        @Override
+        public void consumeResponse(HttpResponse response, EntityDetails entityDetails, HttpContext context,
+                                    FutureCallback<SimpleHttpResponse> resultCallback)
+                throws HttpException, IOException {
+            answered = true;
+            delegate.consumeResponse(response, entityDetails, context, resultCallback);
+        }
+        
+        @Override
+        public void informationResponse(HttpResponse response, HttpContext context) throws HttpException, IOException {
+            answered = true;
+            delegate.informationResponse(response, context);
+        }
+        
+        @Override
+        public void updateCapacity(CapacityChannel capacityChannel) throws IOException {
+            delegate.updateCapacity(capacityChannel);
+        }
+        
+        @Override
+        public void consume(ByteBuffer src) throws IOException {
+            delegate.consume(src);
+        }
+        
+        @Override
+        public void streamEnd(List<? extends Header> trailers) throws HttpException, IOException {
+            delegate.streamEnd(trailers);
+        }
+        
+        @Override
+        public void failed(Exception cause) {
+            delegate.failed(cause);
+        }
+        
+        @Override
+        public void releaseResources() {
+            delegate.releaseResources();
+        }
+    }
+    
+    private static final class ConnectionCounter implements IOSessionListener {
+        @Override
+        public void connected(IOSession session) {
+            connectionsOpened.incrementAndGet();
+            openConnections.incrementAndGet();
+        }
+        
+        @Override
+        public void disconnected(IOSession session) {
+            openConnections.decrementAndGet();
+        }
+        
+        @Override
+        public void startTls(IOSession session) {
+        }
+        
+        @Override
+        public void inputReady(IOSession session) {
+        }
+        
+        @Override
+        public void outputReady(IOSession session) {
+        }
+        
+        @Override
+        public void timeout(IOSession session) {
+        }
+        
+        @Override
+        public void exception(IOSession session, Exception ex) {
+        }
+    }
+}
\ No newline at end of file
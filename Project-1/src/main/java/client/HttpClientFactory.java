@@ -0,0 +1,162 @@
+package client;
+
+import config.ApiConfiguration;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Shared, reference-counted HTTP client backed by a single pooling connection manager
+ */
+public final class HttpClientFactory {
+    private static final Logger logger = LoggerFactory.getLogger(HttpClientFactory.class);
+    private static final Object lock = new Object();
+    
+    private static CloseableHttpClient client;
+    private static PoolingHttpClientConnectionManager connectionManager;
+    private static int references;
+    private static volatile RequestConfig requestConfig;
+    private static final Consumer<Set<String>> reloader = HttpClientFactory::configChanged;
+    
+    private HttpClientFactory() {
+    }
+    
+    // hand out the shared client, building it on first use
+    public static CloseableHttpClient acquire() {
+        synchronized (lock) {
+            if (client == null) {
+                build(ApiConfiguration.getInstance());
+            }
+            references++;
+            return client;
+        }
+    }
+    
+    // drop one reference, the pool is shut down when the last holder lets go
+    public static void release() throws IOException {
+        CloseableHttpClient toClose = null;
+        synchronized (lock) {
+            if (references == 0) {
+                return;
+            }
+            references--;
+            if (references == 0) {
+                toClose = client;
+                client = null;
+                connectionManager = null;
+            }
+        }
+        if (toClose != null) {
+            logger.debug("Closing shared HTTP client");
+            toClose.close();
+        }
+    }
+    
+    public static int getReferenceCount() {
+        synchronized (lock) {
+            return references;
+        }
+    }
+    
+    // leased/available/pending counts across all routes, zeros when no client is open
+    public static PoolStats getPoolStats() {
+        synchronized (lock) {
+            if (connectionManager == null) {
+                return new PoolStats(0, 0, 0, 0);
+            }
+            return connectionManager.getTotalStats();
+        }
+    }
+    
+    // timeouts for new requests, follows api.timeout when the configuration is reloaded
+    static RequestConfig getRequestConfig() {
+        return requestConfig;
+    }
+    
+    // pool sizes and timeouts are applied to the live pool, keep-alive and eviction need a new client
+    private static void configChanged(Set<String> keys) {
+        ApiConfiguration config = ApiConfiguration.getInstance();
+        synchronized (lock) {
+            if (connectionManager == null) {
+                return;
+            }
+            if (keys.contains("api.pool.max.total") || keys.contains("api.pool.max.per.route")) {
+                connectionManager.setMaxTotal(config.getPoolMaxTotal());
+                connectionManager.setDefaultMaxPerRoute(config.getPoolMaxPerRoute());
+                logger.info("Resized shared pool (max total {}, max per route {})",
+                        config.getPoolMaxTotal(), config.getPoolMaxPerRoute());
+            }
+            if (keys.contains("api.timeout")) {
+                connectionManager.setDefaultConnectionConfig(connectionConfig(config));
+                requestConfig = requestConfig(config);
+            }
+        }
+    }
+    
+    private static ConnectionConfig connectionConfig(ApiConfiguration config) {
+        return ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.ofSeconds(config.getTimeout()))
+                .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                .build();
+    }
+    
+    private static RequestConfig requestConfig(ApiConfiguration config) {
+        return RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.ofSeconds(config.getTimeout()))
+                .setResponseTimeout(Timeout.ofSeconds(config.getTimeout()))
+                .build();
+    }
+    
+    private static void build(ApiConfiguration config) {
+        TimeValue keepAlive = TimeValue.ofSeconds(config.getPoolKeepAlive());
+        
+        connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(config.getPoolMaxTotal())
+                .setMaxConnPerRoute(config.getPoolMaxPerRoute())
+                .setDefaultConnectionConfig(connectionConfig(config))
+                .build();
+        
+        requestConfig = requestConfig(config);
+        
+        client = HttpClients.custom()
+                .setConnectionManager(new TimingConnectionManager(connectionManager))
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy(new DefaultConnectionKeepAliveStrategy() {
+                    @Override
+                    public TimeValue getKeepAliveDuration(HttpResponse response, HttpContext context) {
+                        // never hold a connection longer than the server's Keep-Alive hint or the configured duration
+                        TimeValue duration = super.getKeepAliveDuration(response, context);
+                        return TimeValue.isPositive(duration) && duration.compareTo(keepAlive) < 0 ? duration : keepAlive;
+                    }
+                })
+                // ApiClient retries according to its ResiliencePolicy, the client must not add its own
+                .disableAutomaticRetries()
+                // ApiClient negotiates and decodes Content-Encoding itself so it can count wire and decoded bytes
+                .disableContentCompression()
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofSeconds(config.getPoolIdleEvict()))
+                .build();
+        
+        // listeners are held in a list, adding the same one again would call it twice
+        config.removeChangeListener(reloader);
+        config.addChangeListener(reloader);
+        
+        logger.debug("Created shared HTTP client (max total {}, max per route {})",
+                config.getPoolMaxTotal(), config.getPoolMaxPerRoute());
+    }
+}
\ No newline at end of file
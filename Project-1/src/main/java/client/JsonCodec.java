@@ -0,0 +1,60 @@
+package client;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.util.List;
+
+/**
+ * Process-wide Jackson mapper with readers and writers cached per type
+ */
+public final class JsonCodec {
+    private static final ObjectMapper mapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    
+    private static final ClassValue<ObjectReader> readers = new ClassValue<>() {
+        @Override
+        protected ObjectReader computeValue(Class<?> type) {
+            return mapper.readerFor(type);
+        }
+    };
+    
+    private static final ClassValue<ObjectReader> listReaders = new ClassValue<>() {
+        @Override
+        protected ObjectReader computeValue(Class<?> type) {
+            JavaType listType = mapper.getTypeFactory().constructCollectionType(List.class, type);
+            return mapper.readerFor(listType);
+        }
+    };
+    
+    private static final ClassValue<ObjectWriter> writers = new ClassValue<>() {
+        @Override
+        protected ObjectWriter computeValue(Class<?> type) {
+            return mapper.writerFor(type);
+        }
+    };
+    
+    private JsonCodec() {
+    }
+    
+    // shared and thread-safe, do not reconfigure it after startup
+    public static ObjectMapper mapper() {
+        return mapper;
+    }
+    
+    public static ObjectReader reader(Class<?> type) {
+        return readers.get(type);
+    }
+    
+    // reader producing List<type>
+    public static ObjectReader listReader(Class<?> type) {
+        return listReaders.get(type);
+    }
+    
+    public static ObjectWriter writer(Class<?> type) {
+        return writers.get(type);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,14 @@
+package client;
+
+import com.fasterxml.jackson.core.JsonParser;
+
+import java.io.IOException;
+
+/**
+ * Consumes a response body as a stream of JSON tokens, the parser reads directly from the connection
+ */
+@FunctionalInterface
+public interface JsonResponseHandler<T> {
+    
+    T handle(int statusCode, JsonParser parser) throws IOException;
+}
\ No newline at end of file
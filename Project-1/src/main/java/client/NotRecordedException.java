@@ -0,0 +1,25 @@
+package client;
+
+import java.io.IOException;
+
+/**
+ * Raised in replay mode when the traffic log holds no response for a request
+ */
+public class NotRecordedException extends IOException {
+    private final String method;
+    private final String endpoint;
+    
+    public NotRecordedException(String method, String endpoint) {
+        super("No recorded response for " + method + " " + endpoint);
+        this.method = method;
+        this.endpoint = endpoint;
+    }
+    
+    public String getMethod() {
+        return method;
+    }
+    
+    public String getEndpoint() {
+        return endpoint;
+    }
+}
\ No newline at end of file
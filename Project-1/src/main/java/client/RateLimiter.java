@@ -0,0 +1,152 @@
+package client;
+
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Token bucket in GCRA form: one atomic "theoretical arrival time", updated with CAS, no locks.
+ * Up to burst permits are handed out at once, after that they are spaced at the configured rate.
+ */
+public final class RateLimiter {
+    private final double permitsPerSecond;
+    private final int burst;
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final AtomicLong theoreticalArrival;
+    
+    private final LongAdder permits = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    
+    public RateLimiter(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("Rate must be positive, got " + permitsPerSecond);
+        }
+        if (burst < 1) {
+            throw new IllegalArgumentException("Burst must be at least 1, got " + burst);
+        }
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = burst;
+        this.intervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond));
+        this.toleranceNanos = intervalNanos * (burst - 1);
+        this.theoreticalArrival = new AtomicLong(System.nanoTime());
+    }
+    
+    // "200/s", "600/m" or a bare number of permits per second
+    public static RateLimiter parse(String spec, int burst) {
+        String value = spec.trim().toLowerCase(Locale.ROOT);
+        double perSecond;
+        int slash = value.indexOf('/');
+        try {
+            if (slash < 0) {
+                perSecond = Double.parseDouble(value);
+            } else {
+                double count = Double.parseDouble(value.substring(0, slash).trim());
+                String unit = value.substring(slash + 1).trim();
+                switch (unit) {
+                    case "s", "sec", "second" -> perSecond = count;
+                    case "m", "min", "minute" -> perSecond = count / 60;
+                    case "h", "hour" -> perSecond = count / 3600;
+                    default -> throw new IllegalArgumentException("Unknown rate unit '" + unit + "' in " + spec);
+                }
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid rate limit: " + spec, e);
+        }
+        return new RateLimiter(perSecond, burst);
+    }
+    
+    // take a permit now if one is free, never waits
+    public boolean tryAcquire() {
+        while (true) {
+            long now = System.nanoTime();
+            long arrival = theoreticalArrival.get();
+            long start = Math.max(arrival, now);
+            if (start - toleranceNanos - now > 0) {
+                return false;
+            }
+            if (theoreticalArrival.compareAndSet(arrival, start + intervalNanos)) {
+                permits.increment();
+                return true;
+            }
+        }
+    }
+    
+    // blocks until a permit is due
+    public void acquire() throws InterruptedException {
+        await(reserve());
+    }
+    
+    // completes when a permit is due, without holding a thread while waiting
+    public CompletableFuture<Void> acquireAsync() {
+        return delay(reserve());
+    }
+    
+    // claims the next slot and returns how long until it is due, zero inside the burst
+    long reserve() {
+        while (true) {
+            long now = System.nanoTime();
+            long arrival = theoreticalArrival.get();
+            long start = Math.max(arrival, now);
+            if (theoreticalArrival.compareAndSet(arrival, start + intervalNanos)) {
+                long wait = Math.max(0, start - toleranceNanos - now);
+                permits.increment();
+                if (wait > 0) {
+                    throttled.increment();
+                    waitNanos.add(wait);
+                }
+                return wait;
+            }
+        }
+    }
+    
+    static void await(long waitNanos) throws InterruptedException {
+        long deadline = System.nanoTime() + waitNanos;
+        long remaining = waitNanos;
+        while (remaining > 0) {
+            LockSupport.parkNanos(remaining);
+            if (Thread.interrupted()) {
+                throw new InterruptedException("Interrupted while waiting for a rate limit permit");
+            }
+            remaining = deadline - System.nanoTime();
+        }
+    }
+    
+    static CompletableFuture<Void> delay(long waitNanos) {
+        if (waitNanos <= 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return CompletableFuture.runAsync(() -> { }, CompletableFuture.delayedExecutor(waitNanos, TimeUnit.NANOSECONDS));
+    }
+    
+    public double getPermitsPerSecond() {
+        return permitsPerSecond;
+    }
+    
+    public int getBurst() {
+        return burst;
+    }
+    
+    public long getPermits() {
+        return permits.sum();
+    }
+    
+    // permits that had to wait for their slot
+    public long getThrottled() {
+        return throttled.sum();
+    }
+    
+    public long getWaitNanos() {
+        return waitNanos.sum();
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("%.1f/s burst %d, %d permits, %d throttled, %.1f ms waited",
+                permitsPerSecond, burst, getPermits(), getThrottled(), getWaitNanos() / 1e6);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,100 @@
+package client;
+
+import config.ApiConfiguration;
+import metrics.EndpointTemplate;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rate limiters for the configured base URL (api.ratelimit) and for endpoint templates
+ * (api.ratelimit.posts, api.ratelimit.posts/{id}/comments), shared by every client in the process
+ */
+public final class RateLimits {
+    private static RateLimits shared;
+    
+    private final ApiConfiguration config;
+    private final Map<String, Optional<RateLimiter>> byBaseUrl = new ConcurrentHashMap<>();
+    private final Map<String, Optional<RateLimiter>> byResource = new ConcurrentHashMap<>();
+    // endpoint template to the limiter of its most specific configured resource
+    private final Map<String, Optional<RateLimiter>> byTemplate = new ConcurrentHashMap<>();
+    
+    public RateLimits(ApiConfiguration config) {
+        this.config = config;
+    }
+    
+    public static synchronized RateLimits shared() {
+        if (shared == null) {
+            shared = new RateLimits(ApiConfiguration.getInstance());
+            RateLimits limits = shared;
+            // reloaded limits replace the old limiters, permits already granted are kept
+            ApiConfiguration.getInstance().addChangeListener(keys -> {
+                if (keys.stream().anyMatch(key -> key.startsWith("api.ratelimit"))) {
+                    limits.clear();
+                }
+            });
+        }
+        return shared;
+    }
+    
+    // blocks until both the base URL and the endpoint limit allow another request
+    public void acquire(String endpoint) throws InterruptedException {
+        RateLimiter.await(reserve(endpoint));
+    }
+    
+    public CompletableFuture<Void> acquireAsync(String endpoint) {
+        return RateLimiter.delay(reserve(endpoint));
+    }
+    
+    // slots are claimed on both limiters up front so the waits overlap instead of adding up
+    private long reserve(String endpoint) {
+        long wait = 0;
+        Optional<RateLimiter> base = forBaseUrl();
+        if (base.isPresent()) {
+            wait = base.get().reserve();
+        }
+        Optional<RateLimiter> resource = forEndpoint(endpoint);
+        if (resource.isPresent()) {
+            wait = Math.max(wait, resource.get().reserve());
+        }
+        return wait;
+    }
+    
+    public Optional<RateLimiter> forBaseUrl() {
+        return byBaseUrl.computeIfAbsent(config.getBaseUrl(), url -> create(null));
+    }
+    
+    public Optional<RateLimiter> forEndpoint(String endpoint) {
+        return byTemplate.computeIfAbsent(EndpointTemplate.of(endpoint), this::resolve);
+    }
+    
+    // longest configured prefix of the template, posts/{id}/comments falls back to posts/{id}, then posts
+    private Optional<RateLimiter> resolve(String template) {
+        String resource = template.startsWith("/") ? template.substring(1) : template;
+        while (!resource.isEmpty()) {
+            if (config.getRateLimit(resource) != null) {
+                return byResource.computeIfAbsent(resource, this::create);
+            }
+            int slash = resource.lastIndexOf('/');
+            resource = slash < 0 ? "" : resource.substring(0, slash);
+        }
+        return Optional.empty();
+    }
+    
+    private Optional<RateLimiter> create(String resource) {
+        String spec = config.getRateLimit(resource);
+        if (spec == null) {
+            return Optional.empty();
+        }
+        return Optional.of(RateLimiter.parse(spec, config.getRateLimitBurst(resource)));
+    }
+    
+    // forget all limiters so changed api.ratelimit settings take effect
+    public void clear() {
+        byBaseUrl.clear();
+        byResource.clear();
+        byTemplate.clear();
+    }
+}
\ No newline at end of file
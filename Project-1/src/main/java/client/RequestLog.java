@@ -0,0 +1,137 @@
+package client;
+
+import config.ApiConfiguration;
+import org.apache.hc.core5.http.HttpEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One line per finished exchange, written for a 1 in N sample plus every error and slow request.
+ * Bodies are only read and truncated once a line is known to be written.
+ */
+final class RequestLog {
+    private static final Logger logger = LoggerFactory.getLogger(RequestLog.class);
+    
+    private final int sampleRate;
+    private final long slowNanos;
+    private final boolean logErrors;
+    private final int maxBodyChars;
+    
+    RequestLog(ApiConfiguration config) {
+        this.sampleRate = config.getLogSampleRate();
+        this.slowNanos = TimeUnit.MILLISECONDS.toNanos(config.getLogSlowThreshold());
+        this.logErrors = config.isLogErrors();
+        this.maxBodyChars = config.getLogBodyMaxChars();
+    }
+    
+    // either body may be null; typed calls pass no response, their decoded result is not logged
+    void completed(String method, String endpoint, int status, long elapsedNanos, HttpEntity requestBody,
+                   ApiClient.ApiResponse responseBody) {
+        Line line = line(status, elapsedNanos);
+        if (line != Line.NONE) {
+            write(line, method, endpoint, status, elapsedNanos, render(" request: ", requestBody),
+                    render(" response: ", responseBody));
+        }
+    }
+    
+    void completed(String method, String endpoint, int status, long elapsedNanos, byte[] requestBody,
+                   ApiClient.ApiResponse responseBody) {
+        Line line = line(status, elapsedNanos);
+        if (line != Line.NONE) {
+            write(line, method, endpoint, status, elapsedNanos, render(" request: ", requestBody),
+                    render(" response: ", responseBody));
+        }
+    }
+    
+    // no response at all, e.g. a refused connection or a timeout
+    void failed(String method, String endpoint, long elapsedNanos, Throwable error) {
+        if (logErrors && logger.isWarnEnabled()) {
+            logger.warn("{} {} failed after {} ms: {}", method, endpoint, millis(elapsedNanos), error.toString());
+        }
+    }
+    
+    // decided before any body is read, so lines that are not written cost nothing
+    private Line line(int status, long elapsedNanos) {
+        boolean slow = slowNanos > 0 && elapsedNanos >= slowNanos;
+        if (slow || status >= 400 && logErrors) {
+            if (!logger.isWarnEnabled()) {
+                return Line.NONE;
+            }
+            return slow ? Line.SLOW : Line.ERROR;
+        }
+        return sampled() && logger.isInfoEnabled() ? Line.SAMPLED : Line.NONE;
+    }
+    
+    private void write(Line line, String method, String endpoint, int status, long elapsedNanos, String request,
+                       String response) {
+        if (line == Line.SAMPLED) {
+            logger.info("{} {} -> {} in {} ms{}{}", method, endpoint, status, millis(elapsedNanos), request, response);
+        } else {
+            logger.warn("{}{} {} -> {} in {} ms{}{}", line == Line.SLOW ? "Slow " : "", method, endpoint, status,
+                    millis(elapsedNanos), request, response);
+        }
+    }
+    
+    private boolean sampled() {
+        return sampleRate == 1 || sampleRate > 1 && ThreadLocalRandom.current().nextInt(sampleRate) == 0;
+    }
+    
+    private static String millis(long nanos) {
+        return String.format("%.1f", nanos / 1e6);
+    }
+    
+    private String render(String label, ApiClient.ApiResponse response) {
+        if (response == null || maxBodyChars <= 0) {
+            return "";
+        }
+        byte[] bytes = response.getBodyBytes();
+        if (bytes.length == 0 && response.getBodyLength() > 0) {
+            return label + response.getBodyLength() + " bytes discarded";
+        }
+        return label + truncate(bytes, response.getCharset());
+    }
+    
+    private String render(String label, byte[] body) {
+        if (body == null || maxBodyChars <= 0) {
+            return "";
+        }
+        return label + truncate(body, StandardCharsets.UTF_8);
+    }
+    
+    private String render(String label, HttpEntity entity) {
+        if (entity == null || maxBodyChars <= 0) {
+            return "";
+        }
+        // only the prefix that can show up in the line is read
+        try (InputStream content = entity.getContent()) {
+            byte[] prefix = content.readNBytes(maxBodyChars * 4 + 1);
+            return label + truncate(prefix, StandardCharsets.UTF_8);
+        } catch (IOException | UnsupportedOperationException e) {
+            return label + "<unreadable>";
+        }
+    }
+    
+    // decodes at most enough bytes for maxBodyChars characters
+    private String truncate(byte[] bytes, Charset charset) {
+        int decode = (int) Math.min(bytes.length, (long) maxBodyChars * 4);
+        String text = new String(bytes, 0, decode, charset);
+        if (text.length() > maxBodyChars) {
+            return text.substring(0, maxBodyChars) + "...";
+        }
+        return decode < bytes.length ? text + "..." : text;
+    }
+    
+    private enum Line {
+        NONE,
+        SAMPLED,
+        ERROR,
+        SLOW
+    }
+}
\ No newline at end of file
@@ -0,0 +1,24 @@
+package client;
+
+import config.ApiConfiguration;
+import org.apache.hc.core5.http.HttpRequest;
+
+import java.util.Map;
+
+/**
+ * URL and header building shared by the blocking and async clients
+ */
+final class RequestSupport {
+    
+    private RequestSupport() {
+    }
+    
+    static String buildUrl(ApiConfiguration config, String endpoint) {
+        return config.getBaseUrl() + endpoint;
+    }
+    
+    // precompiled defaults with the per-request headers merged over them, no map is built
+    static void addHeaders(ApiConfiguration config, HttpRequest request, Map<String, String> additionalHeaders) {
+        config.getHeaderSet().applyTo(request, additionalHeaders);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,90 @@
+package client;
+
+/**
+ * Mutable timing state for the request running on the current thread, filled in by the
+ * connection manager and the response handler wrapper
+ */
+final class RequestTimer {
+    private static final ThreadLocal<RequestTimer> current = new ThreadLocal<>();
+    
+    private final long startNanos = System.nanoTime();
+    private long leaseNanos;
+    private long connectNanos;
+    private long firstByteNanos;
+    private long bodyDoneNanos;
+    private long bytesSent;
+    private long bytesReceived;
+    private long uncompressedBytesSent;
+    private long uncompressedBytesReceived;
+    private boolean decoded;
+    private int statusCode;
+    
+    private RequestTimer() {
+    }
+    
+    static RequestTimer start() {
+        RequestTimer timer = new RequestTimer();
+        current.set(timer);
+        return timer;
+    }
+    
+    static RequestTimer current() {
+        return current.get();
+    }
+    
+    void stop() {
+        if (current.get() == this) {
+            current.remove();
+        }
+    }
+    
+    void addLease(long nanos) {
+        leaseNanos += nanos;
+    }
+    
+    void addConnect(long nanos) {
+        connectNanos += nanos;
+    }
+    
+    void responseHead(int statusCode) {
+        this.statusCode = statusCode;
+        this.firstByteNanos = System.nanoTime();
+    }
+    
+    void bodyDone() {
+        this.bodyDoneNanos = System.nanoTime();
+    }
+    
+    void setBytesSent(long bytesSent, long uncompressedBytesSent) {
+        this.bytesSent = bytesSent;
+        this.uncompressedBytesSent = uncompressedBytesSent;
+    }
+    
+    // body bytes as they came off the wire
+    void addBytesReceived(long bytes) {
+        bytesReceived += bytes;
+    }
+    
+    // body bytes after a Content-Encoding was removed, only counted for encoded responses
+    void addUncompressedBytesReceived(long bytes) {
+        decoded = true;
+        uncompressedBytesReceived += bytes;
+    }
+    
+    // status of the response, zero if none arrived
+    int getStatusCode() {
+        return statusCode;
+    }
+    
+    long elapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+    
+    RequestTimings finish() {
+        long end = System.nanoTime();
+        long firstByte = firstByteNanos > 0 ? firstByteNanos - startNanos : 0;
+        long bodyRead = firstByteNanos > 0 && bodyDoneNanos >= firstByteNanos ? bodyDoneNanos - firstByteNanos : 0;
+        return new RequestTimings(leaseNanos, connectNanos, firstByte, bodyRead, end - startNanos,
+                bytesSent, bytesReceived, uncompressedBytesSent, decoded ? uncompressedBytesReceived : bytesReceived);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,95 @@
+package client;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Phase timings and byte counts for one request, all durations in nanoseconds
+ */
+public class RequestTimings {
+    public static final RequestTimings NONE = new RequestTimings(0, 0, 0, 0, 0, 0, 0, 0, 0);
+    
+    private final long leaseNanos;
+    private final long connectNanos;
+    private final long timeToFirstByteNanos;
+    private final long bodyReadNanos;
+    private final long totalNanos;
+    private final long bytesSent;
+    private final long bytesReceived;
+    private final long uncompressedBytesSent;
+    private final long uncompressedBytesReceived;
+    
+    // nothing compressed, the uncompressed counts equal the wire counts
+    public RequestTimings(long leaseNanos, long connectNanos, long timeToFirstByteNanos, long bodyReadNanos,
+                          long totalNanos, long bytesSent, long bytesReceived) {
+        this(leaseNanos, connectNanos, timeToFirstByteNanos, bodyReadNanos, totalNanos, bytesSent, bytesReceived,
+                bytesSent, bytesReceived);
+    }
+    
+    public RequestTimings(long leaseNanos, long connectNanos, long timeToFirstByteNanos, long bodyReadNanos,
+                          long totalNanos, long bytesSent, long bytesReceived, long uncompressedBytesSent,
+                          long uncompressedBytesReceived) {
+        this.leaseNanos = leaseNanos;
+        this.connectNanos = connectNanos;
+        this.timeToFirstByteNanos = timeToFirstByteNanos;
+        this.bodyReadNanos = bodyReadNanos;
+        this.totalNanos = totalNanos;
+        this.bytesSent = bytesSent;
+        this.bytesReceived = bytesReceived;
+        this.uncompressedBytesSent = uncompressedBytesSent;
+        this.uncompressedBytesReceived = uncompressedBytesReceived;
+    }
+    
+    // waiting for a pooled connection
+    public long getLeaseNanos() {
+        return leaseNanos;
+    }
+    
+    // TCP connect plus TLS handshake, zero when a pooled connection was reused
+    public long getConnectNanos() {
+        return connectNanos;
+    }
+    
+    // from the start of the request until the response head arrived
+    public long getTimeToFirstByteNanos() {
+        return timeToFirstByteNanos;
+    }
+    
+    // reading and decoding the response body
+    public long getBodyReadNanos() {
+        return bodyReadNanos;
+    }
+    
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+    
+    // request body bytes on the wire, after any compression
+    public long getBytesSent() {
+        return bytesSent;
+    }
+    
+    // response body bytes on the wire, before any decompression
+    public long getBytesReceived() {
+        return bytesReceived;
+    }
+    
+    public long getUncompressedBytesSent() {
+        return uncompressedBytesSent;
+    }
+    
+    public long getUncompressedBytesReceived() {
+        return uncompressedBytesReceived;
+    }
+    
+    public double getTotalMillis() {
+        return totalNanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("lease=%.2fms connect=%.2fms ttfb=%.2fms body=%.2fms total=%.2fms sent=%dB/%dB "
+                        + "received=%dB/%dB", leaseNanos / 1e6, connectNanos / 1e6, timeToFirstByteNanos / 1e6,
+                bodyReadNanos / 1e6, totalNanos / 1e6, bytesSent, uncompressedBytesSent, bytesReceived,
+                uncompressedBytesReceived);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,127 @@
+package client;
+
+import config.ApiConfiguration;
+import org.apache.hc.client5.http.HttpResponseException;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Retry and hedging rules for one HTTP method. Retries back off exponentially with full jitter,
+ * hedging sends a second GET once the first is slower than a latency percentile.
+ */
+public final class ResiliencePolicy {
+    private static final Set<Integer> RETRYABLE_STATUSES = Set.of(502, 503, 504);
+    // sending these twice has the same effect as sending them once
+    private static final Set<String> IDEMPOTENT_METHODS = Set.of("GET", "HEAD", "PUT", "DELETE", "OPTIONS");
+    private static final ResiliencePolicy NONE = new ResiliencePolicy(1, 0, 0, false, 0, 0);
+    
+    private final int maxAttempts;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    private final boolean hedged;
+    private final double hedgePercentile;
+    private final long hedgeDelayMillis;
+    
+    private ResiliencePolicy(int maxAttempts, long baseDelayMillis, long maxDelayMillis, boolean hedged,
+                             double hedgePercentile, long hedgeDelayMillis) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be at least 1, got " + maxAttempts);
+        }
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        this.hedged = hedged;
+        this.hedgePercentile = hedgePercentile;
+        this.hedgeDelayMillis = hedgeDelayMillis;
+    }
+    
+    // single attempt, no hedging
+    public static ResiliencePolicy none() {
+        return NONE;
+    }
+    
+    public static ResiliencePolicy retrying(int maxAttempts, long baseDelayMillis, long maxDelayMillis) {
+        return new ResiliencePolicy(maxAttempts, baseDelayMillis, maxDelayMillis, false, 0, 0);
+    }
+    
+    // policy for a method from api.retry.* and api.hedge.*, non-idempotent methods are never retried
+    // even when api.retry.methods lists them
+    public static ResiliencePolicy fromConfig(ApiConfiguration config, String method) {
+        ResiliencePolicy policy = config.getRetryMethods().contains(method) && isIdempotent(method)
+                ? retrying(config.getRetryMaxAttempts(), config.getRetryBaseDelay(), config.getRetryMaxDelay())
+                : NONE;
+        if ("GET".equals(method) && config.isHedgeEnabled()) {
+            policy = policy.withHedging(config.getHedgePercentile(), config.getHedgeDelay());
+        }
+        return policy;
+    }
+    
+    static boolean isIdempotent(String method) {
+        return IDEMPOTENT_METHODS.contains(method);
+    }
+    
+    // send a duplicate once the first attempt outlives the given latency percentile,
+    // fallbackDelayMillis is used until enough latencies have been recorded
+    public ResiliencePolicy withHedging(double percentile, long fallbackDelayMillis) {
+        if (percentile <= 0 || percentile >= 100) {
+            throw new IllegalArgumentException("Hedge percentile must be between 0 and 100, got " + percentile);
+        }
+        return new ResiliencePolicy(maxAttempts, baseDelayMillis, maxDelayMillis, true, percentile, fallbackDelayMillis);
+    }
+    
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+    
+    public boolean isHedged() {
+        return hedged;
+    }
+    
+    public double getHedgePercentile() {
+        return hedgePercentile;
+    }
+    
+    public long getHedgeDelayMillis() {
+        return hedgeDelayMillis;
+    }
+    
+    boolean shouldRetry(int attempt, int statusCode) {
+        return attempt < maxAttempts && RETRYABLE_STATUSES.contains(statusCode);
+    }
+    
+    // transport failures are retried, an interrupt means the caller gave up
+    boolean shouldRetry(int attempt, IOException error) {
+        if (attempt >= maxAttempts || Thread.currentThread().isInterrupted()) {
+            return false;
+        }
+        if (error instanceof NotRecordedException) {
+            // replay is deterministic, asking again gives the same answer
+            return false;
+        }
+        if (error instanceof HttpResponseException) {
+            return RETRYABLE_STATUSES.contains(((HttpResponseException) error).getStatusCode());
+        }
+        return !(error instanceof InterruptedIOException) || error instanceof SocketTimeoutException;
+    }
+    
+    // full jitter: uniform in [0, min(max, base * 2^(attempt - 1))]
+    long backoffNanos(int attempt) {
+        long ceiling = baseDelayMillis << Math.min(attempt - 1, 30);
+        if (ceiling <= 0 || ceiling > maxDelayMillis) {
+            ceiling = maxDelayMillis;
+        }
+        return TimeUnit.MILLISECONDS.toNanos(ThreadLocalRandom.current().nextLong(ceiling + 1));
+    }
+    
+    @Override
+    public String toString() {
+        return hedged
+                ? String.format("attempts=%d backoff=%d..%dms hedge=p%s", maxAttempts, baseDelayMillis, maxDelayMillis, hedgePercentile)
+                : String.format("attempts=%d backoff=%d..%dms", maxAttempts, baseDelayMillis, maxDelayMillis);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,374 @@
+package client;
+
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpResponse;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Size-bounded LRU cache for GET responses. Honours Cache-Control max-age, no-cache and no-store,
+ * and revalidates stale entries with If-None-Match / If-Modified-Since. A successful unsafe request drops
+ * the entries for its URL and for same-origin Location / Content-Location (RFC 9111 section 4.4).
+ */
+public class ResponseCache {
+    private static final int ENTRY_OVERHEAD = 128;
+    private static ResponseCache shared;
+    
+    private final long maxBytes;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    // header names each URL's last response varied on, needed to build the lookup key
+    private final Map<String, String[]> varyByUrl = new HashMap<>();
+    private long currentBytes;
+    
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder revalidations = new LongAdder();
+    private final LongAdder notModified = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    
+    public ResponseCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+    
+    // process-wide cache used by ApiClient when api.cache.enabled is set
+    public static synchronized ResponseCache shared(long maxBytes) {
+        if (shared == null) {
+            shared = new ResponseCache(maxBytes);
+        }
+        return shared;
+    }
+    
+    Lookup lookup(String url, Function<String, String> requestHeaders) {
+        String key;
+        Entry entry;
+        synchronized (this) {
+            key = keyFor(url, varyByUrl.get(url), requestHeaders);
+            entry = entries.get(key);
+        }
+        if (entry == null) {
+            misses.increment();
+            return new Lookup(url, key, null, false);
+        }
+        if (entry.isFresh(System.nanoTime())) {
+            hits.increment();
+            return new Lookup(url, key, entry, true);
+        }
+        if (entry.etag == null && entry.lastModified == null) {
+            misses.increment();
+            return new Lookup(url, key, null, false);
+        }
+        revalidations.increment();
+        return new Lookup(url, key, entry, false);
+    }
+    
+    // store or refresh from a network response, returns the response to hand to the caller
+    ApiClient.ApiResponse onResponse(Lookup lookup, ClassicHttpResponse head, ApiClient.ApiResponse response,
+                                     Function<String, String> requestHeaders) {
+        Directives directives = Directives.parse(head);
+        if (response.getStatusCode() == 304 && lookup.entry != null) {
+            notModified.increment();
+            Entry refreshed = lookup.entry.refresh(directives);
+            synchronized (this) {
+                if (entries.get(lookup.key) == lookup.entry) {
+                    entries.put(lookup.key, refreshed);
+                }
+            }
+            return refreshed.toResponse();
+        }
+        if (response.getStatusCode() != 200 || !directives.isStorable()) {
+            return response;
+        }
+        
+        Entry entry = new Entry(response.getBodyBytes(), response.getCharset(), directives);
+        long size = entry.body.length + lookup.url.length() + ENTRY_OVERHEAD;
+        if (size > maxBytes) {
+            return response;
+        }
+        synchronized (this) {
+            String key = keyFor(lookup.url, directives.vary, requestHeaders);
+            varyByUrl.put(lookup.url, directives.vary);
+            Entry previous = entries.put(key, entry.withSize(size));
+            if (previous != null) {
+                currentBytes -= previous.size;
+            }
+            currentBytes += size;
+            evictToFit();
+        }
+        return response;
+    }
+    
+    // a 2xx or 3xx answer to POST, PUT, DELETE and the like means cached copies of the target are out of date
+    void onUnsafeResponse(String url, HttpResponse response) {
+        if (response.getCode() < 200 || response.getCode() >= 400) {
+            return;
+        }
+        invalidate(url);
+        for (String name : new String[] {HttpHeaders.LOCATION, HttpHeaders.CONTENT_LOCATION}) {
+            Header header = response.getFirstHeader(name);
+            String target = header != null ? sameOrigin(url, header.getValue()) : null;
+            if (target != null && !target.equals(url)) {
+                invalidate(target);
+            }
+        }
+    }
+    
+    // drops every stored variant of the URL
+    public synchronized void invalidate(String url) {
+        varyByUrl.remove(url);
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Entry> entry = iterator.next();
+            if (entry.getKey().equals(url) || entry.getKey().startsWith(url + "\n")) {
+                currentBytes -= entry.getValue().size;
+                iterator.remove();
+                invalidations.increment();
+            }
+        }
+    }
+    
+    // the header resolved against the request URL, null for another host, as a cache must not act on those
+    private static String sameOrigin(String url, String reference) {
+        try {
+            URI base = new URI(url);
+            URI target = base.resolve(reference.trim());
+            return Objects.equals(base.getScheme(), target.getScheme())
+                    && Objects.equals(base.getRawAuthority(), target.getRawAuthority()) ? target.toString() : null;
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+    
+    // every entry stale, so revalidation can be exercised without waiting out max-age
+    synchronized void expireAll() {
+        entries.replaceAll((key, entry) -> entry.expired());
+    }
+    
+    // drop least recently used entries until the cache is within its byte budget
+    private void evictToFit() {
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (currentBytes > maxBytes && eldest.hasNext()) {
+            currentBytes -= eldest.next().getValue().size;
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+    
+    private static String keyFor(String url, String[] vary, Function<String, String> requestHeaders) {
+        if (vary == null || vary.length == 0) {
+            return url;
+        }
+        StringBuilder key = new StringBuilder(url);
+        for (String name : vary) {
+            String value = requestHeaders.apply(name);
+            key.append('\n').append(name).append('=').append(value != null ? value : "");
+        }
+        return key.toString();
+    }
+    
+    public synchronized void clear() {
+        entries.clear();
+        varyByUrl.clear();
+        currentBytes = 0;
+    }
+    
+    public synchronized int size() {
+        return entries.size();
+    }
+    
+    public synchronized long getCurrentBytes() {
+        return currentBytes;
+    }
+    
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+    
+    // served from cache without touching the network
+    public long getHits() {
+        return hits.sum();
+    }
+    
+    public long getMisses() {
+        return misses.sum();
+    }
+    
+    // stale entries sent as conditional requests
+    public long getRevalidations() {
+        return revalidations.sum();
+    }
+    
+    // revalidations answered with 304, served from cache without a body transfer
+    public long getNotModified() {
+        return notModified.sum();
+    }
+    
+    public long getEvictions() {
+        return evictions.sum();
+    }
+    
+    // entries dropped because a write went to their URL
+    public long getInvalidations() {
+        return invalidations.sum();
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("hits=%d misses=%d revalidations=%d notModified=%d evictions=%d invalidations=%d "
+                        + "entries=%d bytes=%d", getHits(), getMisses(), getRevalidations(), getNotModified(),
+                getEvictions(), getInvalidations(), size(), getCurrentBytes());
+    }
+    
+    /**
+     * Result of looking a request up: a fresh hit, a stale entry to revalidate, or nothing
+     */
+    static final class Lookup {
+        private final String url;
+        private final String key;
+        private final Entry entry;
+        private final boolean fresh;
+        
+        private Lookup(String url, String key, Entry entry, boolean fresh) {
+            this.url = url;
+            this.key = key;
+            this.entry = entry;
+            this.fresh = fresh;
+        }
+        
+        boolean isFresh() {
+            return fresh;
+        }
+        
+        ApiClient.ApiResponse toResponse() {
+            return entry.toResponse();
+        }
+        
+        // conditional headers for revalidating a stale entry, empty on a miss
+        Map<String, String> validators() {
+            Map<String, String> validators = new HashMap<>();
+            if (entry != null) {
+                if (entry.etag != null) {
+                    validators.put(HttpHeaders.IF_NONE_MATCH, entry.etag);
+                }
+                if (entry.lastModified != null) {
+                    validators.put(HttpHeaders.IF_MODIFIED_SINCE, entry.lastModified);
+                }
+            }
+            return validators;
+        }
+    }
+    
+    private static final class Entry {
+        private final byte[] body;
+        private final Charset charset;
+        private final String etag;
+        private final String lastModified;
+        private final long expiresAtNanos;
+        private final long size;
+        
+        Entry(byte[] body, Charset charset, Directives directives) {
+            this(body, charset, directives.etag, directives.lastModified, directives.expiresAt(System.nanoTime()), 0);
+        }
+        
+        private Entry(byte[] body, Charset charset, String etag, String lastModified, long expiresAtNanos, long size) {
+            this.body = body;
+            this.charset = charset;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.expiresAtNanos = expiresAtNanos;
+            this.size = size;
+        }
+        
+        Entry withSize(long size) {
+            return new Entry(body, charset, etag, lastModified, expiresAtNanos, size);
+        }
+        
+        // a 304 carries new freshness and possibly new validators, the body is kept
+        Entry refresh(Directives directives) {
+            return new Entry(body, charset,
+                    directives.etag != null ? directives.etag : etag,
+                    directives.lastModified != null ? directives.lastModified : lastModified,
+                    directives.expiresAt(System.nanoTime()), size);
+        }
+        
+        Entry expired() {
+            return new Entry(body, charset, etag, lastModified, System.nanoTime(), size);
+        }
+        
+        boolean isFresh(long now) {
+            return now - expiresAtNanos < 0;
+        }
+        
+        ApiClient.ApiResponse toResponse() {
+            return new ApiClient.ApiResponse(200, body, charset);
+        }
+    }
+    
+    private static final class Directives {
+        private boolean noStore;
+        private boolean noCache;
+        private long maxAgeSeconds = -1;
+        private String etag;
+        private String lastModified;
+        private String[] vary = new String[0];
+        
+        static Directives parse(ClassicHttpResponse response) {
+            Directives directives = new Directives();
+            for (Header header : response.getHeaders(HttpHeaders.CACHE_CONTROL)) {
+                for (String part : header.getValue().split(",")) {
+                    String directive = part.trim().toLowerCase(Locale.ROOT);
+                    if (directive.equals("no-store")) {
+                        directives.noStore = true;
+                    } else if (directive.equals("no-cache")) {
+                        directives.noCache = true;
+                    } else if (directive.startsWith("max-age=")) {
+                        try {
+                            directives.maxAgeSeconds = Long.parseLong(directive.substring(8).replace("\"", ""));
+                        } catch (NumberFormatException e) {
+                            directives.maxAgeSeconds = 0;
+                        }
+                    }
+                }
+            }
+            Header etag = response.getFirstHeader(HttpHeaders.ETAG);
+            directives.etag = etag != null ? etag.getValue() : null;
+            Header lastModified = response.getFirstHeader(HttpHeaders.LAST_MODIFIED);
+            directives.lastModified = lastModified != null ? lastModified.getValue() : null;
+            Header vary = response.getFirstHeader(HttpHeaders.VARY);
+            if (vary != null) {
+                String[] names = vary.getValue().split(",");
+                for (int i = 0; i < names.length; i++) {
+                    names[i] = names[i].trim().toLowerCase(Locale.ROOT);
+                }
+                directives.vary = names;
+            }
+            return directives;
+        }
+        
+        // Vary: * can never be matched, and an entry without freshness or validators is useless
+        boolean isStorable() {
+            if (noStore || (vary.length == 1 && vary[0].equals("*"))) {
+                return false;
+            }
+            return maxAgeSeconds > 0 || etag != null || lastModified != null;
+        }
+        
+        long expiresAt(long now) {
+            long freshFor = noCache || maxAgeSeconds < 0 ? 0 : TimeUnit.SECONDS.toNanos(maxAgeSeconds);
+            return now + freshFor;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,152 @@
+package client;
+
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.io.ConnectionEndpoint;
+import org.apache.hc.client5.http.io.HttpClientConnectionManager;
+import org.apache.hc.client5.http.io.LeaseRequest;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.pool.ConnPoolControl;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Pooling connection manager decorator that reports lease and connect time to the current RequestTimer.
+ * Classic requests run entirely on the calling thread, so the timer is found through a thread local.
+ */
+final class TimingConnectionManager implements HttpClientConnectionManager, ConnPoolControl<HttpRoute> {
+    private final PoolingHttpClientConnectionManager delegate;
+    
+    TimingConnectionManager(PoolingHttpClientConnectionManager delegate) {
+        this.delegate = delegate;
+    }
+    
+    @Override
+    public LeaseRequest lease(String id, HttpRoute route, Timeout requestTimeout, Object state) {
+        LeaseRequest lease = delegate.lease(id, route, requestTimeout, state);
+        return new LeaseRequest() {
+            @Override
+            public ConnectionEndpoint get(Timeout timeout) throws InterruptedException, ExecutionException, TimeoutException {
+                long start = System.nanoTime();
+                try {
+                    return lease.get(timeout);
+                } finally {
+                    RequestTimer timer = RequestTimer.current();
+                    if (timer != null) {
+                        timer.addLease(System.nanoTime() - start);
+                    }
+                }
+            }
+            
+            @Override
+            public boolean cancel() {
+                return lease.cancel();
+            }
+        };
+    }
+    
+    @Override
+    public void release(ConnectionEndpoint endpoint, Object newState, TimeValue validDuration) {
+        delegate.release(endpoint, newState, validDuration);
+    }
+    
+    @Override
+    public void connect(ConnectionEndpoint endpoint, TimeValue connectTimeout, HttpContext context) throws IOException {
+        long start = System.nanoTime();
+        try {
+            delegate.connect(endpoint, connectTimeout, context);
+        } finally {
+            recordConnect(start);
+        }
+    }
+    
+    @Override
+    public void upgrade(ConnectionEndpoint endpoint, HttpContext context) throws IOException {
+        long start = System.nanoTime();
+        try {
+            delegate.upgrade(endpoint, context);
+        } finally {
+            recordConnect(start);
+        }
+    }
+    
+    private static void recordConnect(long start) {
+        RequestTimer timer = RequestTimer.current();
+        if (timer != null) {
+            timer.addConnect(System.nanoTime() - start);
+        }
+    }
+    
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+    
+    @Override
+    public void close(CloseMode closeMode) {
+        delegate.close(closeMode);
+    }
+    
+    // pool control is passed through so the client's idle connection evictor still runs
+    @Override
+    public void setMaxTotal(int max) {
+        delegate.setMaxTotal(max);
+    }
+    
+    @Override
+    public int getMaxTotal() {
+        return delegate.getMaxTotal();
+    }
+    
+    @Override
+    public void setDefaultMaxPerRoute(int max) {
+        delegate.setDefaultMaxPerRoute(max);
+    }
+    
+    @Override
+    public int getDefaultMaxPerRoute() {
+        return delegate.getDefaultMaxPerRoute();
+    }
+    
+    @Override
+    public void setMaxPerRoute(HttpRoute route, int max) {
+        delegate.setMaxPerRoute(route, max);
+    }
+    
+    @Override
+    public int getMaxPerRoute(HttpRoute route) {
+        return delegate.getMaxPerRoute(route);
+    }
+    
+    @Override
+    public void closeIdle(TimeValue idleTime) {
+        delegate.closeIdle(idleTime);
+    }
+    
+    @Override
+    public void closeExpired() {
+        delegate.closeExpired();
+    }
+    
+    @Override
+    public Set<HttpRoute> getRoutes() {
+        return delegate.getRoutes();
+    }
+    
+    @Override
+    public PoolStats getTotalStats() {
+        return delegate.getTotalStats();
+    }
+    
+    @Override
+    public PoolStats getStats(HttpRoute route) {
+        return delegate.getStats(route);
+    }
+}
\ No newline at end of file
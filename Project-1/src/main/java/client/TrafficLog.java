@@ -0,0 +1,280 @@
+package client;
+
+import config.ApiConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Append-only binary log of request/response pairs written through memory-mapped regions.
+ * In record mode every exchange is appended, in replay mode responses are served from an
+ * in-memory index of request fingerprints.
+ *
+ * Layout: an 8 byte header ("TLOG" and a version) followed by records of
+ * [int length][long fingerprint][long durationNanos][int status][short method][int endpoint]
+ * [short contentType][int body]. The length is written last, so a record only becomes visible
+ * once complete and the first zero length marks the end of the log.
+ */
+public final class TrafficLog implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(TrafficLog.class);
+    private static final int MAGIC = 0x544C4F47;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 8;
+    private static final long REGION_BYTES = 8L * 1024 * 1024;
+    private static TrafficLog shared;
+    
+    public enum Mode {
+        RECORD,
+        REPLAY
+    }
+    
+    private final Path path;
+    private final Mode mode;
+    private final FileChannel channel;
+    
+    // record mode, guarded by this
+    private MappedByteBuffer region;
+    private long regionStart;
+    private long writePosition;
+    private int records;
+    
+    // replay mode
+    private final ByteBuffer log;
+    private final Map<Long, int[]> index = new HashMap<>();
+    private final Map<Long, AtomicInteger> cursors = new HashMap<>();
+    
+    private TrafficLog(Path path, Mode mode) throws IOException {
+        this.path = path;
+        this.mode = mode;
+        if (mode == Mode.RECORD) {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            this.log = null;
+            mapRegion(0, REGION_BYTES);
+            region.putInt(0, MAGIC).putInt(4, VERSION);
+            writePosition = HEADER_BYTES;
+        } else {
+            this.channel = FileChannel.open(path, StandardOpenOption.READ);
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Traffic log too large to replay: " + path);
+            }
+            this.log = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buildIndex();
+        }
+    }
+    
+    // a fresh log at path, replacing any earlier recording
+    public static TrafficLog record(Path path) throws IOException {
+        return new TrafficLog(path, Mode.RECORD);
+    }
+    
+    public static TrafficLog replay(Path path) throws IOException {
+        return new TrafficLog(path, Mode.REPLAY);
+    }
+    
+    // process-wide log for api.traffic.mode, null when traffic capture is off
+    public static synchronized TrafficLog shared(ApiConfiguration config) {
+        String mode = config.getTrafficMode();
+        if (shared != null || "off".equals(mode)) {
+            return shared;
+        }
+        Path file = Path.of(config.getTrafficFile());
+        try {
+            switch (mode) {
+                case "record" -> shared = record(file);
+                case "replay" -> shared = replay(file);
+                default -> throw new IllegalArgumentException("Unknown api.traffic.mode '" + mode + "'");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open traffic log " + file, e);
+        }
+        TrafficLog log = shared;
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                log.close();
+            } catch (IOException e) {
+                logger.warn("Failed to close traffic log {}", file, e);
+            }
+        }, "traffic-log-close"));
+        return shared;
+    }
+    
+    public Mode getMode() {
+        return mode;
+    }
+    
+    public Path getPath() {
+        return path;
+    }
+    
+    // FNV-1a over method, endpoint and request body
+    public static long fingerprint(String method, String endpoint, byte[] body) {
+        long hash = 0xcbf29ce484222325L;
+        hash = fnv(hash, method.getBytes(StandardCharsets.UTF_8));
+        hash = (hash ^ ' ') * 0x100000001b3L;
+        hash = fnv(hash, endpoint.getBytes(StandardCharsets.UTF_8));
+        if (body != null) {
+            hash = (hash ^ '\n') * 0x100000001b3L;
+            hash = fnv(hash, body);
+        }
+        return hash;
+    }
+    
+    private static long fnv(long hash, byte[] bytes) {
+        for (byte b : bytes) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+    
+    void append(long fingerprint, String method, String endpoint, int status, String contentType,
+                long durationNanos, byte[] body) throws IOException {
+        byte[] methodBytes = method.getBytes(StandardCharsets.UTF_8);
+        byte[] endpointBytes = endpoint.getBytes(StandardCharsets.UTF_8);
+        byte[] typeBytes = contentType != null ? contentType.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        int length = 8 + 8 + 4 + 2 + methodBytes.length + 4 + endpointBytes.length + 2 + typeBytes.length
+                + 4 + body.length;
+        
+        synchronized (this) {
+            if (mode != Mode.RECORD) {
+                throw new IllegalStateException("Traffic log is open for replay");
+            }
+            if (!channel.isOpen()) {
+                throw new IOException("Traffic log is closed: " + path);
+            }
+            // records never span regions, the length of the next record must fit as well
+            long needed = 4L + length + 4;
+            if (writePosition + needed > regionStart + region.capacity()) {
+                mapRegion(writePosition, Math.max(REGION_BYTES, needed));
+            }
+            int offset = (int) (writePosition - regionStart);
+            ByteBuffer out = region.duplicate();
+            out.position(offset + 4);
+            out.putLong(fingerprint).putLong(durationNanos).putInt(status);
+            out.putShort((short) methodBytes.length).put(methodBytes);
+            out.putInt(endpointBytes.length).put(endpointBytes);
+            out.putShort((short) typeBytes.length).put(typeBytes);
+            out.putInt(body.length).put(body);
+            region.putInt(offset, length);
+            writePosition += 4 + length;
+            records++;
+        }
+    }
+    
+    private void mapRegion(long start, long size) throws IOException {
+        region = channel.map(FileChannel.MapMode.READ_WRITE, start, size);
+        regionStart = start;
+    }
+    
+    // next recorded response for the fingerprint, the last one repeats once all were served
+    Recorded find(long fingerprint) {
+        int[] offsets = index.get(fingerprint);
+        if (offsets == null) {
+            return null;
+        }
+        int next = cursors.get(fingerprint).getAndIncrement();
+        return read(offsets[Math.min(next, offsets.length - 1)]);
+    }
+    
+    private void buildIndex() throws IOException {
+        if (log.limit() < HEADER_BYTES || log.getInt(0) != MAGIC) {
+            throw new IOException("Not a traffic log: " + path);
+        }
+        if (log.getInt(4) != VERSION) {
+            throw new IOException("Unsupported traffic log version " + log.getInt(4) + ": " + path);
+        }
+        Map<Long, List<Integer>> offsets = new HashMap<>();
+        int position = HEADER_BYTES;
+        while (position + 4 <= log.limit()) {
+            int length = log.getInt(position);
+            if (length <= 0 || position + 4 + length > log.limit()) {
+                break;
+            }
+            offsets.computeIfAbsent(log.getLong(position + 4), key -> new ArrayList<>()).add(position);
+            position += 4 + length;
+            records++;
+        }
+        for (Map.Entry<Long, List<Integer>> entry : offsets.entrySet()) {
+            index.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+            cursors.put(entry.getKey(), new AtomicInteger());
+        }
+        logger.info("Replaying {} recorded exchanges ({} distinct requests) from {}", records, index.size(), path);
+    }
+    
+    private Recorded read(int offset) {
+        ByteBuffer in = log.duplicate();
+        in.position(offset + 4 + 8);
+        long duration = in.getLong();
+        int status = in.getInt();
+        String method = string(in, in.getShort());
+        String endpoint = string(in, in.getInt());
+        String contentType = string(in, in.getShort());
+        byte[] body = new byte[in.getInt()];
+        in.get(body);
+        return new Recorded(method, endpoint, status, contentType.isEmpty() ? null : contentType, duration, body);
+    }
+    
+    private static String string(ByteBuffer in, int length) {
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    public synchronized int size() {
+        return records;
+    }
+    
+    // trims the unused tail of the last mapped region
+    @Override
+    public synchronized void close() throws IOException {
+        if (!channel.isOpen()) {
+            return;
+        }
+        if (mode == Mode.RECORD) {
+            region.force();
+            channel.truncate(writePosition);
+            logger.info("Recorded {} exchanges to {}", records, path);
+        }
+        channel.close();
+    }
+    
+    /**
+     * One recorded response
+     */
+    static final class Recorded {
+        final String method;
+        final String endpoint;
+        final int status;
+        final String contentType;
+        final long durationNanos;
+        final byte[] body;
+        
+        Recorded(String method, String endpoint, int status, String contentType, long durationNanos, byte[] body) {
+            this.method = method;
+            this.endpoint = endpoint;
+            this.status = status;
+            this.contentType = contentType;
+            this.durationNanos = durationNanos;
+            this.body = body;
+        }
+    }
+}
\ No newline at end of file
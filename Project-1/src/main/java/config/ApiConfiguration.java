@@ -1,33 +1,74 @@
 package config;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 /**
- * Configuration for API requests
+ * Configuration for API requests, read from an immutable snapshot that is swapped on every change.
+ * With api.config.watch the properties file is watched and reloaded while the JVM runs.
  */
 public class ApiConfiguration {
-    private static ApiConfiguration instance;
-    private final Properties properties;
-    private final Map<String, String> headers;
+    private static final Logger logger = LoggerFactory.getLogger(ApiConfiguration.class);
+    private final AtomicReference<ConfigSnapshot> snapshot = new AtomicReference<>();
+    // values set through setProperty, reapplied over every reload
+    private final Map<String, String> overrides = new ConcurrentHashMap<>();
+    // swapped whole on every change, readers never see a half-updated set
+    private final AtomicReference<HeaderSet> headers = new AtomicReference<>(HeaderSet.EMPTY);
+    private final List<Consumer<Set<String>>> listeners = new CopyOnWriteArrayList<>();
+    // api.config.file, layered over the classpath config.properties, null when not set
+    private final Path file;
+    private Thread watcher;
     
     private ApiConfiguration() {
-        properties = new Properties();
-        headers = new HashMap<>();
-        loadConfiguration();
+        this(System.getProperty("api.config.file") != null ? Path.of(System.getProperty("api.config.file")) : null);
     }
     
-    public static synchronized ApiConfiguration getInstance() {
-        if (instance == null) {
-            instance = new ApiConfiguration();
+    ApiConfiguration(Path file) {
+        this.file = file;
+        snapshot.set(load(1));
+        headers.set(HeaderSet.EMPTY
+                .with("Content-Type", "application/json")
+                .with("Accept", "application/json")
+                .with("User-Agent", "API-Test-Framework/1.0"));
+        if (snapshot.get().configWatch) {
+            startWatching();
         }
-        return instance;
     }
     
-    // load config from properties file, use defaults if file missing
-    private void loadConfiguration() {
+    // initialised on first use by the class loader, no lock on later calls
+    private static final class Holder {
+        private static final ApiConfiguration INSTANCE = new ApiConfiguration();
+    }
+    
+    public static ApiConfiguration getInstance() {
+        return Holder.INSTANCE;
+    }
+    
+    // classpath config.properties, then api.config.file, then -Dapi.* system properties, then setProperty values
+    private ConfigSnapshot load(long version) {
+        Properties properties = new Properties();
         try (InputStream input = getClass().getClassLoader()
                 .getResourceAsStream("config.properties")) {
             if (input != null) {
@@ -36,43 +77,342 @@ public class ApiConfiguration {
         } catch (Exception e) {
             throw new RuntimeException("Failed to load configuration", e);
         }
+        if (file != null && Files.exists(file)) {
+            try (InputStream input = Files.newInputStream(file)) {
+                properties.load(input);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to load configuration from " + file, e);
+            }
+        }
         
-        // set defaults for any missing properties
-        properties.setProperty("api.base.url", 
-            properties.getProperty("api.base.url", "https://jsonplaceholder.typicode.com"));
-        properties.setProperty("api.timeout", 
-            properties.getProperty("api.timeout", "30"));
-        
-        headers.put("Content-Type", "application/json");
-        headers.put("Accept", "application/json");
-        headers.put("User-Agent", "API-Test-Framework/1.0");
+        // -Dapi.* system properties override the file
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (name.startsWith("api.")) {
+                properties.setProperty(name, System.getProperty(name));
+            }
+        }
+        properties.putAll(overrides);
+        return new ConfigSnapshot(properties, version);
+    }
+    
+    // re-reads the configuration sources, the current snapshot is kept if they do not parse
+    public boolean reload() {
+        synchronized (snapshot) {
+            ConfigSnapshot next;
+            try {
+                next = load(snapshot.get().version + 1);
+            } catch (RuntimeException e) {
+                logger.warn("Keeping current configuration, reload failed: {}", e.toString());
+                return false;
+            }
+            publish(next);
+            return true;
+        }
+    }
+    
+    // called with the changed keys after every change, from the thread that made it
+    public void addChangeListener(Consumer<Set<String>> listener) {
+        listeners.add(listener);
+    }
+    
+    public void removeChangeListener(Consumer<Set<String>> listener) {
+        listeners.remove(listener);
+    }
+    
+    // incremented by every change
+    public long getVersion() {
+        return snapshot.get().version;
+    }
+    
+    private void publish(ConfigSnapshot next) {
+        ConfigSnapshot previous = snapshot.getAndSet(next);
+        Set<String> changed = previous.changedKeys(next);
+        if (changed.isEmpty()) {
+            return;
+        }
+        logger.info("Configuration v{} changed {}", next.version, changed);
+        for (Consumer<Set<String>> listener : listeners) {
+            try {
+                listener.accept(changed);
+            } catch (RuntimeException e) {
+                logger.warn("Configuration listener failed", e);
+            }
+        }
+    }
+    
+    // the file reloaded on change: api.config.file, or config.properties when it is a plain file on the classpath
+    private Path watchedFile() {
+        if (file != null) {
+            return file;
+        }
+        URL resource = getClass().getClassLoader().getResource("config.properties");
+        if (resource == null || !"file".equals(resource.getProtocol())) {
+            return null;
+        }
+        try {
+            return Path.of(resource.toURI());
+        } catch (URISyntaxException e) {
+            return null;
+        }
+    }
+    
+    // reloads whenever the configuration file changes, on a daemon thread
+    public synchronized void startWatching() {
+        Path watched = watchedFile();
+        if (watcher != null || watched == null) {
+            return;
+        }
+        watcher = new Thread(() -> watch(watched.toAbsolutePath()), "config-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+    
+    public synchronized void stopWatching() {
+        if (watcher != null) {
+            watcher.interrupt();
+            watcher = null;
+        }
+    }
+    
+    private void watch(Path watched) {
+        Path directory = watched.getParent();
+        try (WatchService service = directory.getFileSystem().newWatchService()) {
+            directory.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            logger.info("Watching {} for configuration changes", watched);
+            while (true) {
+                WatchKey key = service.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    changed |= watched.getFileName().equals(event.context());
+                }
+                if (changed) {
+                    // editors save in several writes, let them finish before reading
+                    Thread.sleep(50);
+                    key.pollEvents();
+                    reload();
+                }
+                if (!key.reset()) {
+                    logger.warn("Stopped watching {}, its directory is gone", watched);
+                    return;
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // stopWatching
+        } catch (IOException e) {
+            logger.warn("Cannot watch {} for configuration changes: {}", watched, e.toString());
+        }
     }
     
     public String getBaseUrl() {
-        return properties.getProperty("api.base.url");
+        return snapshot.get().baseUrl;
     }
     
     public int getTimeout() {
-        return Integer.parseInt(properties.getProperty("api.timeout"));
+        return snapshot.get().timeout;
+    }
+    
+    public int getPoolMaxTotal() {
+        return snapshot.get().poolMaxTotal;
+    }
+    
+    public int getPoolMaxPerRoute() {
+        return snapshot.get().poolMaxPerRoute;
+    }
+    
+    // seconds an idle connection is kept for reuse when the server sends no Keep-Alive hint
+    public int getPoolKeepAlive() {
+        return snapshot.get().poolKeepAlive;
+    }
+    
+    // seconds a connection may sit idle in the pool before the evictor closes it
+    public int getPoolIdleEvict() {
+        return snapshot.get().poolIdleEvict;
+    }
+    
+    public int getAsyncIoThreads() {
+        return snapshot.get().asyncIoThreads;
+    }
+    
+    // connections per route for AsyncApiClient, extra in-flight requests queue for a lease
+    public int getAsyncMaxConnections() {
+        return snapshot.get().asyncMaxConnections;
+    }
+    
+    // directory for metrics.json/metrics.prom written at exit, null when disabled
+    public String getMetricsDir() {
+        return snapshot.get().metricsDir;
+    }
+    
+    public boolean isCacheEnabled() {
+        return snapshot.get().cacheEnabled;
+    }
+    
+    public long getCacheMaxBytes() {
+        return snapshot.get().cacheMaxBytes;
+    }
+    
+    // requests a batch keeps in flight at once
+    public int getBatchConcurrency() {
+        return snapshot.get().batchConcurrency;
+    }
+    
+    // total attempts per request including the first, 1 disables retries
+    public int getRetryMaxAttempts() {
+        return snapshot.get().retryMaxAttempts;
+    }
+    
+    // milliseconds
+    public long getRetryBaseDelay() {
+        return snapshot.get().retryBaseDelay;
+    }
+    
+    // milliseconds
+    public long getRetryMaxDelay() {
+        return snapshot.get().retryMaxDelay;
+    }
+    
+    // methods safe to repeat, upper case
+    public Set<String> getRetryMethods() {
+        return snapshot.get().retryMethods;
+    }
+    
+    public boolean isHedgeEnabled() {
+        return snapshot.get().hedgeEnabled;
+    }
+    
+    public double getHedgePercentile() {
+        return snapshot.get().hedgePercentile;
+    }
+    
+    // milliseconds, used until the endpoint has enough recorded latencies
+    public long getHedgeDelay() {
+        return snapshot.get().hedgeDelay;
+    }
+    
+    // serve the API from the in-process stand-in server instead of api.base.url
+    public boolean isStandInEnabled() {
+        return snapshot.get().standInEnabled;
+    }
+    
+    public int getStandInPort() {
+        return snapshot.get().standInPort;
+    }
+    
+    // milliseconds added before every stand-in response
+    public long getStandInLatency() {
+        return snapshot.get().standInLatency;
+    }
+    
+    public long getStandInLatencyJitter() {
+        return snapshot.get().standInLatencyJitter;
+    }
+    
+    // bytes per second per response body, 0 for unlimited
+    public long getStandInBandwidth() {
+        return snapshot.get().standInBandwidth;
+    }
+    
+    // "1.1", or "2" for a stand-in that only speaks h2c
+    public String getStandInHttpVersion() {
+        return snapshot.get().standInHttpVersion;
+    }
+    
+    // one in this many successful exchanges is logged, 0 logs none
+    public int getLogSampleRate() {
+        return snapshot.get().logSampleRate;
+    }
+    
+    // exchanges at least this many milliseconds long are always logged, 0 disables
+    public long getLogSlowThreshold() {
+        return snapshot.get().logSlowThreshold;
+    }
+    
+    // log every 4xx/5xx response and transport failure regardless of sampling
+    public boolean isLogErrors() {
+        return snapshot.get().logErrors;
+    }
+    
+    // characters of request and response bodies kept in a log line
+    public int getLogBodyMaxChars() {
+        return snapshot.get().logBodyMaxChars;
+    }
+    
+    // off, record or replay
+    public String getTrafficMode() {
+        return snapshot.get().trafficMode;
+    }
+    
+    public String getTrafficFile() {
+        return snapshot.get().trafficFile;
+    }
+    
+    // replayed responses wait their recorded latency divided by this, 0 replays without waiting
+    public double getTrafficReplaySpeed() {
+        return snapshot.get().trafficReplaySpeed;
+    }
+    
+    // off, response (gzip/deflate responses are accepted and decoded) or all (large request bodies are gzipped too)
+    public String getCompression() {
+        return snapshot.get().compression;
+    }
+    
+    // request bodies of at least this many bytes are gzipped when api.compression is all
+    public int getCompressionMinSize() {
+        return snapshot.get().compressionMinSize;
+    }
+    
+    // "1.1", or "2" to multiplex ApiClient requests as HTTP/2 streams
+    public String getHttpVersion() {
+        return snapshot.get().httpVersion;
+    }
+    
+    // streams in flight at once on the shared HTTP/2 transport
+    public int getHttp2MaxStreams() {
+        return snapshot.get().http2MaxStreams;
+    }
+    
+    // api.ratelimit for the base URL, api.ratelimit.<resource> for an endpoint, e.g. "200/s", null when unlimited
+    public String getRateLimit(String resource) {
+        String value = snapshot.get().get(resource == null ? "api.ratelimit" : "api.ratelimit." + resource);
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+    
+    // permits that may be taken at once before requests are spaced out, 1 when not configured
+    public int getRateLimitBurst(String resource) {
+        String key = resource == null ? "api.ratelimit.burst" : "api.ratelimit." + resource + ".burst";
+        String value = snapshot.get().get(key);
+        return value == null ? 1 : Integer.parseInt(value.trim());
     }
     
     public Map<String, String> getDefaultHeaders() {
-        return new HashMap<>(headers);
+        return new HashMap<>(headers.get().toMap());
+    }
+    
+    // current default headers, safe to hold on to while addHeader swaps in a new set
+    public HeaderSet getHeaderSet() {
+        return headers.get();
     }
     
     public String getProperty(String key) {
-        return properties.getProperty(key);
+        return snapshot.get().get(key);
     }
     
     public String getProperty(String key, String defaultValue) {
-        return properties.getProperty(key, defaultValue);
+        String value = snapshot.get().get(key);
+        return value != null ? value : defaultValue;
     }
     
+    // publishes a new snapshot, the value survives later reloads
     public void setProperty(String key, String value) {
-        properties.setProperty(key, value);
+        synchronized (snapshot) {
+            ConfigSnapshot current = snapshot.get();
+            ConfigSnapshot next = current.with(key, value, current.version + 1);
+            overrides.put(key, value);
+            publish(next);
+        }
     }
     
     public void addHeader(String key, String value) {
-        headers.put(key, value);
+        headers.updateAndGet(current -> current.with(key, value));
     }
 }
\ No newline at end of file
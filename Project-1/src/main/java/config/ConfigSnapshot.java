@@ -0,0 +1,232 @@
+package config;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Immutable view of the configuration at one point in time, every value parsed once up front.
+ * ApiConfiguration publishes a new snapshot on each change instead of mutating this one.
+ */
+final class ConfigSnapshot {
+    final long version;
+    final Map<String, String> values;
+    
+    final String baseUrl;
+    final int timeout;
+    final int poolMaxTotal;
+    final int poolMaxPerRoute;
+    final int poolKeepAlive;
+    final int poolIdleEvict;
+    final int asyncIoThreads;
+    final int asyncMaxConnections;
+    final String metricsDir;
+    final boolean cacheEnabled;
+    final long cacheMaxBytes;
+    final int batchConcurrency;
+    final int retryMaxAttempts;
+    final long retryBaseDelay;
+    final long retryMaxDelay;
+    final Set<String> retryMethods;
+    final boolean hedgeEnabled;
+    final double hedgePercentile;
+    final long hedgeDelay;
+    final boolean standInEnabled;
+    final int standInPort;
+    final long standInLatency;
+    final long standInLatencyJitter;
+    final long standInBandwidth;
+    final String standInHttpVersion;
+    final int logSampleRate;
+    final long logSlowThreshold;
+    final boolean logErrors;
+    final int logBodyMaxChars;
+    final String trafficMode;
+    final String trafficFile;
+    final double trafficReplaySpeed;
+    final boolean configWatch;
+    final String compression;
+    final int compressionMinSize;
+    final String httpVersion;
+    final int http2MaxStreams;
+    
+    // parses the properties, a malformed value fails here rather than on first use
+    ConfigSnapshot(Properties source, long version) {
+        Properties properties = new Properties();
+        properties.putAll(source);
+        applyDefaults(properties);
+        
+        Map<String, String> copy = new HashMap<>();
+        for (String name : properties.stringPropertyNames()) {
+            copy.put(name, properties.getProperty(name));
+        }
+        this.values = Collections.unmodifiableMap(copy);
+        this.version = version;
+        
+        baseUrl = properties.getProperty("api.base.url");
+        timeout = Integer.parseInt(properties.getProperty("api.timeout").trim());
+        poolMaxTotal = Integer.parseInt(properties.getProperty("api.pool.max.total").trim());
+        poolMaxPerRoute = Integer.parseInt(properties.getProperty("api.pool.max.per.route").trim());
+        poolKeepAlive = Integer.parseInt(properties.getProperty("api.pool.keepalive").trim());
+        poolIdleEvict = Integer.parseInt(properties.getProperty("api.pool.idle.evict").trim());
+        asyncIoThreads = Integer.parseInt(properties.getProperty("api.async.io.threads").trim());
+        asyncMaxConnections = Integer.parseInt(properties.getProperty("api.async.max.connections").trim());
+        String dir = properties.getProperty("api.metrics.dir");
+        metricsDir = dir == null || dir.isBlank() ? null : dir;
+        cacheEnabled = Boolean.parseBoolean(properties.getProperty("api.cache.enabled").trim());
+        cacheMaxBytes = Long.parseLong(properties.getProperty("api.cache.max.bytes").trim());
+        batchConcurrency = Integer.parseInt(properties.getProperty("api.batch.concurrency").trim());
+        retryMaxAttempts = Integer.parseInt(properties.getProperty("api.retry.max.attempts").trim());
+        retryBaseDelay = Long.parseLong(properties.getProperty("api.retry.base.delay").trim());
+        retryMaxDelay = Long.parseLong(properties.getProperty("api.retry.max.delay").trim());
+        Set<String> methods = new HashSet<>();
+        for (String method : properties.getProperty("api.retry.methods").split(",")) {
+            if (!method.isBlank()) {
+                methods.add(method.trim().toUpperCase(Locale.ROOT));
+            }
+        }
+        retryMethods = Collections.unmodifiableSet(methods);
+        hedgeEnabled = Boolean.parseBoolean(properties.getProperty("api.hedge.enabled").trim());
+        hedgePercentile = Double.parseDouble(properties.getProperty("api.hedge.percentile").trim());
+        hedgeDelay = Long.parseLong(properties.getProperty("api.hedge.delay").trim());
+        standInEnabled = Boolean.parseBoolean(properties.getProperty("api.standin.enabled").trim());
+        standInPort = Integer.parseInt(properties.getProperty("api.standin.port").trim());
+        standInLatency = Long.parseLong(properties.getProperty("api.standin.latency").trim());
+        standInLatencyJitter = Long.parseLong(properties.getProperty("api.standin.latency.jitter").trim());
+        standInBandwidth = Long.parseLong(properties.getProperty("api.standin.bandwidth").trim());
+        standInHttpVersion = properties.getProperty("api.standin.http.version").trim();
+        if (!Set.of("1.1", "2").contains(standInHttpVersion)) {
+            throw new IllegalArgumentException("api.standin.http.version must be 1.1 or 2: " + standInHttpVersion);
+        }
+        logSampleRate = Integer.parseInt(properties.getProperty("api.log.sample").trim());
+        logSlowThreshold = Long.parseLong(properties.getProperty("api.log.slow.threshold").trim());
+        logErrors = Boolean.parseBoolean(properties.getProperty("api.log.errors").trim());
+        logBodyMaxChars = Integer.parseInt(properties.getProperty("api.log.body.max").trim());
+        trafficMode = properties.getProperty("api.traffic.mode").trim().toLowerCase(Locale.ROOT);
+        trafficFile = properties.getProperty("api.traffic.file");
+        trafficReplaySpeed = Double.parseDouble(properties.getProperty("api.traffic.replay.speed").trim());
+        configWatch = Boolean.parseBoolean(properties.getProperty("api.config.watch").trim());
+        compression = properties.getProperty("api.compression").trim().toLowerCase(Locale.ROOT);
+        if (!Set.of("off", "response", "all").contains(compression)) {
+            throw new IllegalArgumentException("api.compression must be off, response or all: " + compression);
+        }
+        compressionMinSize = Integer.parseInt(properties.getProperty("api.compression.min.size").trim());
+        httpVersion = properties.getProperty("api.http.version").trim();
+        if (!Set.of("1.1", "2").contains(httpVersion)) {
+            throw new IllegalArgumentException("api.http.version must be 1.1 or 2: " + httpVersion);
+        }
+        http2MaxStreams = Integer.parseInt(properties.getProperty("api.http2.max.streams").trim());
+        if (http2MaxStreams < 1) {
+            throw new IllegalArgumentException("api.http2.max.streams must be at least 1: " + http2MaxStreams);
+        }
+    }
+    
+    // copy with one value replaced
+    ConfigSnapshot with(String key, String value, long version) {
+        Properties properties = new Properties();
+        properties.putAll(values);
+        properties.setProperty(key, value);
+        return new ConfigSnapshot(properties, version);
+    }
+    
+    String get(String key) {
+        return values.get(key);
+    }
+    
+    // keys whose value differs between the two snapshots
+    Set<String> changedKeys(ConfigSnapshot other) {
+        Set<String> changed = new HashSet<>();
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            if (!entry.getValue().equals(other.values.get(entry.getKey()))) {
+                changed.add(entry.getKey());
+            }
+        }
+        for (String key : other.values.keySet()) {
+            if (!values.containsKey(key)) {
+                changed.add(key);
+            }
+        }
+        return changed;
+    }
+    
+    private static void applyDefaults(Properties properties) {
+        properties.setProperty("api.base.url", 
+            properties.getProperty("api.base.url", "https://jsonplaceholder.typicode.com"));
+        properties.setProperty("api.timeout", 
+            properties.getProperty("api.timeout", "30"));
+        properties.setProperty("api.pool.max.total", 
+            properties.getProperty("api.pool.max.total", "50"));
+        properties.setProperty("api.pool.max.per.route", 
+            properties.getProperty("api.pool.max.per.route", "20"));
+        properties.setProperty("api.pool.keepalive", 
+            properties.getProperty("api.pool.keepalive", "30"));
+        properties.setProperty("api.pool.idle.evict", 
+            properties.getProperty("api.pool.idle.evict", "10"));
+        properties.setProperty("api.async.io.threads", 
+            properties.getProperty("api.async.io.threads", "2"));
+        properties.setProperty("api.async.max.connections", 
+            properties.getProperty("api.async.max.connections", "100"));
+        properties.setProperty("api.metrics.dir", 
+            properties.getProperty("api.metrics.dir", ""));
+        properties.setProperty("api.cache.enabled", 
+            properties.getProperty("api.cache.enabled", "false"));
+        properties.setProperty("api.cache.max.bytes", 
+            properties.getProperty("api.cache.max.bytes", "10485760"));
+        properties.setProperty("api.batch.concurrency", 
+            properties.getProperty("api.batch.concurrency", "8"));
+        properties.setProperty("api.retry.max.attempts", 
+            properties.getProperty("api.retry.max.attempts", "3"));
+        properties.setProperty("api.retry.base.delay", 
+            properties.getProperty("api.retry.base.delay", "100"));
+        properties.setProperty("api.retry.max.delay", 
+            properties.getProperty("api.retry.max.delay", "2000"));
+        properties.setProperty("api.retry.methods", 
+            properties.getProperty("api.retry.methods", "GET,PUT,DELETE"));
+        properties.setProperty("api.hedge.enabled", 
+            properties.getProperty("api.hedge.enabled", "false"));
+        properties.setProperty("api.hedge.percentile", 
+            properties.getProperty("api.hedge.percentile", "95"));
+        properties.setProperty("api.hedge.delay", 
+            properties.getProperty("api.hedge.delay", "100"));
+        properties.setProperty("api.standin.enabled", 
+            properties.getProperty("api.standin.enabled", "false"));
+        properties.setProperty("api.standin.port", 
+            properties.getProperty("api.standin.port", "0"));
+        properties.setProperty("api.standin.latency", 
+            properties.getProperty("api.standin.latency", "0"));
+        properties.setProperty("api.standin.latency.jitter", 
+            properties.getProperty("api.standin.latency.jitter", "0"));
+        properties.setProperty("api.standin.bandwidth", 
+            properties.getProperty("api.standin.bandwidth", "0"));
+        properties.setProperty("api.standin.http.version", 
+            properties.getProperty("api.standin.http.version", "1.1"));
+        properties.setProperty("api.log.sample", 
+            properties.getProperty("api.log.sample", "1"));
+        properties.setProperty("api.log.slow.threshold", 
+            properties.getProperty("api.log.slow.threshold", "0"));
+        properties.setProperty("api.log.errors", 
+            properties.getProperty("api.log.errors", "true"));
+        properties.setProperty("api.log.body.max", 
+            properties.getProperty("api.log.body.max", "200"));
+        properties.setProperty("api.traffic.mode", 
+            properties.getProperty("api.traffic.mode", "off"));
+        properties.setProperty("api.traffic.file", 
+            properties.getProperty("api.traffic.file", "build/traffic/session.tlog"));
+        properties.setProperty("api.traffic.replay.speed", 
+            properties.getProperty("api.traffic.replay.speed", "0"));
+        properties.setProperty("api.config.watch", 
+            properties.getProperty("api.config.watch", "false"));
+        properties.setProperty("api.compression", 
+            properties.getProperty("api.compression", "response"));
+        properties.setProperty("api.compression.min.size", 
+            properties.getProperty("api.compression.min.size", "1024"));
+        properties.setProperty("api.http.version", 
+            properties.getProperty("api.http.version", "1.1"));
+        properties.setProperty("api.http2.max.streams", 
+            properties.getProperty("api.http2.max.streams", "100"));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,103 @@
+package config;
+
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.message.BasicHeader;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Immutable, ordered set of request headers built once and shared by every request.
+ * Changes produce a new set with a higher version, the old one stays valid for requests in flight.
+ */
+public final class HeaderSet {
+    public static final HeaderSet EMPTY = new HeaderSet(new Header[0], 0);
+    
+    private final Header[] headers;
+    private final long version;
+    
+    private HeaderSet(Header[] headers, long version) {
+        this.headers = headers;
+        this.version = version;
+    }
+    
+    // copy with the header added, replacing any header of the same name
+    public HeaderSet with(String name, String value) {
+        Header header = new BasicHeader(name, value);
+        for (int i = 0; i < headers.length; i++) {
+            if (headers[i].getName().equalsIgnoreCase(name)) {
+                Header[] replaced = headers.clone();
+                replaced[i] = header;
+                return new HeaderSet(replaced, version + 1);
+            }
+        }
+        Header[] added = new Header[headers.length + 1];
+        System.arraycopy(headers, 0, added, 0, headers.length);
+        added[headers.length] = header;
+        return new HeaderSet(added, version + 1);
+    }
+    
+    // adds these headers to the request, a per-request header replaces a default of the same name
+    public void applyTo(HttpRequest request, Map<String, String> overlay) {
+        if (overlay == null || overlay.isEmpty()) {
+            for (Header header : headers) {
+                request.addHeader(header);
+            }
+            return;
+        }
+        for (Header header : headers) {
+            if (!containsIgnoreCase(overlay, header.getName())) {
+                request.addHeader(header);
+            }
+        }
+        for (Map.Entry<String, String> header : overlay.entrySet()) {
+            request.addHeader(header.getKey(), header.getValue());
+        }
+    }
+    
+    private static boolean containsIgnoreCase(Map<String, String> overlay, String name) {
+        if (overlay.containsKey(name)) {
+            return true;
+        }
+        for (String key : overlay.keySet()) {
+            if (key.equalsIgnoreCase(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    // value of the named header, case-insensitive, null when absent
+    public String get(String name) {
+        for (Header header : headers) {
+            if (header.getName().equalsIgnoreCase(name)) {
+                return header.getValue();
+            }
+        }
+        return null;
+    }
+    
+    public int size() {
+        return headers.length;
+    }
+    
+    // incremented by every change, lets callers cache anything derived from the set
+    public long getVersion() {
+        return version;
+    }
+    
+    public Map<String, String> toMap() {
+        Map<String, String> map = new LinkedHashMap<>();
+        for (Header header : headers) {
+            map.put(header.getName(), header.getValue());
+        }
+        return Collections.unmodifiableMap(map);
+    }
+    
+    @Override
+    public String toString() {
+        return "v" + version + " " + toMap();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,28 @@
+package diff;
+
+/**
+ * One place where the actual document differs from the expected one, as a JSON pointer ("" for the whole document)
+ */
+public final class Difference {
+    private final String pointer;
+    private final String message;
+    
+    Difference(String pointer, String message) {
+        this.pointer = pointer;
+        this.message = message;
+    }
+    
+    public String getPointer() {
+        return pointer;
+    }
+    
+    public String getMessage() {
+        return message;
+    }
+    
+    // pointer in URI fragment form, e.g. "#/0/title: expected \"a\" but found \"b\""
+    @Override
+    public String toString() {
+        return "#" + pointer + ": " + message;
+    }
+}
\ No newline at end of file
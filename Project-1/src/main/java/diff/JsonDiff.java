@@ -0,0 +1,408 @@
+package diff;
+
+import client.JsonCodec;
+import client.JsonResponseHandler;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Structural diff of an expected JSON document against an actual one, both read as token streams in step.
+ * Only object members that arrive in a different order and arrays compared as unordered are buffered,
+ * so large lists can be checked against golden files without building either tree.
+ */
+public final class JsonDiff {
+    private static final JsonFactory jsonFactory = JsonCodec.mapper().getFactory();
+    private static final JsonDiff EXACT = new JsonDiff(List.of(), List.of(), List.of(), 0, false);
+    private static final int MAX_VALUE_LENGTH = 60;
+    
+    private final List<PathPattern> ignored;
+    private final List<PathPattern> unordered;
+    private final List<Tolerance> tolerances;
+    private final double tolerance;
+    private final boolean failFast;
+    
+    private JsonDiff(List<PathPattern> ignored, List<PathPattern> unordered, List<Tolerance> tolerances,
+                     double tolerance, boolean failFast) {
+        this.ignored = ignored;
+        this.unordered = unordered;
+        this.tolerances = tolerances;
+        this.tolerance = tolerance;
+        this.failFast = failFast;
+    }
+    
+    // every value must be equal, in the same array order; object member order never matters
+    public static JsonDiff exact() {
+        return EXACT;
+    }
+    
+    // values at these JSON pointers are not compared and may be missing on either side, "*" matches
+    // any one segment, e.g. "/id" for a server-generated id or "/*/id" in a list
+    public JsonDiff ignoring(String... pointers) {
+        return new JsonDiff(append(ignored, pointers), unordered, tolerances, tolerance, failFast);
+    }
+    
+    // arrays at these pointers match when their elements pair up in any order, "" for the document itself
+    public JsonDiff unordered(String... pointers) {
+        return new JsonDiff(ignored, append(unordered, pointers), tolerances, tolerance, failFast);
+    }
+    
+    // numbers anywhere match when they are at most delta apart
+    public JsonDiff withTolerance(double delta) {
+        return new JsonDiff(ignored, unordered, tolerances, checkDelta(delta), failFast);
+    }
+    
+    // numbers at pointer match when they are at most delta apart, before any document-wide tolerance
+    public JsonDiff withTolerance(String pointer, double delta) {
+        List<Tolerance> copy = new ArrayList<>(tolerances);
+        copy.add(new Tolerance(PathPattern.parse(pointer), checkDelta(delta)));
+        return new JsonDiff(ignored, unordered, List.copyOf(copy), tolerance, failFast);
+    }
+    
+    // stop reading both documents at the first difference
+    public JsonDiff failFast() {
+        return new JsonDiff(ignored, unordered, tolerances, tolerance, true);
+    }
+    
+    // a testdata item against a response body
+    public List<Difference> compare(JsonNode expected, byte[] actual) {
+        try (JsonParser expectedParser = expected.traverse(JsonCodec.mapper());
+             JsonParser actualParser = jsonFactory.createParser(actual)) {
+            return compare(expectedParser, actualParser);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    public List<Difference> compare(byte[] expected, byte[] actual) {
+        try (JsonParser expectedParser = jsonFactory.createParser(expected);
+             JsonParser actualParser = jsonFactory.createParser(actual)) {
+            return compare(expectedParser, actualParser);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    // golden file against a body that is still arriving, neither is held in memory
+    public List<Difference> compare(Path golden, JsonParser actual) throws IOException {
+        try (JsonParser expected = jsonFactory.createParser(golden.toFile())) {
+            return compare(expected, actual);
+        }
+    }
+    
+    // for ApiClient.getStreaming: diff the response body against a golden file as it streams in
+    public JsonResponseHandler<List<Difference>> against(Path golden) {
+        return (statusCode, parser) -> compare(golden, parser);
+    }
+    
+    // malformed actual JSON is reported as a difference, malformed expected JSON is thrown
+    public List<Difference> compare(JsonParser expected, JsonParser actual) throws IOException {
+        Comparison comparison = new Comparison(new Pointer(), failFast);
+        try {
+            JsonToken expectedToken = expected.currentToken() != null ? expected.currentToken() : expected.nextToken();
+            if (expectedToken == null) {
+                throw new IllegalArgumentException("Expected document is empty");
+            }
+            JsonToken actualToken = actual.currentToken() != null ? actual.currentToken() : actual.nextToken();
+            if (actualToken == null) {
+                comparison.add("expected " + describe(expected, expectedToken) + " but the document is empty");
+            } else {
+                comparison.value(expected, expectedToken, actual, actualToken);
+            }
+        } catch (JsonProcessingException e) {
+            if (e.getProcessor() == expected) {
+                throw e;
+            }
+            comparison.add("malformed JSON: " + e.getOriginalMessage());
+        }
+        return comparison.differences;
+    }
+    
+    private static List<PathPattern> append(List<PathPattern> patterns, String... pointers) {
+        List<PathPattern> copy = new ArrayList<>(patterns);
+        for (String pointer : pointers) {
+            copy.add(PathPattern.parse(pointer));
+        }
+        return List.copyOf(copy);
+    }
+    
+    private static double checkDelta(double delta) {
+        if (!(delta >= 0)) {
+            throw new IllegalArgumentException("Tolerance must be zero or positive: " + delta);
+        }
+        return delta;
+    }
+    
+    // short form of the value at the parser for a message, read before the value is skipped
+    private static String describe(JsonParser parser, JsonToken token) throws IOException {
+        return switch (token) {
+            case START_OBJECT -> "an object";
+            case START_ARRAY -> "an array";
+            case VALUE_STRING -> {
+                String text = parser.getText();
+                yield "\"" + (text.length() > MAX_VALUE_LENGTH ? text.substring(0, MAX_VALUE_LENGTH) + "..." : text)
+                        + "\"";
+            }
+            default -> parser.getText();
+        };
+    }
+    
+    /**
+     * State of one diff: where it is, what it found, and whether it has stopped
+     */
+    private final class Comparison {
+        final Pointer pointer;
+        final boolean stopAtFirst;
+        final List<Difference> differences = new ArrayList<>();
+        boolean stopped;
+        
+        Comparison(Pointer pointer, boolean stopAtFirst) {
+            this.pointer = pointer;
+            this.stopAtFirst = stopAtFirst;
+        }
+        
+        void add(String message) {
+            differences.add(new Difference(pointer.toString(), message));
+            stopped = stopAtFirst;
+        }
+        
+        // both tokens start a value, both values are consumed unless the comparison stopped
+        void value(JsonParser expected, JsonToken e, JsonParser actual, JsonToken a) throws IOException {
+            if (!ignored.isEmpty() && pointer.matchesAny(ignored)) {
+                expected.skipChildren();
+                actual.skipChildren();
+            } else if (e == JsonToken.START_OBJECT && a == JsonToken.START_OBJECT) {
+                object(expected, actual);
+            } else if (e == JsonToken.START_ARRAY && a == JsonToken.START_ARRAY) {
+                if (!unordered.isEmpty() && pointer.matchesAny(unordered)) {
+                    unorderedArray(expected, actual);
+                } else {
+                    array(expected, actual);
+                }
+            } else if (e.isNumeric() && a.isNumeric()) {
+                if (!sameNumber(expected, actual)) {
+                    add("expected " + expected.getText() + " but found " + actual.getText());
+                }
+            } else if (e != a || (e == JsonToken.VALUE_STRING && !sameText(expected, actual))) {
+                add("expected " + describe(expected, e) + " but found " + describe(actual, a));
+                expected.skipChildren();
+                actual.skipChildren();
+            }
+        }
+        
+        private void object(JsonParser expected, JsonParser actual) throws IOException {
+            // actual members read ahead while looking for one that comes later in the expected order
+            Map<String, TokenBuffer> ahead = null;
+            boolean actualEnded = false;
+            while (!stopped && expected.nextToken() == JsonToken.FIELD_NAME) {
+                String name = expected.currentName();
+                JsonToken e = expected.nextToken();
+                pointer.push(name);
+                TokenBuffer buffered = ahead != null ? ahead.remove(name) : null;
+                boolean found = false;
+                if (buffered != null) {
+                    try (JsonParser member = buffered.asParser()) {
+                        value(expected, e, member, member.nextToken());
+                    }
+                    found = true;
+                }
+                while (!found && !actualEnded) {
+                    if (actual.nextToken() != JsonToken.FIELD_NAME) {
+                        actualEnded = true;
+                        break;
+                    }
+                    String actualName = actual.currentName();
+                    JsonToken a = actual.nextToken();
+                    if (actualName.equals(name)) {
+                        value(expected, e, actual, a);
+                        found = true;
+                    } else {
+                        if (ahead == null) {
+                            ahead = new LinkedHashMap<>();
+                        }
+                        TokenBuffer member = new TokenBuffer(actual);
+                        member.copyCurrentStructure(actual);
+                        ahead.put(actualName, member);
+                    }
+                }
+                if (!found) {
+                    if (!pointer.matchesAny(ignored)) {
+                        add("missing, expected " + describe(expected, e));
+                    }
+                    expected.skipChildren();
+                }
+                pointer.pop();
+            }
+            if (stopped) {
+                return;
+            }
+            if (ahead != null) {
+                for (String name : ahead.keySet()) {
+                    unexpected(name);
+                    if (stopped) {
+                        return;
+                    }
+                }
+            }
+            while (!actualEnded && actual.nextToken() == JsonToken.FIELD_NAME) {
+                String name = actual.currentName();
+                actual.nextToken();
+                actual.skipChildren();
+                unexpected(name);
+                if (stopped) {
+                    return;
+                }
+            }
+        }
+        
+        private void unexpected(String name) {
+            pointer.push(name);
+            if (!pointer.matchesAny(ignored)) {
+                add("unexpected member");
+            }
+            pointer.pop();
+        }
+        
+        private void array(JsonParser expected, JsonParser actual) throws IOException {
+            int index = 0;
+            while (!stopped) {
+                JsonToken e = expected.nextToken();
+                JsonToken a = actual.nextToken();
+                if (e == JsonToken.END_ARRAY || a == JsonToken.END_ARRAY) {
+                    int expectedLength = e == JsonToken.END_ARRAY ? index : index + 1 + skipRest(expected);
+                    int actualLength = a == JsonToken.END_ARRAY ? index : index + 1 + skipRest(actual);
+                    if (expectedLength != actualLength) {
+                        add("expected " + expectedLength + " elements but found " + actualLength);
+                    }
+                    return;
+                }
+                pointer.push(index++);
+                value(expected, e, actual, a);
+                pointer.pop();
+            }
+        }
+        
+        // skips the element the parser is on and the ones after it, returning how many followed
+        private int skipRest(JsonParser parser) throws IOException {
+            parser.skipChildren();
+            int count = 0;
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                parser.skipChildren();
+                count++;
+            }
+            return count;
+        }
+        
+        // elements of both sides are buffered and paired greedily, first match wins; each expected element
+        // tries its own position first so arrays that are in order cost one comparison per element
+        private void unorderedArray(JsonParser expected, JsonParser actual) throws IOException {
+            List<TokenBuffer> expectedElements = elements(expected);
+            List<TokenBuffer> actualElements = elements(actual);
+            boolean[] matched = new boolean[actualElements.size()];
+            for (int i = 0; i < expectedElements.size() && !stopped; i++) {
+                TokenBuffer element = expectedElements.get(i);
+                boolean found = i < matched.length && matches(element, actualElements.get(i), i);
+                if (found) {
+                    matched[i] = true;
+                }
+                for (int j = 0; j < matched.length && !found; j++) {
+                    if (j != i && !matched[j] && matches(element, actualElements.get(j), i)) {
+                        matched[j] = true;
+                        found = true;
+                    }
+                }
+                if (!found) {
+                    pointer.push(i);
+                    add("no matching element in the actual array");
+                    pointer.pop();
+                }
+            }
+            for (int j = 0; j < matched.length && !stopped; j++) {
+                if (!matched[j]) {
+                    pointer.push(j);
+                    add("unexpected element");
+                    pointer.pop();
+                }
+            }
+        }
+        
+        private List<TokenBuffer> elements(JsonParser parser) throws IOException {
+            List<TokenBuffer> elements = new ArrayList<>();
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                TokenBuffer element = new TokenBuffer(parser);
+                element.copyCurrentStructure(parser);
+                elements.add(element);
+            }
+            return elements;
+        }
+        
+        // paths inside the element are reported and matched as if it were at the expected index
+        private boolean matches(TokenBuffer expected, TokenBuffer actual, int index) throws IOException {
+            Comparison element = new Comparison(pointer, true);
+            pointer.push(index);
+            try (JsonParser e = expected.asParser(); JsonParser a = actual.asParser()) {
+                element.value(e, e.nextToken(), a, a.nextToken());
+            } finally {
+                pointer.pop();
+            }
+            return element.differences.isEmpty();
+        }
+        
+        private boolean sameNumber(JsonParser expected, JsonParser actual) throws IOException {
+            double delta = tolerance;
+            for (Tolerance rule : tolerances) {
+                if (rule.pattern.matches(pointer)) {
+                    delta = rule.delta;
+                    break;
+                }
+            }
+            if (delta > 0) {
+                return Math.abs(expected.getDoubleValue() - actual.getDoubleValue()) <= delta;
+            }
+            if (expected.getNumberType() == JsonParser.NumberType.INT
+                    || expected.getNumberType() == JsonParser.NumberType.LONG) {
+                if (actual.getNumberType() == JsonParser.NumberType.INT
+                        || actual.getNumberType() == JsonParser.NumberType.LONG) {
+                    return expected.getLongValue() == actual.getLongValue();
+                }
+            }
+            // 1 and 1.0 are the same number
+            return expected.getDecimalValue().compareTo(actual.getDecimalValue()) == 0;
+        }
+    }
+    
+    // compared on the parsers' buffers, no String is made for values that are equal
+    private static boolean sameText(JsonParser expected, JsonParser actual) throws IOException {
+        int length = expected.getTextLength();
+        if (length != actual.getTextLength()) {
+            return false;
+        }
+        return Arrays.equals(expected.getTextCharacters(), expected.getTextOffset(), expected.getTextOffset() + length,
+                actual.getTextCharacters(), actual.getTextOffset(), actual.getTextOffset() + length);
+    }
+    
+    /**
+     * A numeric tolerance for the values at one pointer pattern
+     */
+    private static final class Tolerance {
+        final PathPattern pattern;
+        final double delta;
+        
+        Tolerance(PathPattern pattern, double delta) {
+            this.pattern = pattern;
+            this.delta = delta;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,50 @@
+package diff;
+
+/**
+ * A JSON pointer whose segments may be "*" to match any member name or array index
+ */
+final class PathPattern {
+    private static final String ANY = "*";
+    
+    private final String[] segments;
+    // segment as an array index, -1 when it is not a number
+    private final int[] indexes;
+    
+    private PathPattern(String[] segments) {
+        this.segments = segments;
+        this.indexes = new int[segments.length];
+        for (int i = 0; i < segments.length; i++) {
+            indexes[i] = segments[i].matches("0|[1-9][0-9]{0,8}") ? Integer.parseInt(segments[i]) : -1;
+        }
+    }
+    
+    static PathPattern parse(String pointer) {
+        if (pointer.isEmpty()) {
+            return new PathPattern(new String[0]);
+        }
+        if (!pointer.startsWith("/")) {
+            throw new IllegalArgumentException("JSON pointer must be empty or start with '/': " + pointer);
+        }
+        String[] segments = pointer.substring(1).split("/", -1);
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = segments[i].replace("~1", "/").replace("~0", "~");
+        }
+        return new PathPattern(segments);
+    }
+    
+    boolean matches(Pointer pointer) {
+        if (pointer.depth() != segments.length) {
+            return false;
+        }
+        for (int i = 0; i < segments.length; i++) {
+            if (segments[i].equals(ANY)) {
+                continue;
+            }
+            String name = pointer.name(i);
+            if (name != null ? !name.equals(segments[i]) : pointer.index(i) != indexes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
\ No newline at end of file
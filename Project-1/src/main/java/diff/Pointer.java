@@ -0,0 +1,72 @@
+package diff;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Position in the documents being compared as a stack of segments, rendered as a JSON pointer only for a difference
+ */
+final class Pointer {
+    private String[] names = new String[8];
+    private int[] indexes = new int[8];
+    private int depth;
+    
+    void push(String name) {
+        grow();
+        names[depth++] = name;
+    }
+    
+    void push(int index) {
+        grow();
+        names[depth] = null;
+        indexes[depth++] = index;
+    }
+    
+    void pop() {
+        depth--;
+    }
+    
+    int depth() {
+        return depth;
+    }
+    
+    // member name at level i, null for an array element
+    String name(int i) {
+        return names[i];
+    }
+    
+    int index(int i) {
+        return indexes[i];
+    }
+    
+    boolean matchesAny(List<PathPattern> patterns) {
+        for (int i = 0; i < patterns.size(); i++) {
+            if (patterns.get(i).matches(this)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private void grow() {
+        if (depth == names.length) {
+            names = Arrays.copyOf(names, depth * 2);
+            indexes = Arrays.copyOf(indexes, depth * 2);
+        }
+    }
+    
+    // RFC 6901, "" is the whole document
+    @Override
+    public String toString() {
+        StringBuilder pointer = new StringBuilder();
+        for (int i = 0; i < depth; i++) {
+            pointer.append('/');
+            if (names[i] != null) {
+                pointer.append(names[i].replace("~", "~0").replace("/", "~1"));
+            } else {
+                pointer.append(indexes[i]);
+            }
+        }
+        return pointer.toString();
+    }
+}
\ No newline at end of file
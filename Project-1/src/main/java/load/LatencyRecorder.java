@@ -0,0 +1,87 @@
+package load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histograms per endpoint and per HTTP method, values measured from each request's intended start
+ */
+public class LatencyRecorder {
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(10);
+    
+    private final Map<String, Series> byEndpoint = new ConcurrentHashMap<>();
+    private final Map<String, Series> byMethod = new ConcurrentHashMap<>();
+    
+    public void record(LoadTarget target, long intendedStartNanos, long endNanos, boolean error) {
+        long micros = Math.min(HIGHEST_TRACKABLE_MICROS, Math.max(0, (endNanos - intendedStartNanos) / 1000));
+        byEndpoint.computeIfAbsent(target.getName(), key -> new Series()).record(micros, error);
+        byMethod.computeIfAbsent(target.getMethod(), key -> new Series()).record(micros, error);
+    }
+    
+    public Map<String, Series> getByEndpoint() {
+        return new TreeMap<>(byEndpoint);
+    }
+    
+    public Map<String, Series> getByMethod() {
+        return new TreeMap<>(byMethod);
+    }
+    
+    public String report() {
+        StringBuilder report = new StringBuilder();
+        appendTable(report, "Endpoint", getByEndpoint());
+        report.append(System.lineSeparator());
+        appendTable(report, "Method", getByMethod());
+        return report.toString();
+    }
+    
+    private static void appendTable(StringBuilder report, String title, Map<String, Series> rows) {
+        report.append(String.format("%-32s %8s %7s %9s %9s %9s %9s %9s%n",
+                title, "count", "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        for (Map.Entry<String, Series> row : rows.entrySet()) {
+            Histogram histogram = row.getValue().getHistogram();
+            report.append(String.format("%-32s %8d %7d %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    row.getKey(),
+                    histogram.getTotalCount(),
+                    row.getValue().getErrors(),
+                    millis(histogram.getValueAtPercentile(50)),
+                    millis(histogram.getValueAtPercentile(90)),
+                    millis(histogram.getValueAtPercentile(99)),
+                    millis(histogram.getValueAtPercentile(99.9)),
+                    millis(histogram.getMaxValue())));
+        }
+    }
+    
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+    
+    /**
+     * Histogram plus error count for one row of the report
+     */
+    public static class Series {
+        private final Histogram histogram = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+        private final LongAdder errors = new LongAdder();
+        
+        void record(long micros, boolean error) {
+            histogram.recordValue(micros);
+            if (error) {
+                errors.increment();
+            }
+        }
+        
+        // latency values in microseconds
+        public Histogram getHistogram() {
+            return histogram;
+        }
+        
+        public long getErrors() {
+            return errors.sum();
+        }
+    }
+}
\ No newline at end of file
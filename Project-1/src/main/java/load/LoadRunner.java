@@ -0,0 +1,220 @@
+package load;
+
+import client.ApiClient;
+import client.H2Transport;
+import client.HttpClientFactory;
+import config.ApiConfiguration;
+import org.apache.hc.core5.pool.PoolStats;
+import schema.JsonSchema;
+import schema.Schemas;
+import schema.Violation;
+import server.StandInServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load generator: requests are started on a fixed schedule regardless of how
+ * long earlier ones take, and latency is measured from the scheduled start so queueing
+ * delay is not hidden (coordinated omission)
+ */
+public class LoadRunner {
+    private static final Logger logger = LoggerFactory.getLogger(LoadRunner.class);
+    
+    private final ApiClient apiClient;
+    private final List<LoadTarget> targets;
+    private final double ratePerSecond;
+    private final Duration duration;
+    // per target, only filled when responses are validated
+    private final Map<LoadTarget, JsonSchema> schemas = new IdentityHashMap<>();
+    private final LongAdder validated = new LongAdder();
+    private final LongAdder invalid = new LongAdder();
+    
+    public LoadRunner(ApiClient apiClient, List<LoadTarget> targets, double ratePerSecond, Duration duration) {
+        if (targets.isEmpty()) {
+            throw new IllegalArgumentException("At least one load target is required");
+        }
+        if (ratePerSecond <= 0) {
+            throw new IllegalArgumentException("Request rate must be positive: " + ratePerSecond);
+        }
+        this.apiClient = apiClient;
+        this.targets = List.copyOf(targets);
+        this.ratePerSecond = ratePerSecond;
+        this.duration = duration;
+    }
+    
+    // check every 2xx response body against its resource schema, violations count as errors
+    public LoadRunner validateResponses() {
+        for (LoadTarget target : targets) {
+            JsonSchema schema = Schemas.forRequest(target.getMethod(), target.getEndpoint());
+            if (schema != null) {
+                schemas.put(target, schema);
+            }
+        }
+        return this;
+    }
+    
+    // issue requests round-robin over the targets at the target rate, one virtual thread per request
+    public LatencyRecorder run() {
+        LatencyRecorder recorder = new LatencyRecorder();
+        double intervalNanos = 1_000_000_000.0 / ratePerSecond;
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; ; i++) {
+                long intendedStart = start + (long) (i * intervalNanos);
+                if (intendedStart >= end) {
+                    break;
+                }
+                parkUntil(intendedStart);
+                LoadTarget target = targets.get((int) (i % targets.size()));
+                executor.execute(() -> issue(target, intendedStart, recorder));
+            }
+        }
+        return recorder;
+    }
+    
+    private void issue(LoadTarget target, long intendedStart, LatencyRecorder recorder) {
+        boolean error;
+        try {
+            JsonSchema schema = schemas.get(target);
+            if (schema != null) {
+                error = !sendValidated(target, schema);
+            } else {
+                error = send(target, ApiClient.BodyMode.DISCARD).getStatusCode() >= 500;
+            }
+        } catch (IOException | RuntimeException e) {
+            // anything uncaught would end the task without a sample and hide the failure from the results
+            logger.debug("{} failed: {}", target.getName(), e.toString());
+            error = true;
+        }
+        recorder.record(target, intendedStart, System.nanoTime(), error);
+    }
+    
+    // bodies are drained and counted but not kept unless they are validated, a load run has no other use for them
+    private ApiClient.ApiResponse send(LoadTarget target, ApiClient.BodyMode mode) throws IOException {
+        if (target.getGenerator() != null) {
+            byte[] body = target.nextBody();
+            return target.getMethod().equals("PUT")
+                    ? apiClient.put(target.getEndpoint(), body, null, mode)
+                    : apiClient.post(target.getEndpoint(), body, null, mode);
+        }
+        return apiClient.execute(target.getMethod(), target.getEndpoint(), target.getBody(), null, mode);
+    }
+    
+    // GETs are validated as the body streams in, other responses are buffered first; false for a server
+    // error or a body that does not match
+    private boolean sendValidated(LoadTarget target, JsonSchema schema) throws IOException {
+        if (target.getMethod().equals("GET")) {
+            return apiClient.getStreaming(target.getEndpoint(), (status, parser) -> {
+                if (status >= 500) {
+                    return false;
+                }
+                return status >= 300 || valid(target, schema.validate(parser));
+            });
+        }
+        ApiClient.ApiResponse response = send(target, ApiClient.BodyMode.BUFFERED);
+        int status = response.getStatusCode();
+        if (status >= 500) {
+            return false;
+        }
+        return status >= 300 || valid(target, schema.validate(response.getBodyBytes()));
+    }
+    
+    private boolean valid(LoadTarget target, List<Violation> violations) {
+        validated.increment();
+        if (violations.isEmpty()) {
+            return true;
+        }
+        invalid.increment();
+        logger.debug("{} returned an invalid body: {}", target.getName(), violations);
+        return false;
+    }
+    
+    // responses checked against their schema, and how many of those failed
+    public long getValidatedCount() {
+        return validated.sum();
+    }
+    
+    public long getInvalidCount() {
+        return invalid.sum();
+    }
+    
+    private static void parkUntil(long deadlineNanos) {
+        long remaining;
+        while ((remaining = deadlineNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+    
+    public static void main(String[] args) throws IOException {
+        double rate = Double.parseDouble(System.getProperty("load.rate", "50"));
+        Duration duration = Duration.ofSeconds(Long.parseLong(System.getProperty("load.duration", "30")));
+        String spec = System.getProperty("load.targets", "GET posts.getuser, GET users.getuser, GET todos.getuser");
+        long seed = Long.parseLong(System.getProperty("load.seed", "1"));
+        boolean validate = Boolean.parseBoolean(System.getProperty("load.validate", "false"));
+        
+        List<LoadTarget> targets = LoadTarget.parse(spec, loadEndpoints(), seed);
+        StandInServer standIn = null;
+        ApiConfiguration config = ApiConfiguration.getInstance();
+        if (config.isStandInEnabled()) {
+            standIn = StandInServer.fromConfig(config);
+            standIn.start();
+            config.setProperty("api.base.url", standIn.getBaseUrl());
+        }
+        ApiClient apiClient = new ApiClient();
+        try {
+            logger.info("Running {} targets at {} req/s for {}s", targets.size(), rate, duration.getSeconds());
+            LoadRunner runner = new LoadRunner(apiClient, targets, rate, duration);
+            if (validate) {
+                runner.validateResponses();
+            }
+            LatencyRecorder recorder = runner.run();
+            System.out.println(recorder.report());
+            System.out.println(connectionReport(config));
+            if (validate) {
+                System.out.printf("Schema: %d of %d responses invalid%n", runner.getInvalidCount(),
+                        runner.getValidatedCount());
+            }
+        } finally {
+            apiClient.close();
+            if (standIn != null) {
+                standIn.close();
+            }
+        }
+    }
+    
+    // connections the run needed, to compare HTTP/1.1 pooling with HTTP/2 multiplexing
+    private static String connectionReport(ApiConfiguration config) {
+        PoolStats pool = HttpClientFactory.getPoolStats();
+        String http1 = "HTTP/1.1 pool: " + (pool.getLeased() + pool.getAvailable()) + " connections open";
+        if (!"2".equals(config.getHttpVersion())) {
+            return http1;
+        }
+        return String.format("HTTP/2: %d streams over %d connections (%d fell back to HTTP/1.1), %s",
+                H2Transport.getStreamsOpened(), H2Transport.getConnectionsOpened(), H2Transport.getFallbacks(), http1);
+    }
+    
+    // endpoint keys from test.properties when it is on the classpath
+    private static Properties loadEndpoints() throws IOException {
+        Properties endpoints = new Properties();
+        try (InputStream input = LoadRunner.class.getClassLoader().getResourceAsStream("test.properties")) {
+            if (input != null) {
+                endpoints.load(input);
+            }
+        }
+        return endpoints;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,110 @@
+package load;
+
+import client.JsonCodec;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A single request shape issued by the load runner
+ */
+public class LoadTarget {
+    private static final String GENERATED = "gen:";
+    
+    private final String method;
+    private final String endpoint;
+    private final String body;
+    private final PayloadGenerator generator;
+    private final AtomicLong sequence = new AtomicLong();
+    
+    public LoadTarget(String method, String endpoint, String body) {
+        this(method, endpoint, body, null);
+    }
+    
+    private LoadTarget(String method, String endpoint, String body, PayloadGenerator generator) {
+        this.method = method.toUpperCase();
+        this.endpoint = endpoint;
+        this.body = body;
+        this.generator = generator;
+    }
+    
+    // every request carries the next generated payload instead of a fixed body
+    public static LoadTarget generated(String method, String endpoint, PayloadGenerator generator) {
+        LoadTarget target = new LoadTarget(method, endpoint, null, generator);
+        if (!target.method.equals("POST") && !target.method.equals("PUT")) {
+            throw new IllegalArgumentException("Generated bodies are only sent with POST or PUT: " + method);
+        }
+        return target;
+    }
+    
+    public String getMethod() {
+        return method;
+    }
+    
+    public String getEndpoint() {
+        return endpoint;
+    }
+    
+    public String getBody() {
+        return body;
+    }
+    
+    public PayloadGenerator getGenerator() {
+        return generator;
+    }
+    
+    // next generated payload, null for a fixed body
+    public byte[] nextBody() {
+        return generator != null ? generator.payload(sequence.getAndIncrement()) : null;
+    }
+    
+    // label used to group latencies per endpoint
+    public String getName() {
+        return method + " " + endpoint;
+    }
+    
+    // parse "GET users.getuser, POST posts.base testdata/posts-create.json" using endpoint keys from test.properties
+    public static List<LoadTarget> parse(String spec, Properties endpoints) {
+        return parse(spec, endpoints, 1);
+    }
+    
+    // a body resource prefixed with "gen:" is a template for generated payloads, e.g. gen:testdata/users-create.json
+    public static List<LoadTarget> parse(String spec, Properties endpoints, long seed) {
+        List<LoadTarget> targets = new ArrayList<>();
+        for (String entry : spec.split(",")) {
+            String[] parts = entry.trim().split("\\s+");
+            if (parts.length < 2) {
+                throw new IllegalArgumentException("Load target must be '<METHOD> <endpoint key> [body resource]': " + entry);
+            }
+            String endpoint = endpoints.getProperty(parts[1], parts[1]);
+            if (parts.length > 2 && parts[2].startsWith(GENERATED)) {
+                PayloadGenerator generator = PayloadGenerator.fromResource(parts[2].substring(GENERATED.length()), seed);
+                targets.add(generated(parts[0], endpoint, generator));
+                continue;
+            }
+            String body = parts.length > 2 ? loadBody(parts[2]) : null;
+            targets.add(new LoadTarget(parts[0], endpoint, body));
+        }
+        return targets;
+    }
+    
+    // first item of a testdata array, or the whole document
+    private static String loadBody(String resourcePath) {
+        try (InputStream inputStream = LoadTarget.class.getClassLoader().getResourceAsStream(resourcePath)) {
+            if (inputStream == null) {
+                throw new IllegalArgumentException("Could not find resource: " + resourcePath);
+            }
+            ObjectMapper mapper = JsonCodec.mapper();
+            JsonNode node = mapper.readTree(inputStream);
+            return mapper.writeValueAsString(node.isArray() && node.size() > 0 ? node.get(0) : node);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to load request body from: " + resourcePath, e);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,199 @@
+package load;
+
+import client.JsonCodec;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Synthetic request bodies shaped like a testdata record, written field by field with a JsonGenerator.
+ * Payload i depends only on the seed and i, so any number can be produced lazily, in any order and from any thread.
+ */
+public final class PayloadGenerator {
+    private static final JsonFactory factory = JsonCodec.mapper().getFactory();
+    // foreign keys such as userId stay within the ids the API serves
+    private static final long REFERENCE_RANGE = 10;
+    
+    private final JsonNode template;
+    private final long seed;
+    // words of every text value in the template, nested ones included, split once up front
+    private final Map<JsonNode, String[]> words = new IdentityHashMap<>();
+    private final int sizeHint;
+    
+    public PayloadGenerator(JsonNode template, long seed) {
+        JsonNode record = template.isArray() && template.size() > 0 ? template.get(0) : template;
+        if (!record.isObject()) {
+            throw new IllegalArgumentException("Payload template must be a JSON object: " + record);
+        }
+        this.template = record;
+        this.seed = seed;
+        splitWords(record);
+        this.sizeHint = record.toString().length() + 64;
+    }
+    
+    private void splitWords(JsonNode value) {
+        if (value.isTextual()) {
+            words.put(value, value.textValue().split("\\s+"));
+        }
+        for (JsonNode child : value) {
+            splitWords(child);
+        }
+    }
+    
+    // template from a classpath testdata file, the first record when it holds an array
+    public static PayloadGenerator fromResource(String resourcePath, long seed) {
+        try (InputStream inputStream = PayloadGenerator.class.getClassLoader().getResourceAsStream(resourcePath)) {
+            if (inputStream == null) {
+                throw new IllegalArgumentException("Could not find resource: " + resourcePath);
+            }
+            return new PayloadGenerator(JsonCodec.mapper().readTree(inputStream), seed);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load payload template from: " + resourcePath, e);
+        }
+    }
+    
+    // UTF-8 JSON of payload index
+    public byte[] payload(long index) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(sizeHint);
+        try (JsonGenerator generator = factory.createGenerator(out)) {
+            write(generator, index);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+    
+    // payloads are built as the stream is consumed, none are kept
+    public Stream<byte[]> stream(long firstIndex, long count) {
+        return LongStream.range(firstIndex, firstIndex + count).mapToObj(this::payload);
+    }
+    
+    // one payload per line, written straight to the file, returns the file size
+    public long writeNdjson(Path file, long count) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file), 1 << 16);
+             JsonGenerator generator = factory.createGenerator(out)) {
+            generator.setRootValueSeparator(new SerializedString("\n"));
+            for (long i = 0; i < count; i++) {
+                write(generator, i);
+            }
+            if (count > 0) {
+                generator.writeRaw('\n');
+            }
+        }
+        return Files.size(file);
+    }
+    
+    // writes payload index as the next value of generator
+    public void write(JsonGenerator generator, long index) throws IOException {
+        SplittableRandom random = new SplittableRandom(seed ^ index * 0x9E3779B97F4A7C15L);
+        writeValue(generator, "", template, index, random);
+    }
+    
+    // nested objects and arrays are generated field by field and element by element like the record itself,
+    // array elements are named after their array
+    private void writeValue(JsonGenerator generator, String name, JsonNode value, long index,
+                            SplittableRandom random) throws IOException {
+        if (value.isObject()) {
+            generator.writeStartObject();
+            for (Iterator<Map.Entry<String, JsonNode>> fields = value.fields(); fields.hasNext(); ) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                generator.writeFieldName(field.getKey());
+                writeValue(generator, field.getKey(), field.getValue(), index, random);
+            }
+            generator.writeEndObject();
+        } else if (value.isArray()) {
+            generator.writeStartArray();
+            for (JsonNode element : value) {
+                writeValue(generator, name, element, index, random);
+            }
+            generator.writeEndArray();
+        } else if (value.isTextual()) {
+            generator.writeString(text(value.textValue(), words.get(value), index, random));
+        } else if (value.isIntegralNumber()) {
+            generator.writeNumber(number(name, value.longValue(), random));
+        } else if (value.isNumber()) {
+            generator.writeNumber(value.doubleValue() * (0.5 + random.nextDouble()));
+        } else if (value.isBoolean()) {
+            generator.writeBoolean(random.nextBoolean());
+        } else {
+            // null, the only value left, stays as it is
+            generator.writeTree(value);
+        }
+    }
+    
+    // "id" names the record a PUT replaces and is kept, other *Id fields reference an existing record
+    private static long number(String name, long value, SplittableRandom random) {
+        if (name.equals("id")) {
+            return value;
+        }
+        if (name.endsWith("Id")) {
+            return 1 + random.nextLong(Math.max(value, REFERENCE_RANGE));
+        }
+        return random.nextLong(Math.max(2 * value, 100) + 1);
+    }
+    
+    // strings other than numbers such as phones, zip codes and coordinates carry the index so payloads stay
+    // unique, all keep the template's shape
+    private static String text(String value, String[] words, long index, SplittableRandom random) {
+        int at = value.indexOf('@');
+        if (at > 0) {
+            return value.substring(0, at) + index + value.substring(at);
+        }
+        if (isNumeric(value)) {
+            StringBuilder digits = new StringBuilder(value.length());
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                digits.append(Character.isDigit(c) ? (char) ('0' + random.nextInt(10)) : c);
+            }
+            return digits.toString();
+        }
+        if (words.length > 1) {
+            StringBuilder text = new StringBuilder(value.length() + 24);
+            int count = words.length / 2 + 1 + random.nextInt(words.length + 1);
+            for (int i = 0; i < count; i++) {
+                text.append(words[random.nextInt(words.length)]).append(' ');
+            }
+            return text.append(index).toString();
+        }
+        int dot = value.lastIndexOf('.');
+        return dot > 0 ? value.substring(0, dot) + index + value.substring(dot) : value + index;
+    }
+    
+    // digits with separators, signs, decimal points and phone extensions, e.g. "1-770-736-8031 x56442"
+    private static boolean isNumeric(String value) {
+        return value.chars().anyMatch(Character::isDigit) && value.chars().allMatch(c -> Character.isDigit(c)
+                || c == '-' || c == ' ' || c == '+' || c == '.' || c == 'x' || c == '(' || c == ')');
+    }
+    
+    // ./gradlew generatePayloads -Dpayload.template=testdata/users-create.json -Dpayload.count=1000000
+    public static void main(String[] args) throws IOException {
+        String template = System.getProperty("payload.template", "testdata/posts-create.json");
+        long count = Long.parseLong(System.getProperty("payload.count", "100000"));
+        long seed = Long.parseLong(System.getProperty("payload.seed", "1"));
+        Path file = Path.of(System.getProperty("payload.file", "build/payloads/payloads.ndjson"));
+        
+        long start = System.nanoTime();
+        long bytes = fromResource(template, seed).writeNdjson(file, count);
+        System.out.printf("Wrote %d payloads (%d bytes) to %s in %d ms%n", count, bytes, file,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+}
\ No newline at end of file
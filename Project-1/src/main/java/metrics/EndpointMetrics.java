@@ -0,0 +1,162 @@
+package metrics;
+
+import client.RequestTimings;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and latency histogram for one method and endpoint template
+ */
+public class EndpointMetrics {
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(10);
+    
+    private final String method;
+    private final String template;
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final Map<Integer, LongAdder> statusCounts = new ConcurrentHashMap<>();
+    private final Histogram latency = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+    // kept apart so timeouts do not drag the latency percentiles hedging is based on
+    private final Histogram failureLatency = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+    private final Histogram timeToFirstByte = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+    private final LongAdder leaseNanos = new LongAdder();
+    private final LongAdder connectNanos = new LongAdder();
+    private final LongAdder bodyReadNanos = new LongAdder();
+    private final LongAdder bytesSent = new LongAdder();
+    private final LongAdder bytesReceived = new LongAdder();
+    private final LongAdder uncompressedBytesSent = new LongAdder();
+    private final LongAdder uncompressedBytesReceived = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder hedges = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+    
+    EndpointMetrics(String method, String template) {
+        this.method = method;
+        this.template = template;
+    }
+    
+    void record(int statusCode, RequestTimings timings) {
+        requests.increment();
+        statusCounts.computeIfAbsent(statusCode, code -> new LongAdder()).increment();
+        latency.recordValue(toMicros(timings.getTotalNanos()));
+        if (timings.getTimeToFirstByteNanos() > 0) {
+            timeToFirstByte.recordValue(toMicros(timings.getTimeToFirstByteNanos()));
+        }
+        leaseNanos.add(timings.getLeaseNanos());
+        connectNanos.add(timings.getConnectNanos());
+        bodyReadNanos.add(timings.getBodyReadNanos());
+        bytesSent.add(timings.getBytesSent());
+        bytesReceived.add(timings.getBytesReceived());
+        uncompressedBytesSent.add(timings.getUncompressedBytesSent());
+        uncompressedBytesReceived.add(timings.getUncompressedBytesReceived());
+    }
+    
+    // request that never produced a response, e.g. a connect failure or timeout
+    void recordFailure(long elapsedNanos) {
+        requests.increment();
+        failures.increment();
+        failureLatency.recordValue(toMicros(elapsedNanos));
+    }
+    
+    void recordRetry() {
+        retries.increment();
+    }
+    
+    void recordHedge(boolean won) {
+        hedges.increment();
+        if (won) {
+            hedgeWins.increment();
+        }
+    }
+    
+    private static long toMicros(long nanos) {
+        return Math.min(HIGHEST_TRACKABLE_MICROS, Math.max(0, nanos / 1000));
+    }
+    
+    public String getMethod() {
+        return method;
+    }
+    
+    public String getTemplate() {
+        return template;
+    }
+    
+    public long getRequests() {
+        return requests.sum();
+    }
+    
+    public long getFailures() {
+        return failures.sum();
+    }
+    
+    public Map<Integer, Long> getStatusCounts() {
+        Map<Integer, Long> counts = new TreeMap<>();
+        statusCounts.forEach((status, count) -> counts.put(status, count.sum()));
+        return counts;
+    }
+    
+    // end-to-end latency in microseconds of requests that got a response
+    public Histogram getLatency() {
+        return latency;
+    }
+    
+    // time in microseconds until requests without a response failed
+    public Histogram getFailureLatency() {
+        return failureLatency;
+    }
+    
+    // time to first byte in microseconds
+    public Histogram getTimeToFirstByte() {
+        return timeToFirstByte;
+    }
+    
+    public long getLeaseNanos() {
+        return leaseNanos.sum();
+    }
+    
+    public long getConnectNanos() {
+        return connectNanos.sum();
+    }
+    
+    public long getBodyReadNanos() {
+        return bodyReadNanos.sum();
+    }
+    
+    public long getBytesSent() {
+        return bytesSent.sum();
+    }
+    
+    public long getBytesReceived() {
+        return bytesReceived.sum();
+    }
+    
+    // body bytes before compression, equal to the wire counts when nothing was compressed
+    public long getUncompressedBytesSent() {
+        return uncompressedBytesSent.sum();
+    }
+    
+    public long getUncompressedBytesReceived() {
+        return uncompressedBytesReceived.sum();
+    }
+    
+    // attempts made after the first one failed or returned a retryable status
+    public long getRetries() {
+        return retries.sum();
+    }
+    
+    // duplicate GETs sent because the first attempt was slower than the hedge delay
+    public long getHedges() {
+        return hedges.sum();
+    }
+    
+    // hedges that answered before the request they duplicated
+    public long getHedgeWins() {
+        return hedgeWins.sum();
+    }
+}
\ No newline at end of file
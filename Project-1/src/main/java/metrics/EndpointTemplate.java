@@ -0,0 +1,44 @@
+package metrics;
+
+/**
+ * Collapses concrete endpoints into templates, e.g. /posts/1?x=y becomes /posts/{id}
+ */
+public final class EndpointTemplate {
+    
+    private EndpointTemplate() {
+    }
+    
+    public static String of(String endpoint) {
+        int query = endpoint.indexOf('?');
+        String path = query >= 0 ? endpoint.substring(0, query) : endpoint;
+        
+        StringBuilder template = new StringBuilder(path.length());
+        int start = 0;
+        while (start < path.length()) {
+            int slash = path.indexOf('/', start);
+            int end = slash < 0 ? path.length() : slash;
+            String segment = path.substring(start, end);
+            template.append(isIdentifier(segment) ? "{id}" : segment);
+            if (slash < 0) {
+                break;
+            }
+            template.append('/');
+            start = slash + 1;
+        }
+        return template.toString();
+    }
+    
+    // numeric ids, including negative ones used by the invalid-data tests
+    private static boolean isIdentifier(String segment) {
+        if (segment.isEmpty()) {
+            return false;
+        }
+        int i = segment.charAt(0) == '-' && segment.length() > 1 ? 1 : 0;
+        for (; i < segment.length(); i++) {
+            if (!Character.isDigit(segment.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
\ No newline at end of file
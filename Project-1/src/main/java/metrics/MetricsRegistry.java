@@ -0,0 +1,234 @@
+package metrics;
+
+import client.JsonCodec;
+import client.RequestTimings;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Process-wide request metrics keyed by method and endpoint template
+ */
+public final class MetricsRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(MetricsRegistry.class);
+    private static final MetricsRegistry instance = new MetricsRegistry();
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+    
+    private final Map<String, EndpointMetrics> endpoints = new ConcurrentHashMap<>();
+    private final AtomicBoolean exitHookRegistered = new AtomicBoolean();
+    
+    private MetricsRegistry() {
+    }
+    
+    public static MetricsRegistry getInstance() {
+        return instance;
+    }
+    
+    public void record(String method, String endpoint, int statusCode, RequestTimings timings) {
+        metricsFor(method, endpoint).record(statusCode, timings);
+    }
+    
+    public void recordFailure(String method, String endpoint, long elapsedNanos) {
+        metricsFor(method, endpoint).recordFailure(elapsedNanos);
+    }
+    
+    public void recordRetry(String method, String endpoint) {
+        metricsFor(method, endpoint).recordRetry();
+    }
+    
+    public void recordHedge(String method, String endpoint, boolean won) {
+        metricsFor(method, endpoint).recordHedge(won);
+    }
+    
+    // metrics for a concrete endpoint or a template, created empty if nothing was recorded yet
+    public EndpointMetrics metricsFor(String method, String endpoint) {
+        String template = EndpointTemplate.of(endpoint);
+        return endpoints.computeIfAbsent(method + " " + template, key -> new EndpointMetrics(method, template));
+    }
+    
+    public Map<String, EndpointMetrics> getEndpoints() {
+        return new TreeMap<>(endpoints);
+    }
+    
+    public void reset() {
+        endpoints.clear();
+    }
+    
+    public String toJson() throws IOException {
+        ArrayNode root = JsonCodec.mapper().createArrayNode();
+        for (EndpointMetrics metrics : getEndpoints().values()) {
+            ObjectNode node = root.addObject();
+            node.put("method", metrics.getMethod());
+            node.put("endpoint", metrics.getTemplate());
+            node.put("requests", metrics.getRequests());
+            node.put("failures", metrics.getFailures());
+            ObjectNode statuses = node.putObject("status");
+            metrics.getStatusCounts().forEach((status, count) -> statuses.put(String.valueOf(status), count));
+            node.set("latencyMs", histogramJson(metrics.getLatency()));
+            node.set("failureLatencyMs", histogramJson(metrics.getFailureLatency()));
+            node.set("timeToFirstByteMs", histogramJson(metrics.getTimeToFirstByte()));
+            ObjectNode phases = node.putObject("phaseTotalsMs");
+            phases.put("lease", metrics.getLeaseNanos() / 1e6);
+            phases.put("connect", metrics.getConnectNanos() / 1e6);
+            phases.put("bodyRead", metrics.getBodyReadNanos() / 1e6);
+            node.put("bytesSent", metrics.getBytesSent());
+            node.put("bytesReceived", metrics.getBytesReceived());
+            node.put("uncompressedBytesSent", metrics.getUncompressedBytesSent());
+            node.put("uncompressedBytesReceived", metrics.getUncompressedBytesReceived());
+            node.put("retries", metrics.getRetries());
+            node.put("hedges", metrics.getHedges());
+            node.put("hedgeWins", metrics.getHedgeWins());
+        }
+        return JsonCodec.mapper().writerWithDefaultPrettyPrinter().writeValueAsString(root);
+    }
+    
+    private static ObjectNode histogramJson(Histogram histogram) {
+        ObjectNode node = JsonCodec.mapper().createObjectNode();
+        node.put("count", histogram.getTotalCount());
+        node.put("mean", histogram.getMean() / 1000.0);
+        for (double quantile : QUANTILES) {
+            node.put("p" + formatQuantile(quantile * 100), histogram.getValueAtPercentile(quantile * 100) / 1000.0);
+        }
+        node.put("max", histogram.getMaxValue() / 1000.0);
+        return node;
+    }
+    
+    // Prometheus text exposition format
+    public String toPrometheus() {
+        StringBuilder out = new StringBuilder();
+        Map<String, EndpointMetrics> snapshot = getEndpoints();
+        
+        out.append("# HELP api_requests_total Requests by method, endpoint template and status\n");
+        out.append("# TYPE api_requests_total counter\n");
+        for (EndpointMetrics metrics : snapshot.values()) {
+            for (Map.Entry<Integer, Long> status : metrics.getStatusCounts().entrySet()) {
+                out.append("api_requests_total").append(labels(metrics, "status", String.valueOf(status.getKey())))
+                        .append(' ').append(status.getValue()).append('\n');
+            }
+        }
+        
+        out.append("# HELP api_request_failures_total Requests that produced no response\n");
+        out.append("# TYPE api_request_failures_total counter\n");
+        for (EndpointMetrics metrics : snapshot.values()) {
+            out.append("api_request_failures_total").append(labels(metrics, null, null))
+                    .append(' ').append(metrics.getFailures()).append('\n');
+        }
+        
+        out.append("# HELP api_request_duration_seconds End-to-end request latency\n");
+        out.append("# TYPE api_request_duration_seconds summary\n");
+        for (EndpointMetrics metrics : snapshot.values()) {
+            Histogram latency = metrics.getLatency();
+            for (double quantile : QUANTILES) {
+                out.append("api_request_duration_seconds")
+                        .append(labels(metrics, "quantile", formatQuantile(quantile)))
+                        .append(' ').append(seconds(latency.getValueAtPercentile(quantile * 100))).append('\n');
+            }
+            out.append("api_request_duration_seconds_sum").append(labels(metrics, null, null))
+                    .append(' ').append(seconds((long) (latency.getMean() * latency.getTotalCount()))).append('\n');
+            out.append("api_request_duration_seconds_count").append(labels(metrics, null, null))
+                    .append(' ').append(latency.getTotalCount()).append('\n');
+        }
+        
+        out.append("# HELP api_request_phase_seconds_total Time spent per request phase\n");
+        out.append("# TYPE api_request_phase_seconds_total counter\n");
+        for (EndpointMetrics metrics : snapshot.values()) {
+            appendPhase(out, metrics, "lease", metrics.getLeaseNanos());
+            appendPhase(out, metrics, "connect", metrics.getConnectNanos());
+            appendPhase(out, metrics, "body_read", metrics.getBodyReadNanos());
+        }
+        
+        out.append("# HELP api_bytes_total Bytes transferred\n");
+        out.append("# TYPE api_bytes_total counter\n");
+        for (EndpointMetrics metrics : snapshot.values()) {
+            out.append("api_bytes_total").append(labels(metrics, "direction", "sent"))
+                    .append(' ').append(metrics.getBytesSent()).append('\n');
+            out.append("api_bytes_total").append(labels(metrics, "direction", "received"))
+                    .append(' ').append(metrics.getBytesReceived()).append('\n');
+        }
+        
+        out.append("# HELP api_uncompressed_bytes_total Bytes transferred before compression\n");
+        out.append("# TYPE api_uncompressed_bytes_total counter\n");
+        for (EndpointMetrics metrics : snapshot.values()) {
+            out.append("api_uncompressed_bytes_total").append(labels(metrics, "direction", "sent"))
+                    .append(' ').append(metrics.getUncompressedBytesSent()).append('\n');
+            out.append("api_uncompressed_bytes_total").append(labels(metrics, "direction", "received"))
+                    .append(' ').append(metrics.getUncompressedBytesReceived()).append('\n');
+        }
+        
+        out.append("# HELP api_retries_total Attempts repeated by the resilience policy\n");
+        out.append("# TYPE api_retries_total counter\n");
+        for (EndpointMetrics metrics : snapshot.values()) {
+            out.append("api_retries_total").append(labels(metrics, null, null))
+                    .append(' ').append(metrics.getRetries()).append('\n');
+        }
+        
+        out.append("# HELP api_hedges_total Hedged requests sent and how many answered first\n");
+        out.append("# TYPE api_hedges_total counter\n");
+        for (EndpointMetrics metrics : snapshot.values()) {
+            out.append("api_hedges_total").append(labels(metrics, "outcome", "sent"))
+                    .append(' ').append(metrics.getHedges()).append('\n');
+            out.append("api_hedges_total").append(labels(metrics, "outcome", "won"))
+                    .append(' ').append(metrics.getHedgeWins()).append('\n');
+        }
+        return out.toString();
+    }
+    
+    private static void appendPhase(StringBuilder out, EndpointMetrics metrics, String phase, long nanos) {
+        out.append("api_request_phase_seconds_total").append(labels(metrics, "phase", phase))
+                .append(' ').append(String.format(Locale.ROOT, "%.6f", nanos / 1e9)).append('\n');
+    }
+    
+    private static String labels(EndpointMetrics metrics, String extraName, String extraValue) {
+        StringBuilder labels = new StringBuilder("{method=\"").append(metrics.getMethod())
+                .append("\",endpoint=\"").append(escape(metrics.getTemplate())).append('"');
+        if (extraName != null) {
+            labels.append(',').append(extraName).append("=\"").append(extraValue).append('"');
+        }
+        return labels.append('}').toString();
+    }
+    
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+    
+    private static String seconds(long micros) {
+        return String.format(Locale.ROOT, "%.6f", micros / 1e6);
+    }
+    
+    private static String formatQuantile(double value) {
+        return value == Math.rint(value) ? String.valueOf((long) value) : String.valueOf(value);
+    }
+    
+    // writes metrics.json and metrics.prom into the directory
+    public void writeReports(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Files.writeString(directory.resolve("metrics.json"), toJson(), StandardCharsets.UTF_8);
+        Files.writeString(directory.resolve("metrics.prom"), toPrometheus(), StandardCharsets.UTF_8);
+    }
+    
+    // dump the reports when the JVM exits, registered at most once
+    public void writeReportsOnExit(Path directory) {
+        if (!exitHookRegistered.compareAndSet(false, true)) {
+            return;
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                writeReports(directory);
+            } catch (IOException e) {
+                logger.warn("Failed to write metrics to {}: {}", directory, e.getMessage());
+            }
+        }, "metrics-writer"));
+    }
+}
\ No newline at end of file
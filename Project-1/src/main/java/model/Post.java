@@ -0,0 +1,46 @@
+package model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Post resource
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class Post {
+    private Integer id;
+    private Integer userId;
+    private String title;
+    private String body;
+    
+    public Integer getId() {
+        return id;
+    }
+    
+    public void setId(Integer id) {
+        this.id = id;
+    }
+    
+    public Integer getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(Integer userId) {
+        this.userId = userId;
+    }
+    
+    public String getTitle() {
+        return title;
+    }
+    
+    public void setTitle(String title) {
+        this.title = title;
+    }
+    
+    public String getBody() {
+        return body;
+    }
+    
+    public void setBody(String body) {
+        this.body = body;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,46 @@
+package model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Todo resource
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class Todo {
+    private Integer id;
+    private Integer userId;
+    private String title;
+    private Boolean completed;
+    
+    public Integer getId() {
+        return id;
+    }
+    
+    public void setId(Integer id) {
+        this.id = id;
+    }
+    
+    public Integer getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(Integer userId) {
+        this.userId = userId;
+    }
+    
+    public String getTitle() {
+        return title;
+    }
+    
+    public void setTitle(String title) {
+        this.title = title;
+    }
+    
+    public Boolean getCompleted() {
+        return completed;
+    }
+    
+    public void setCompleted(Boolean completed) {
+        this.completed = completed;
+    }
+}
\ No newline at end of file
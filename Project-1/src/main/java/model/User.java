@@ -0,0 +1,64 @@
+package model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * User resource, nested address and company objects are not mapped
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class User {
+    private Integer id;
+    private String name;
+    private String username;
+    private String email;
+    private String phone;
+    private String website;
+    
+    public Integer getId() {
+        return id;
+    }
+    
+    public void setId(Integer id) {
+        this.id = id;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+    }
+    
+    public String getUsername() {
+        return username;
+    }
+    
+    public void setUsername(String username) {
+        this.username = username;
+    }
+    
+    public String getEmail() {
+        return email;
+    }
+    
+    public void setEmail(String email) {
+        this.email = email;
+    }
+    
+    public String getPhone() {
+        return phone;
+    }
+    
+    public void setPhone(String phone) {
+        this.phone = phone;
+    }
+    
+    public String getWebsite() {
+        return website;
+    }
+    
+    public void setWebsite(String website) {
+        this.website = website;
+    }
+}
\ No newline at end of file
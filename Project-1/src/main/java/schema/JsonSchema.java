@@ -0,0 +1,462 @@
+package schema;
+
+import client.JsonCodec;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.regex.Pattern;
+
+/**
+ * A JSON schema compiled once into a tree of checks that validate a document in a single pass over the parser's
+ * tokens, without building a tree. Supports the draft-07 subset the resource schemas use: type, properties,
+ * required, additionalProperties, items, minItems, maxItems, minLength, maxLength, pattern, format email,
+ * minimum and maximum. Compiled schemas are immutable and safe to share between threads.
+ */
+public final class JsonSchema {
+    private static final JsonFactory jsonFactory = JsonCodec.mapper().getFactory();
+    
+    private static final int NULL = 1;
+    private static final int BOOLEAN = 1 << 1;
+    private static final int OBJECT = 1 << 2;
+    private static final int ARRAY = 1 << 3;
+    private static final int NUMBER = 1 << 4;
+    private static final int STRING = 1 << 5;
+    private static final int INTEGER = 1 << 6;
+    private static final int ANY = (1 << 7) - 1;
+    private static final String[] TYPE_NAMES = {"null", "boolean", "object", "array", "number", "string", "integer"};
+    
+    private final Node root;
+    
+    private JsonSchema(Node root) {
+        this.root = root;
+    }
+    
+    // throws IllegalArgumentException for keywords outside the supported subset, so nothing is silently unchecked
+    public static JsonSchema compile(JsonNode schema) {
+        return new JsonSchema(compile(schema, "#"));
+    }
+    
+    // schema file on the classpath, e.g. schemas/posts.json
+    public static JsonSchema fromResource(String name) {
+        try (InputStream input = JsonSchema.class.getClassLoader().getResourceAsStream(name)) {
+            if (input == null) {
+                throw new IllegalArgumentException("Schema not found on the classpath: " + name);
+            }
+            return compile(JsonCodec.mapper().readTree(input));
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read schema " + name, e);
+        }
+    }
+    
+    // a JSON array whose every element matches this schema
+    public JsonSchema list() {
+        Node list = new Node();
+        list.types = ARRAY;
+        list.items = root;
+        return new JsonSchema(list);
+    }
+    
+    public List<Violation> validate(byte[] json) {
+        try (JsonParser parser = jsonFactory.createParser(json)) {
+            return validate(parser);
+        } catch (IOException e) {
+            // the input is in memory, parse errors are already reported as violations
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    // reads one document from the parser, starting at its current token if it has one; malformed JSON is
+    // reported as a violation at the position it was found, after whatever was found before it
+    public List<Violation> validate(JsonParser parser) throws IOException {
+        List<Violation> violations = new ArrayList<>();
+        Path path = new Path();
+        try {
+            JsonToken token = parser.currentToken() != null ? parser.currentToken() : parser.nextToken();
+            if (token == null) {
+                violations.add(new Violation("", "empty document"));
+            } else {
+                root.validate(parser, token, path, violations);
+            }
+        } catch (JsonProcessingException e) {
+            violations.add(new Violation(path.toString(), "malformed JSON: " + e.getOriginalMessage()));
+        }
+        return violations;
+    }
+    
+    public boolean isValid(byte[] json) {
+        return validate(json).isEmpty();
+    }
+    
+    private static Node compile(JsonNode schema, String at) {
+        if (!schema.isObject()) {
+            throw new IllegalArgumentException("Schema at " + at + " must be an object");
+        }
+        Node node = new Node();
+        List<String> required = new ArrayList<>();
+        Iterator<Map.Entry<String, JsonNode>> fields = schema.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            JsonNode value = field.getValue();
+            String keyword = at + "/" + field.getKey();
+            switch (field.getKey()) {
+                case "$schema", "$id", "title", "description" -> {
+                    // annotations, nothing to check
+                }
+                case "type" -> node.types = types(value, keyword);
+                case "properties" -> {
+                    Iterator<Map.Entry<String, JsonNode>> properties = value.fields();
+                    while (properties.hasNext()) {
+                        Map.Entry<String, JsonNode> property = properties.next();
+                        node.members.put(property.getKey(), new Member(
+                                compile(property.getValue(), keyword + "/" + Path.escape(property.getKey()))));
+                    }
+                }
+                case "required" -> {
+                    for (JsonNode name : value) {
+                        required.add(name.asText());
+                    }
+                }
+                case "additionalProperties" -> {
+                    if (value.isBoolean()) {
+                        node.additional = value.asBoolean() ? Node.UNCONSTRAINED : null;
+                    } else {
+                        node.additional = compile(value, keyword);
+                    }
+                }
+                case "items" -> node.items = compile(value, keyword);
+                case "minItems" -> node.minItems = count(value, keyword);
+                case "maxItems" -> node.maxItems = count(value, keyword);
+                case "minLength" -> node.minLength = count(value, keyword);
+                case "maxLength" -> node.maxLength = count(value, keyword);
+                case "pattern" -> node.pattern = Pattern.compile(value.asText());
+                case "format" -> {
+                    if (!value.asText().equals("email")) {
+                        throw new IllegalArgumentException("Unsupported format '" + value.asText() + "' at " + keyword);
+                    }
+                    node.email = true;
+                }
+                case "minimum" -> node.minimum = number(value, keyword);
+                case "maximum" -> node.maximum = number(value, keyword);
+                default -> throw new IllegalArgumentException("Unsupported schema keyword at " + keyword);
+            }
+        }
+        if (required.size() > Long.SIZE) {
+            throw new IllegalArgumentException("At most " + Long.SIZE + " required properties are supported at " + at);
+        }
+        node.required = required.toArray(new String[0]);
+        for (int i = 0; i < node.required.length; i++) {
+            String name = node.required[i];
+            // a required name without its own schema is checked against additionalProperties
+            Member member = node.members.computeIfAbsent(name, key -> new Member(null));
+            member.bit = 1L << i;
+        }
+        node.allRequired = node.required.length == Long.SIZE ? -1L : (1L << node.required.length) - 1;
+        node.unconstrained = node.types == ANY && node.members.isEmpty() && node.additional == Node.UNCONSTRAINED
+                && node.items == null && node.minItems == 0 && node.maxItems == Integer.MAX_VALUE
+                && node.minLength == 0 && node.maxLength == Integer.MAX_VALUE && node.pattern == null && !node.email
+                && Double.isNaN(node.minimum) && Double.isNaN(node.maximum);
+        return node;
+    }
+    
+    private static int types(JsonNode value, String at) {
+        int types = 0;
+        List<JsonNode> names = new ArrayList<>();
+        if (value.isArray()) {
+            value.forEach(names::add);
+        } else {
+            names.add(value);
+        }
+        for (JsonNode name : names) {
+            int index = Arrays.asList(TYPE_NAMES).indexOf(name.asText());
+            if (index < 0) {
+                throw new IllegalArgumentException("Unknown type '" + name.asText() + "' at " + at);
+            }
+            types |= 1 << index;
+        }
+        // every integer is also a number
+        return (types & NUMBER) != 0 ? types | INTEGER : types;
+    }
+    
+    private static int count(JsonNode value, String at) {
+        if (!value.canConvertToInt() || value.asInt() < 0) {
+            throw new IllegalArgumentException("Expected a non-negative integer at " + at + ": " + value);
+        }
+        return value.asInt();
+    }
+    
+    private static double number(JsonNode value, String at) {
+        if (!value.isNumber()) {
+            throw new IllegalArgumentException("Expected a number at " + at + ": " + value);
+        }
+        return value.asDouble();
+    }
+    
+    private static int typeOf(JsonToken token) {
+        return switch (token) {
+            case START_OBJECT -> OBJECT;
+            case START_ARRAY -> ARRAY;
+            case VALUE_STRING -> STRING;
+            case VALUE_NUMBER_INT -> INTEGER | NUMBER;
+            case VALUE_NUMBER_FLOAT -> NUMBER;
+            case VALUE_TRUE, VALUE_FALSE -> BOOLEAN;
+            default -> NULL;
+        };
+    }
+    
+    private static String typeNames(int types) {
+        StringJoiner names = new StringJoiner(" or ");
+        for (int i = 0; i < TYPE_NAMES.length; i++) {
+            // integer is implied by number
+            if ((types & (1 << i)) != 0 && !(1 << i == INTEGER && (types & NUMBER) != 0)) {
+                names.add(TYPE_NAMES[i]);
+            }
+        }
+        return names.toString();
+    }
+    
+    // local@domain.tld without whitespace, checked on the parser's buffer so no String is made per value
+    private static boolean isEmail(char[] text, int offset, int length) {
+        int at = -1;
+        int dot = -1;
+        for (int i = offset; i < offset + length; i++) {
+            char c = text[i];
+            if (Character.isWhitespace(c)) {
+                return false;
+            }
+            if (c == '@') {
+                if (at >= 0) {
+                    return false;
+                }
+                at = i;
+            } else if (c == '.' && at >= 0) {
+                dot = i;
+            }
+        }
+        return at > offset && dot > at + 1 && dot < offset + length - 1;
+    }
+    
+    private static String format(double value) {
+        return value == Math.rint(value) && !Double.isInfinite(value)
+                ? Long.toString((long) value)
+                : Double.toString(value);
+    }
+    
+    /**
+     * Compiled checks for one schema, fields are only written while compiling
+     */
+    private static final class Node {
+        static final Node UNCONSTRAINED = unconstrained();
+        
+        int types = ANY;
+        boolean unconstrained;
+        final Map<String, Member> members = new HashMap<>();
+        String[] required;
+        long allRequired;
+        // null when additional properties are not allowed
+        Node additional = UNCONSTRAINED;
+        Node items;
+        int minItems;
+        int maxItems = Integer.MAX_VALUE;
+        int minLength;
+        int maxLength = Integer.MAX_VALUE;
+        Pattern pattern;
+        boolean email;
+        double minimum = Double.NaN;
+        double maximum = Double.NaN;
+        
+        private static Node unconstrained() {
+            Node node = new Node();
+            node.additional = node;
+            node.required = new String[0];
+            node.unconstrained = true;
+            return node;
+        }
+        
+        // token is the first token of the value, which is consumed entirely before returning
+        void validate(JsonParser parser, JsonToken token, Path path, List<Violation> violations) throws IOException {
+            if (unconstrained) {
+                parser.skipChildren();
+                return;
+            }
+            int type = typeOf(token);
+            if ((types & type) == 0) {
+                violations.add(new Violation(path.toString(),
+                        "expected " + typeNames(types) + " but found " + typeNames(type)));
+                parser.skipChildren();
+                return;
+            }
+            switch (token) {
+                case START_OBJECT -> validateObject(parser, path, violations);
+                case START_ARRAY -> validateArray(parser, path, violations);
+                case VALUE_STRING -> validateString(parser, path, violations);
+                case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> validateNumber(parser, path, violations);
+                default -> {
+                }
+            }
+        }
+        
+        private void validateObject(JsonParser parser, Path path, List<Violation> violations) throws IOException {
+            long seen = 0;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                // field names come from the parser's symbol table, repeated names are not allocated again
+                String name = parser.currentName();
+                JsonToken value = parser.nextToken();
+                Member member = members.get(name);
+                Node schema = member != null && member.schema != null ? member.schema : additional;
+                if (member != null) {
+                    seen |= member.bit;
+                }
+                path.push(name);
+                if (schema != null) {
+                    schema.validate(parser, value, path, violations);
+                } else {
+                    violations.add(new Violation(path.toString(), "unexpected property"));
+                    parser.skipChildren();
+                }
+                path.pop();
+            }
+            if (seen != allRequired) {
+                for (int i = 0; i < required.length; i++) {
+                    if ((seen & (1L << i)) == 0) {
+                        violations.add(new Violation(path.toString(),
+                                "missing required property '" + required[i] + "'"));
+                    }
+                }
+            }
+        }
+        
+        private void validateArray(JsonParser parser, Path path, List<Violation> violations) throws IOException {
+            int count = 0;
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+                if (items != null) {
+                    path.push(count);
+                    items.validate(parser, token, path, violations);
+                    path.pop();
+                } else {
+                    parser.skipChildren();
+                }
+                count++;
+            }
+            if (count < minItems) {
+                violations.add(new Violation(path.toString(),
+                        "expected at least " + minItems + " items but found " + count));
+            }
+            if (count > maxItems) {
+                violations.add(new Violation(path.toString(),
+                        "expected at most " + maxItems + " items but found " + count));
+            }
+        }
+        
+        private void validateString(JsonParser parser, Path path, List<Violation> violations) throws IOException {
+            if (minLength > 0 || maxLength < Integer.MAX_VALUE) {
+                // UTF-16 units straight from the parser's buffer, equal to code points outside surrogate pairs
+                int length = parser.getTextLength();
+                if (length < minLength) {
+                    violations.add(new Violation(path.toString(),
+                            "expected at least " + minLength + " characters but found " + length));
+                }
+                if (length > maxLength) {
+                    violations.add(new Violation(path.toString(),
+                            "expected at most " + maxLength + " characters but found " + length));
+                }
+            }
+            if (pattern != null && !pattern.matcher(parser.getText()).find()) {
+                violations.add(new Violation(path.toString(), "does not match pattern " + pattern.pattern()));
+            }
+            if (email && !isEmail(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength())) {
+                violations.add(new Violation(path.toString(), "not an email address: '" + parser.getText() + "'"));
+            }
+        }
+        
+        private void validateNumber(JsonParser parser, Path path, List<Violation> violations) throws IOException {
+            if (Double.isNaN(minimum) && Double.isNaN(maximum)) {
+                return;
+            }
+            double value = parser.getDoubleValue();
+            if (value < minimum) {
+                violations.add(new Violation(path.toString(),
+                        "expected at least " + format(minimum) + " but found " + parser.getText()));
+            }
+            if (value > maximum) {
+                violations.add(new Violation(path.toString(),
+                        "expected at most " + format(maximum) + " but found " + parser.getText()));
+            }
+        }
+    }
+    
+    /**
+     * A property the schema names, with its bit in the required mask (0 when optional)
+     */
+    private static final class Member {
+        final Node schema;
+        long bit;
+        
+        Member(Node schema) {
+            this.schema = schema;
+        }
+    }
+    
+    /**
+     * Position in the document as a stack of segments, only rendered as a JSON pointer when a violation is found
+     */
+    private static final class Path {
+        private String[] names = new String[8];
+        private int[] indexes = new int[8];
+        private int depth;
+        
+        void push(String name) {
+            grow();
+            names[depth++] = name;
+        }
+        
+        void push(int index) {
+            grow();
+            names[depth] = null;
+            indexes[depth++] = index;
+        }
+        
+        void pop() {
+            depth--;
+        }
+        
+        private void grow() {
+            if (depth == names.length) {
+                names = Arrays.copyOf(names, depth * 2);
+                indexes = Arrays.copyOf(indexes, depth * 2);
+            }
+        }
+        
+        // RFC 6901, "" is the whole document
+        @Override
+        public String toString() {
+            StringBuilder pointer = new StringBuilder();
+            for (int i = 0; i < depth; i++) {
+                pointer.append('/');
+                if (names[i] != null) {
+                    pointer.append(escape(names[i]));
+                } else {
+                    pointer.append(indexes[i]);
+                }
+            }
+            return pointer.toString();
+        }
+        
+        static String escape(String name) {
+            return name.replace("~", "~0").replace("/", "~1");
+        }
+    }
+}
\ No newline at end of file
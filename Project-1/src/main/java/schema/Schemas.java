@@ -0,0 +1,52 @@
+package schema;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiled schemas for the API resources, read from schemas/&lt;resource&gt;.json on first use and shared after that
+ */
+public final class Schemas {
+    private static final Map<String, JsonSchema> items = new ConcurrentHashMap<>();
+    private static final Map<String, JsonSchema> lists = new ConcurrentHashMap<>();
+    
+    private Schemas() {
+    }
+    
+    // one item of the resource, e.g. item("posts") for /posts/1
+    public static JsonSchema item(String resource) {
+        return items.computeIfAbsent(resource, key -> JsonSchema.fromResource(path(key)));
+    }
+    
+    // the resource's collection, e.g. list("posts") for /posts and /users/1/posts
+    public static JsonSchema list(String resource) {
+        return lists.computeIfAbsent(resource, key -> item(key).list());
+    }
+    
+    // schema of the response body for method and endpoint, null when the endpoint names no resource with a
+    // schema or the response carries no resource (DELETE)
+    public static JsonSchema forRequest(String method, String endpoint) {
+        String route = endpoint;
+        int query = route.indexOf('?');
+        if (query >= 0) {
+            route = route.substring(0, query);
+        }
+        String[] segments = route.replaceAll("^/+|/+$", "").split("/");
+        if (segments.length > 3 || method.equalsIgnoreCase("DELETE")) {
+            return null;
+        }
+        String resource = segments[segments.length == 3 ? 2 : 0];
+        if (Schemas.class.getClassLoader().getResource(path(resource)) == null) {
+            return null;
+        }
+        // a POST to the collection answers with the created item
+        boolean single = segments.length == 2
+                || (segments.length == 1 && method.toUpperCase(Locale.ROOT).equals("POST"));
+        return single ? item(resource) : list(resource);
+    }
+    
+    private static String path(String resource) {
+        return "schemas/" + resource + ".json";
+    }
+}
\ No newline at end of file
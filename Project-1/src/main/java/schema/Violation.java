@@ -0,0 +1,28 @@
+package schema;
+
+/**
+ * One way a document fails its schema: where, as a JSON pointer ("" for the whole document), and what is wrong
+ */
+public final class Violation {
+    private final String pointer;
+    private final String message;
+    
+    Violation(String pointer, String message) {
+        this.pointer = pointer;
+        this.message = message;
+    }
+    
+    public String getPointer() {
+        return pointer;
+    }
+    
+    public String getMessage() {
+        return message;
+    }
+    
+    // pointer in URI fragment form, e.g. "#/3/title: expected string but found null"
+    @Override
+    public String toString() {
+        return "#" + pointer + ": " + message;
+    }
+}
\ No newline at end of file
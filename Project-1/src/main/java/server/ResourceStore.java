@@ -0,0 +1,181 @@
+package server;
+
+import client.JsonCodec;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Seeded posts, users and todos with the same shape and CRUD semantics as JSONPlaceholder.
+ * Writes are acknowledged but not persisted, so every run sees the same data.
+ */
+final class ResourceStore {
+    private static final String[] WORDS = {
+        "lorem", "ipsum", "dolor", "sit", "amet", "consectetur", "adipiscing", "elit", "sed", "do",
+        "eiusmod", "tempor", "incididunt", "ut", "labore", "et", "dolore", "magna", "aliqua", "enim",
+        "minim", "veniam", "quis", "nostrud", "exercitation", "ullamco", "laboris", "nisi", "aliquip", "commodo"
+    };
+    private static final String[] FIRST_NAMES = {
+        "Ada", "Brian", "Carla", "Dmitri", "Elena", "Farid", "Grace", "Hiro", "Ines", "Jonas"
+    };
+    private static final String[] LAST_NAMES = {
+        "Lovell", "Kerr", "Mendes", "Orlov", "Varga", "Haddad", "Hopper", "Tanaka", "Silva", "Berg"
+    };
+    
+    private final ObjectMapper mapper = JsonCodec.mapper();
+    private final Map<String, List<ObjectNode>> resources = new LinkedHashMap<>();
+    // serialized once, GETs only copy bytes
+    private final Map<String, byte[]> listBodies = new LinkedHashMap<>();
+    private final Map<String, List<byte[]>> itemBodies = new LinkedHashMap<>();
+    
+    ResourceStore() {
+        SplittableRandom random = new SplittableRandom(42);
+        resources.put("users", seedUsers());
+        resources.put("posts", seedPosts(random));
+        resources.put("todos", seedTodos(random));
+        for (Map.Entry<String, List<ObjectNode>> resource : resources.entrySet()) {
+            ArrayNode array = mapper.createArrayNode();
+            List<byte[]> items = new ArrayList<>();
+            for (ObjectNode item : resource.getValue()) {
+                array.add(item);
+                items.add(toBytes(item));
+            }
+            listBodies.put(resource.getKey(), toBytes(array));
+            itemBodies.put(resource.getKey(), items);
+        }
+    }
+    
+    boolean exists(String resource) {
+        return resources.containsKey(resource);
+    }
+    
+    boolean exists(String resource, int id) {
+        return exists(resource) && id >= 1 && id <= resources.get(resource).size();
+    }
+    
+    int size(String resource) {
+        return resources.get(resource).size();
+    }
+    
+    byte[] list(String resource) {
+        return listBodies.get(resource);
+    }
+    
+    byte[] item(String resource, int id) {
+        return itemBodies.get(resource).get(id - 1);
+    }
+    
+    // items whose fields equal every filter value, e.g. ?userId=1 or /users/1/posts
+    byte[] filter(String resource, Map<String, String> filters) {
+        ArrayNode array = mapper.createArrayNode();
+        for (ObjectNode item : resources.get(resource)) {
+            boolean matches = true;
+            for (Map.Entry<String, String> filter : filters.entrySet()) {
+                JsonNode value = item.get(filter.getKey());
+                if (value == null || !value.asText().equals(filter.getValue())) {
+                    matches = false;
+                    break;
+                }
+            }
+            if (matches) {
+                array.add(item);
+            }
+        }
+        return toBytes(array);
+    }
+    
+    // echo of the new item with the next id, nothing is stored
+    byte[] create(String resource, JsonNode body) {
+        ObjectNode created = body.isObject() ? ((ObjectNode) body).deepCopy() : mapper.createObjectNode();
+        created.put("id", size(resource) + 1);
+        return toBytes(created);
+    }
+    
+    // the request body with the path id, as a full replacement
+    byte[] replace(String resource, int id, JsonNode body) {
+        ObjectNode replaced = body.isObject() ? ((ObjectNode) body).deepCopy() : mapper.createObjectNode();
+        replaced.put("id", id);
+        return toBytes(replaced);
+    }
+    
+    // the stored item with the request fields merged over it
+    byte[] patch(String resource, int id, JsonNode body) {
+        ObjectNode patched = resources.get(resource).get(id - 1).deepCopy();
+        if (body.isObject()) {
+            patched.setAll((ObjectNode) body);
+        }
+        patched.put("id", id);
+        return toBytes(patched);
+    }
+    
+    private byte[] toBytes(JsonNode node) {
+        try {
+            return mapper.writeValueAsBytes(node);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize stand-in data", e);
+        }
+    }
+    
+    private List<ObjectNode> seedUsers() {
+        List<ObjectNode> users = new ArrayList<>();
+        for (int i = 0; i < FIRST_NAMES.length; i++) {
+            String username = (FIRST_NAMES[i].charAt(0) + LAST_NAMES[i]).toLowerCase();
+            ObjectNode user = mapper.createObjectNode();
+            user.put("id", i + 1);
+            user.put("name", FIRST_NAMES[i] + " " + LAST_NAMES[i]);
+            user.put("username", username);
+            user.put("email", username + "@example.com");
+            user.put("phone", String.format("555-01%02d", i + 1));
+            user.put("website", username + ".example.org");
+            users.add(user);
+        }
+        return users;
+    }
+    
+    // 10 posts per user
+    private List<ObjectNode> seedPosts(SplittableRandom random) {
+        List<ObjectNode> posts = new ArrayList<>();
+        for (int id = 1; id <= 100; id++) {
+            ObjectNode post = mapper.createObjectNode();
+            post.put("userId", (id - 1) / 10 + 1);
+            post.put("id", id);
+            post.put("title", sentence(random, 4 + random.nextInt(6)));
+            post.put("body", sentence(random, 20 + random.nextInt(20)));
+            posts.add(post);
+        }
+        return posts;
+    }
+    
+    // 20 todos per user
+    private List<ObjectNode> seedTodos(SplittableRandom random) {
+        List<ObjectNode> todos = new ArrayList<>();
+        for (int id = 1; id <= 200; id++) {
+            ObjectNode todo = mapper.createObjectNode();
+            todo.put("userId", (id - 1) / 20 + 1);
+            todo.put("id", id);
+            todo.put("title", sentence(random, 3 + random.nextInt(6)));
+            todo.put("completed", random.nextBoolean());
+            todos.add(todo);
+        }
+        return todos;
+    }
+    
+    private static String sentence(SplittableRandom random, int words) {
+        StringBuilder sentence = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                sentence.append(' ');
+            }
+            sentence.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sentence.toString();
+    }
+}
\ No newline at end of file
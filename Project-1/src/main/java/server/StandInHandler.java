@@ -0,0 +1,326 @@
+package server;
+
+import client.JsonCodec;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.http.Message;
+import org.apache.hc.core5.http.NameValuePair;
+import org.apache.hc.core5.http.message.BasicHttpResponse;
+import org.apache.hc.core5.http.nio.AsyncEntityProducer;
+import org.apache.hc.core5.http.nio.AsyncRequestConsumer;
+import org.apache.hc.core5.http.nio.AsyncServerRequestHandler;
+import org.apache.hc.core5.http.nio.entity.AsyncEntityProducers;
+import org.apache.hc.core5.http.nio.entity.BasicAsyncEntityConsumer;
+import org.apache.hc.core5.http.nio.support.BasicRequestConsumer;
+import org.apache.hc.core5.http.nio.support.BasicResponseProducer;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.net.URIBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Routes /{resource}, /{resource}/{id} and /{resource}/{id}/{child} to the resource store,
+ * delaying and throttling responses as configured on the server
+ */
+final class StandInHandler implements AsyncServerRequestHandler<Message<HttpRequest, byte[]>> {
+    private static final ContentType JSON = ContentType.APPLICATION_JSON.withCharset(StandardCharsets.UTF_8);
+    private static final byte[] EMPTY_OBJECT = "{}".getBytes(StandardCharsets.UTF_8);
+    private static final String CACHE_CONTROL = "max-age=43200";
+    // smaller bodies go out as they are, like JSONPlaceholder's CDN
+    private static final int GZIP_MIN_SIZE = 1024;
+    private static final int GZIP_CACHE_ENTRIES = 256;
+    
+    private final ResourceStore store;
+    private final StandInServer server;
+    private final ScheduledExecutorService scheduler;
+    private final LongAdder requests = new LongAdder();
+    // gzipped cacheable bodies by ETag, list responses are compressed once
+    private final Map<String, byte[]> gzipped = new ConcurrentHashMap<>();
+    
+    StandInHandler(ResourceStore store, StandInServer server, ScheduledExecutorService scheduler) {
+        this.store = store;
+        this.server = server;
+        this.scheduler = scheduler;
+    }
+    
+    @Override
+    public AsyncRequestConsumer<Message<HttpRequest, byte[]>> prepare(HttpRequest request, EntityDetails entityDetails,
+                                                                     HttpContext context) {
+        return new BasicRequestConsumer<>(entityDetails != null ? new BasicAsyncEntityConsumer() : null);
+    }
+    
+    @Override
+    public void handle(Message<HttpRequest, byte[]> message, ResponseTrigger responseTrigger, HttpContext context)
+            throws HttpException, IOException {
+        requests.increment();
+        HttpRequest request = message.getHead();
+        Reply reply;
+        try {
+            reply = route(request, decode(request, message.getBody()));
+        } catch (IOException e) {
+            reply = Reply.error(HttpStatus.SC_BAD_REQUEST, "Malformed compressed body");
+        } catch (IllegalArgumentException e) {
+            reply = Reply.error(HttpStatus.SC_UNSUPPORTED_MEDIA_TYPE, e.getMessage());
+        }
+        
+        BasicHttpResponse response = new BasicHttpResponse(reply.status);
+        AsyncEntityProducer entity = null;
+        if (reply.etag != null) {
+            response.addHeader(HttpHeaders.ETAG, reply.etag);
+            response.addHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        }
+        if (reply.body != null) {
+            byte[] body = reply.body;
+            if (body.length >= GZIP_MIN_SIZE) {
+                response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+                if (acceptsGzip(request)) {
+                    body = gzip(reply);
+                    response.addHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+                }
+            }
+            long bandwidth = server.getBandwidth();
+            entity = bandwidth > 0
+                    ? new ThrottledEntityProducer(body, JSON, bandwidth, scheduler)
+                    : AsyncEntityProducers.create(body, JSON);
+        }
+        BasicResponseProducer producer = new BasicResponseProducer(response, entity);
+        
+        long delay = server.getLatency();
+        long jitter = server.getLatencyJitter();
+        if (jitter > 0) {
+            delay += ThreadLocalRandom.current().nextLong(jitter + 1);
+        }
+        if (delay <= 0) {
+            responseTrigger.submitResponse(producer, context);
+            return;
+        }
+        scheduler.schedule(() -> {
+            try {
+                responseTrigger.submitResponse(producer, context);
+            } catch (HttpException | IOException e) {
+                producer.failed(e);
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+    
+    long getRequestCount() {
+        return requests.sum();
+    }
+    
+    private Reply route(HttpRequest request, byte[] body) {
+        URI uri;
+        try {
+            uri = request.getUri();
+        } catch (Exception e) {
+            return Reply.error(HttpStatus.SC_BAD_REQUEST, "Malformed request URI");
+        }
+        String[] path = uri.getPath().replaceAll("^/+|/+$", "").split("/");
+        String resource = path[0];
+        if (!store.exists(resource)) {
+            return Reply.notFound();
+        }
+        String method = request.getMethod();
+        
+        if (path.length == 1) {
+            if ("GET".equals(method) || "HEAD".equals(method)) {
+                Map<String, String> filters = queryFilters(uri);
+                byte[] list = filters.isEmpty() ? store.list(resource) : store.filter(resource, filters);
+                return Reply.cacheable(request, list);
+            }
+            if ("POST".equals(method)) {
+                JsonNode json = parse(body);
+                return json == null ? Reply.error(HttpStatus.SC_BAD_REQUEST, "Malformed JSON body")
+                        : new Reply(HttpStatus.SC_CREATED, store.create(resource, json), null);
+            }
+            return Reply.error(HttpStatus.SC_NOT_FOUND, "Cannot " + method + " /" + resource);
+        }
+        
+        int id;
+        try {
+            id = Integer.parseInt(path[1]);
+        } catch (NumberFormatException e) {
+            return Reply.notFound();
+        }
+        
+        if (path.length == 3) {
+            // nested lists, e.g. /users/1/posts are the posts with userId 1
+            String child = path[2];
+            if (!store.exists(child) || !"GET".equals(method)) {
+                return Reply.notFound();
+            }
+            Map<String, String> filters = queryFilters(uri);
+            filters.put(singular(resource) + "Id", String.valueOf(id));
+            return Reply.cacheable(request, store.filter(child, filters));
+        }
+        if (path.length > 3) {
+            return Reply.notFound();
+        }
+        
+        switch (method) {
+            case "GET", "HEAD" -> {
+                return store.exists(resource, id) ? Reply.cacheable(request, store.item(resource, id)) : Reply.notFound();
+            }
+            case "PUT" -> {
+                // JSONPlaceholder fails replacing an item that does not exist
+                if (!store.exists(resource, id)) {
+                    return Reply.error(HttpStatus.SC_INTERNAL_SERVER_ERROR, "Cannot update missing " + resource + " " + id);
+                }
+                JsonNode json = parse(body);
+                return json == null ? Reply.error(HttpStatus.SC_BAD_REQUEST, "Malformed JSON body")
+                        : new Reply(HttpStatus.SC_OK, store.replace(resource, id, json), null);
+            }
+            case "PATCH" -> {
+                if (!store.exists(resource, id)) {
+                    return Reply.notFound();
+                }
+                JsonNode json = parse(body);
+                return json == null ? Reply.error(HttpStatus.SC_BAD_REQUEST, "Malformed JSON body")
+                        : new Reply(HttpStatus.SC_OK, store.patch(resource, id, json), null);
+            }
+            case "DELETE" -> {
+                // always acknowledged, whether or not the item exists
+                return new Reply(HttpStatus.SC_OK, EMPTY_OBJECT, null);
+            }
+            default -> {
+                return Reply.error(HttpStatus.SC_NOT_FOUND, "Cannot " + method + " /" + resource + "/" + id);
+            }
+        }
+    }
+    
+    // request body with its Content-Encoding removed
+    private static byte[] decode(HttpRequest request, byte[] body) throws IOException {
+        Header encoding = request.getFirstHeader(HttpHeaders.CONTENT_ENCODING);
+        if (encoding == null || body == null || body.length == 0) {
+            return body;
+        }
+        String name = encoding.getValue().trim().toLowerCase(Locale.ROOT);
+        InputStream decoded = switch (name) {
+            case "gzip", "x-gzip" -> new GZIPInputStream(new ByteArrayInputStream(body));
+            case "deflate" -> new InflaterInputStream(new ByteArrayInputStream(body));
+            case "identity" -> new ByteArrayInputStream(body);
+            default -> throw new IllegalArgumentException("Unsupported Content-Encoding: " + name);
+        };
+        try (decoded) {
+            return decoded.readAllBytes();
+        }
+    }
+    
+    // gzip listed in Accept-Encoding without q=0
+    private static boolean acceptsGzip(HttpRequest request) {
+        Header accept = request.getFirstHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (accept == null) {
+            return false;
+        }
+        for (String coding : accept.getValue().split(",")) {
+            String[] parts = coding.split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+    
+    private byte[] gzip(Reply reply) throws IOException {
+        if (reply.etag == null) {
+            return gzip(reply.body);
+        }
+        byte[] cached = gzipped.get(reply.etag);
+        if (cached == null) {
+            cached = gzip(reply.body);
+            if (gzipped.size() < GZIP_CACHE_ENTRIES) {
+                gzipped.put(reply.etag, cached);
+            }
+        }
+        return cached;
+    }
+    
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        }
+        return out.toByteArray();
+    }
+    
+    private static Map<String, String> queryFilters(URI uri) {
+        Map<String, String> filters = new LinkedHashMap<>();
+        for (NameValuePair pair : new URIBuilder(uri, StandardCharsets.UTF_8).getQueryParams()) {
+            if (pair.getValue() != null && !pair.getName().startsWith("_")) {
+                filters.put(pair.getName(), pair.getValue());
+            }
+        }
+        return filters;
+    }
+    
+    private static JsonNode parse(byte[] body) {
+        if (body == null || body.length == 0) {
+            return JsonCodec.mapper().createObjectNode();
+        }
+        try {
+            return JsonCodec.mapper().readTree(body);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+    
+    private static String singular(String resource) {
+        return resource.endsWith("s") ? resource.substring(0, resource.length() - 1) : resource;
+    }
+    
+    private static final class Reply {
+        private final int status;
+        private final byte[] body;
+        private final String etag;
+        
+        Reply(int status, byte[] body, String etag) {
+            this.status = status;
+            this.body = body;
+            this.etag = etag;
+        }
+        
+        static Reply notFound() {
+            return new Reply(HttpStatus.SC_NOT_FOUND, EMPTY_OBJECT, null);
+        }
+        
+        static Reply error(int status, String message) {
+            byte[] body = JsonCodec.mapper().createObjectNode().put("error", message).toString()
+                    .getBytes(StandardCharsets.UTF_8);
+            return new Reply(status, body, null);
+        }
+        
+        // GET response with an ETag, answered with 304 when the client already holds it
+        static Reply cacheable(HttpRequest request, byte[] body) {
+            CRC32 crc = new CRC32();
+            crc.update(body);
+            String etag = "W/\"" + Long.toHexString(crc.getValue()) + "-" + Integer.toHexString(body.length) + "\"";
+            Header ifNoneMatch = request.getFirstHeader(HttpHeaders.IF_NONE_MATCH);
+            if (ifNoneMatch != null && ifNoneMatch.getValue().contains(etag)) {
+                return new Reply(HttpStatus.SC_NOT_MODIFIED, null, etag);
+            }
+            return new Reply(HttpStatus.SC_OK, "HEAD".equals(request.getMethod()) ? null : body, etag);
+        }
+    }
+}
\ No newline at end of file
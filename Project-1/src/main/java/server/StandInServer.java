@@ -0,0 +1,146 @@
+package server;
+
+import config.ApiConfiguration;
+import org.apache.hc.core5.http.URIScheme;
+import org.apache.hc.core5.http.impl.bootstrap.HttpAsyncServer;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.http2.impl.nio.bootstrap.H2ServerBootstrap;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.apache.hc.core5.reactor.ListenerEndpoint;
+import org.apache.hc.core5.util.TimeValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * In-process stand-in for the JSONPlaceholder API on a non-blocking server, with optional
+ * latency and bandwidth injection so suites run offline and deterministically
+ */
+public class StandInServer implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(StandInServer.class);
+    
+    private final int requestedPort;
+    private final ScheduledExecutorService scheduler;
+    private final StandInHandler handler;
+    private final HttpAsyncServer server;
+    private volatile long latencyMillis;
+    private volatile long latencyJitterMillis;
+    private volatile long bandwidthBytesPerSecond;
+    private int port = -1;
+    
+    // port 0 picks a free port
+    public StandInServer(int port) {
+        this(port, HttpVersionPolicy.NEGOTIATE);
+    }
+    
+    // FORCE_HTTP_2 for an h2c server, httpcore only negotiates HTTP/2 through TLS ALPN so a plain
+    // NEGOTIATE listener answers HTTP/1.1 and closes on the h2c preface
+    public StandInServer(int port, HttpVersionPolicy versionPolicy) {
+        this.requestedPort = port;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stand-in-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.handler = new StandInHandler(new ResourceStore(), this, scheduler);
+        this.server = H2ServerBootstrap.bootstrap()
+                .setIOReactorConfig(IOReactorConfig.custom()
+                        .setIoThreadCount(Math.max(2, Runtime.getRuntime().availableProcessors() / 2))
+                        .setSoReuseAddress(true)
+                        .build())
+                .setVersionPolicy(versionPolicy)
+                .register("*", handler)
+                .create();
+    }
+    
+    // server sized and shaped by the api.standin.* settings
+    public static StandInServer fromConfig(ApiConfiguration config) {
+        StandInServer server = new StandInServer(config.getStandInPort(),
+                "2".equals(config.getStandInHttpVersion()) ? HttpVersionPolicy.FORCE_HTTP_2 : HttpVersionPolicy.NEGOTIATE);
+        server.setLatency(config.getStandInLatency(), config.getStandInLatencyJitter());
+        server.setBandwidth(config.getStandInBandwidth());
+        return server;
+    }
+    
+    public synchronized void start() throws IOException {
+        if (port >= 0) {
+            return;
+        }
+        server.start();
+        try {
+            ListenerEndpoint endpoint = server.listen(
+                    new InetSocketAddress(InetAddress.getLoopbackAddress(), requestedPort), URIScheme.HTTP).get();
+            port = ((InetSocketAddress) endpoint.getAddress()).getPort();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+            throw new IOException("Interrupted while starting stand-in server", e);
+        } catch (ExecutionException e) {
+            close();
+            throw new IOException("Failed to bind stand-in server to port " + requestedPort, e.getCause());
+        }
+        logger.info("Stand-in API listening on {} (latency {} ms +/- {} ms, bandwidth {})", getBaseUrl(),
+                latencyMillis, latencyJitterMillis, bandwidthBytesPerSecond > 0 ? bandwidthBytesPerSecond + " B/s" : "unlimited");
+    }
+    
+    public synchronized int getPort() {
+        if (port < 0) {
+            throw new IllegalStateException("Stand-in server is not started");
+        }
+        return port;
+    }
+    
+    public String getBaseUrl() {
+        return "http://localhost:" + getPort();
+    }
+    
+    // fixed delay before each response, plus a uniform random extra of up to jitterMillis
+    public void setLatency(long latencyMillis, long jitterMillis) {
+        this.latencyMillis = latencyMillis;
+        this.latencyJitterMillis = jitterMillis;
+    }
+    
+    // response body rate per request, 0 for unlimited
+    public void setBandwidth(long bytesPerSecond) {
+        this.bandwidthBytesPerSecond = bytesPerSecond;
+    }
+    
+    public long getLatency() {
+        return latencyMillis;
+    }
+    
+    public long getLatencyJitter() {
+        return latencyJitterMillis;
+    }
+    
+    public long getBandwidth() {
+        return bandwidthBytesPerSecond;
+    }
+    
+    public long getRequestCount() {
+        return handler.getRequestCount();
+    }
+    
+    @Override
+    public void close() {
+        server.close(CloseMode.GRACEFUL);
+        scheduler.shutdownNow();
+        logger.debug("Stand-in API stopped after {} requests", getRequestCount());
+    }
+    
+    // run standalone until killed, e.g. for the load runner or manual exploration
+    public static void main(String[] args) throws Exception {
+        StandInServer server = fromConfig(ApiConfiguration.getInstance());
+        server.start();
+        System.out.println("Stand-in API at " + server.getBaseUrl());
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+        server.server.awaitShutdown(TimeValue.MAX_VALUE);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,120 @@
+package server;
+
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.nio.AsyncEntityProducer;
+import org.apache.hc.core5.http.nio.DataStreamChannel;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes a fixed body no faster than a byte rate. When the allowance is used up the producer reports
+ * nothing available and asks for output again once the next slice is due, so no I/O thread waits.
+ */
+final class ThrottledEntityProducer implements AsyncEntityProducer {
+    // bytes released per wake-up, about 10 ms worth at the configured rate
+    private static final long SLICES_PER_SECOND = 100;
+    
+    private final byte[] body;
+    private final ContentType contentType;
+    private final long bytesPerSecond;
+    private final ScheduledExecutorService scheduler;
+    private volatile int offset;
+    private volatile long startNanos = -1;
+    private volatile boolean wakeUpScheduled;
+    
+    ThrottledEntityProducer(byte[] body, ContentType contentType, long bytesPerSecond,
+                            ScheduledExecutorService scheduler) {
+        this.body = body;
+        this.contentType = contentType;
+        this.bytesPerSecond = bytesPerSecond;
+        this.scheduler = scheduler;
+    }
+    
+    @Override
+    public int available() {
+        if (startNanos < 0) {
+            // nothing sent yet, let the first produce call start the clock
+            return Math.max(1, body.length);
+        }
+        return (int) Math.max(0, allowance(System.nanoTime()) - offset);
+    }
+    
+    @Override
+    public void produce(DataStreamChannel channel) throws IOException {
+        long now = System.nanoTime();
+        if (startNanos < 0) {
+            startNanos = now;
+        }
+        int allowed = (int) Math.min(body.length, allowance(now));
+        while (offset < allowed) {
+            int written = channel.write(ByteBuffer.wrap(body, offset, allowed - offset));
+            if (written == 0) {
+                // socket buffer full, the reactor calls back when it drains
+                return;
+            }
+            offset += written;
+        }
+        if (offset >= body.length) {
+            channel.endStream();
+            return;
+        }
+        if (!wakeUpScheduled) {
+            wakeUpScheduled = true;
+            long slice = Math.max(1, bytesPerSecond / SLICES_PER_SECOND);
+            long due = startNanos + TimeUnit.SECONDS.toNanos(1) * Math.min(body.length, offset + slice) / bytesPerSecond;
+            scheduler.schedule(() -> {
+                wakeUpScheduled = false;
+                channel.requestOutput();
+            }, Math.max(0, due - now), TimeUnit.NANOSECONDS);
+        }
+    }
+    
+    // total bytes the rate permits by now
+    private long allowance(long now) {
+        return (long) ((now - startNanos) / 1e9 * bytesPerSecond);
+    }
+    
+    @Override
+    public boolean isRepeatable() {
+        return true;
+    }
+    
+    @Override
+    public long getContentLength() {
+        return body.length;
+    }
+    
+    @Override
+    public String getContentType() {
+        return contentType.toString();
+    }
+    
+    @Override
+    public String getContentEncoding() {
+        return null;
+    }
+    
+    @Override
+    public boolean isChunked() {
+        return false;
+    }
+    
+    @Override
+    public Set<String> getTrailerNames() {
+        return null;
+    }
+    
+    @Override
+    public void failed(Exception cause) {
+    }
+    
+    @Override
+    public void releaseResources() {
+        offset = 0;
+        startNanos = -1;
+    }
+}
\ No newline at end of file
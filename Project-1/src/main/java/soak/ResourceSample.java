@@ -0,0 +1,120 @@
+package soak;
+
+import client.H2Transport;
+import client.HttpClientFactory;
+import com.sun.management.UnixOperatingSystemMXBean;
+import org.apache.hc.core5.pool.PoolStats;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.lang.management.OperatingSystemMXBean;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * JVM and client resource usage at one point of a soak run, -1 where the platform cannot report a value
+ */
+public final class ResourceSample {
+    private final long elapsedMillis;
+    private final long heapUsedBytes;
+    private final long heapAfterGcBytes;
+    private final long gcPauseMillis;
+    private final long allocatedBytes;
+    private final long openFileDescriptors;
+    private final long httpConnections;
+    private final long clientReferences;
+    private final long threads;
+    
+    ResourceSample(long elapsedMillis, long heapUsedBytes, long heapAfterGcBytes, long gcPauseMillis,
+                   long allocatedBytes, long openFileDescriptors, long httpConnections, long clientReferences,
+                   long threads) {
+        this.elapsedMillis = elapsedMillis;
+        this.heapUsedBytes = heapUsedBytes;
+        this.heapAfterGcBytes = heapAfterGcBytes;
+        this.gcPauseMillis = gcPauseMillis;
+        this.allocatedBytes = allocatedBytes;
+        this.openFileDescriptors = openFileDescriptors;
+        this.httpConnections = httpConnections;
+        this.clientReferences = clientReferences;
+        this.threads = threads;
+    }
+    
+    static ResourceSample take(long elapsedMillis) {
+        long afterGc = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            MemoryUsage collected = pool.getType() == MemoryType.HEAP ? pool.getCollectionUsage() : null;
+            if (collected != null) {
+                afterGc += collected.getUsed();
+            }
+        }
+        long gcPause = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            // concurrent cycles run next to the application, only the pauses stall requests
+            if (!gc.getName().contains("Concurrent") && !gc.getName().contains("Cycles")) {
+                gcPause += Math.max(0, gc.getCollectionTime());
+            }
+        }
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        long allocated = -1;
+        if (threadBean instanceof com.sun.management.ThreadMXBean allocationBean
+                && allocationBean.isThreadAllocatedMemoryEnabled()) {
+            allocated = allocationBean.getTotalThreadAllocatedBytes();
+        }
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        long files = os instanceof UnixOperatingSystemMXBean unix ? unix.getOpenFileDescriptorCount() : -1;
+        PoolStats pool = HttpClientFactory.getPoolStats();
+        return new ResourceSample(elapsedMillis,
+                ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed(),
+                afterGc,
+                gcPause,
+                allocated,
+                files,
+                pool.getLeased() + pool.getAvailable() + H2Transport.getOpenConnections(),
+                HttpClientFactory.getReferenceCount(),
+                threadBean.getThreadCount());
+    }
+    
+    // since the monitor started
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+    
+    public long getHeapUsedBytes() {
+        return heapUsedBytes;
+    }
+    
+    // heap still in use when the last collection finished, what the application actually retains
+    public long getHeapAfterGcBytes() {
+        return heapAfterGcBytes;
+    }
+    
+    // total stop-the-world collection time since the JVM started
+    public long getGcPauseMillis() {
+        return gcPauseMillis;
+    }
+    
+    // total heap allocated by all threads since the JVM started
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+    
+    public long getOpenFileDescriptors() {
+        return openFileDescriptors;
+    }
+    
+    // pooled HTTP/1.1 connections plus open HTTP/2 connections
+    public long getHttpConnections() {
+        return httpConnections;
+    }
+    
+    // ApiClient instances holding the shared pool, i.e. created and not yet closed
+    public long getClientReferences() {
+        return clientReferences;
+    }
+    
+    public long getThreads() {
+        return threads;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,132 @@
+package soak;
+
+import metrics.EndpointMetrics;
+import metrics.MetricsRegistry;
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Samples resource usage on a background thread while a soak run goes on and cuts the run into
+ * fixed windows, each with the request latencies MetricsRegistry recorded during it
+ */
+public class SoakMonitor implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(SoakMonitor.class);
+    
+    private final long windowMillis;
+    private final long startNanos = System.nanoTime();
+    private final ScheduledExecutorService scheduler;
+    private final List<SoakReport.Window> windows = new ArrayList<>();
+    private List<ResourceSample> current = new ArrayList<>();
+    // cumulative latency per endpoint when the current window opened
+    private Map<String, Histogram> windowStart;
+    private boolean closed;
+    
+    public SoakMonitor(Duration interval, Duration window) {
+        if (interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("Sample interval must be positive: " + interval);
+        }
+        if (window.compareTo(interval) < 0) {
+            throw new IllegalArgumentException("Window " + window + " is shorter than the sample interval " + interval);
+        }
+        this.windowMillis = window.toMillis();
+        this.current.add(ResourceSample.take(0));
+        this.windowStart = latencySnapshot();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "soak-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::sample, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+    
+    private synchronized void sample() {
+        if (closed) {
+            return;
+        }
+        try {
+            ResourceSample sample = ResourceSample.take(elapsedMillis());
+            current.add(sample);
+            if (sample.getElapsedMillis() >= (windows.size() + 1) * windowMillis) {
+                closeWindow(sample);
+            }
+        } catch (RuntimeException e) {
+            // an exception would cancel the schedule, one lost sample is better than none after it
+            logger.warn("Failed to sample resource usage: {}", e.toString());
+        }
+    }
+    
+    private void closeWindow(ResourceSample boundary) {
+        Map<String, Histogram> snapshot = latencySnapshot();
+        Map<String, Histogram> latency = new HashMap<>();
+        for (Map.Entry<String, Histogram> endpoint : snapshot.entrySet()) {
+            Histogram during = since(endpoint.getValue(), windowStart.get(endpoint.getKey()));
+            if (during.getTotalCount() > 0) {
+                latency.put(endpoint.getKey(), during);
+            }
+        }
+        windows.add(new SoakReport.Window(current, latency));
+        windowStart = snapshot;
+        current = new ArrayList<>();
+        // the boundary sample both ends this window and starts the next, so counter deltas cover the whole run
+        current.add(boundary);
+    }
+    
+    // values recorded after start was copied, everything when the registry was reset in between
+    private static Histogram since(Histogram now, Histogram start) {
+        Histogram during = now.copy();
+        if (start != null && start.getTotalCount() <= now.getTotalCount()) {
+            try {
+                during.subtract(start);
+            } catch (IllegalArgumentException e) {
+                return now;
+            }
+        }
+        return during;
+    }
+    
+    private static Map<String, Histogram> latencySnapshot() {
+        Map<String, Histogram> snapshot = new HashMap<>();
+        for (Map.Entry<String, EndpointMetrics> endpoint : MetricsRegistry.getInstance().getEndpoints().entrySet()) {
+            snapshot.put(endpoint.getKey(), endpoint.getValue().getLatency().copy());
+        }
+        return snapshot;
+    }
+    
+    private long elapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+    
+    public synchronized int getWindowCount() {
+        return windows.size();
+    }
+    
+    // windows closed so far; a partial last window only counts once the monitor is closed
+    public synchronized SoakReport report(double growthThreshold, double driftThreshold) {
+        return new SoakReport(windows, growthThreshold, driftThreshold);
+    }
+    
+    // takes a last sample and keeps the unfinished window if it ran for at least half its length
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        scheduler.shutdownNow();
+        ResourceSample last = ResourceSample.take(elapsedMillis());
+        current.add(last);
+        if (last.getElapsedMillis() - current.get(0).getElapsedMillis() >= windowMillis / 2) {
+            closeWindow(last);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,241 @@
+package soak;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Resource usage and latency per time window of a soak run, flagging resources that only ever grow
+ * and endpoints whose latency drifted between the first and the last window
+ */
+public final class SoakReport {
+    // windows needed before a trend counts as one, and samples needed before a percentile is compared
+    private static final int MIN_TREND_WINDOWS = 3;
+    private static final long MIN_LATENCY_SAMPLES = 10;
+    private static final List<Resource> RESOURCES = List.of(
+            new Resource("heap used MB", "%.1f", false,
+                    window -> megabytes(window.max(ResourceSample::getHeapUsedBytes))),
+            new Resource("heap after GC MB", "%.1f", window -> megabytes(window.getLast().getHeapAfterGcBytes())),
+            new Resource("GC pause ms/min", "%.1f", Window::getGcPauseMillisPerMinute),
+            new Resource("allocation MB/s", "%.1f", Window::getAllocationMbPerSecond),
+            new Resource("open files", "%.0f", window -> window.max(ResourceSample::getOpenFileDescriptors)),
+            new Resource("HTTP connections", "%.0f", window -> window.max(ResourceSample::getHttpConnections)),
+            new Resource("ApiClient references", "%.0f", window -> window.max(ResourceSample::getClientReferences)),
+            new Resource("threads", "%.0f", window -> window.max(ResourceSample::getThreads)));
+    
+    private final List<Window> windows;
+    private final double growthThreshold;
+    private final double driftThreshold;
+    private final List<String> flags = new ArrayList<>();
+    
+    SoakReport(List<Window> windows, double growthThreshold, double driftThreshold) {
+        this.windows = List.copyOf(windows);
+        this.growthThreshold = growthThreshold;
+        this.driftThreshold = driftThreshold;
+        for (Resource resource : RESOURCES) {
+            if (resource.trend) {
+                checkGrowth(resource);
+            }
+        }
+        checkDrift();
+    }
+    
+    public List<Window> getWindows() {
+        return windows;
+    }
+    
+    // one line per finding, empty when the run looked steady
+    public List<String> getFlags() {
+        return List.copyOf(flags);
+    }
+    
+    public boolean hasFlags() {
+        return !flags.isEmpty();
+    }
+    
+    // a resource grows when it never goes down from one window to the next and ends more than the
+    // threshold above where it started; fluctuating values are load, not leaks
+    private void checkGrowth(Resource resource) {
+        if (windows.size() < MIN_TREND_WINDOWS) {
+            return;
+        }
+        double[] values = new double[windows.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = resource.value.applyAsDouble(windows.get(i));
+            if (values[i] < 0) {
+                return;
+            }
+            if (i > 0 && values[i] < values[i - 1]) {
+                return;
+            }
+        }
+        double first = values[0];
+        double last = values[values.length - 1];
+        if (last > first && (last - first) / Math.max(first, 1) > growthThreshold) {
+            flags.add(String.format("GROWING %s: %s -> %s over %d windows", resource.name,
+                    resource.format(first), resource.format(last), values.length));
+        }
+    }
+    
+    private void checkDrift() {
+        if (windows.size() < 2) {
+            return;
+        }
+        Map<String, Histogram> first = windows.get(0).getLatency();
+        Map<String, Histogram> last = windows.get(windows.size() - 1).getLatency();
+        for (Map.Entry<String, Histogram> endpoint : new TreeMap<>(first).entrySet()) {
+            Histogram before = endpoint.getValue();
+            Histogram after = last.get(endpoint.getKey());
+            if (!comparable(before, after)) {
+                continue;
+            }
+            checkDrift(endpoint.getKey(), "p50", before.getValueAtPercentile(50), after.getValueAtPercentile(50));
+            checkDrift(endpoint.getKey(), "p99", before.getValueAtPercentile(99), after.getValueAtPercentile(99));
+        }
+    }
+    
+    private void checkDrift(String endpoint, String percentile, long beforeMicros, long afterMicros) {
+        double drift = (afterMicros - beforeMicros) / (double) Math.max(beforeMicros, 1);
+        if (drift > driftThreshold) {
+            flags.add(String.format("DRIFT %s %s: %.2f ms -> %.2f ms (+%.0f%%)", endpoint, percentile,
+                    beforeMicros / 1000.0, afterMicros / 1000.0, drift * 100));
+        }
+    }
+    
+    private static boolean comparable(Histogram before, Histogram after) {
+        return after != null && before.getTotalCount() >= MIN_LATENCY_SAMPLES
+                && after.getTotalCount() >= MIN_LATENCY_SAMPLES;
+    }
+    
+    public String format() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%-24s", "Window"));
+        for (Window window : windows) {
+            report.append(String.format(" %9s", window.getEndMillis() / 1000 + "s"));
+        }
+        report.append(String.format("%n"));
+        for (Resource resource : RESOURCES) {
+            report.append(String.format("%-24s", resource.name));
+            for (Window window : windows) {
+                report.append(String.format(" %9s", resource.format(resource.value.applyAsDouble(window))));
+            }
+            report.append(String.format("%n"));
+        }
+        if (windows.size() >= 2) {
+            report.append(String.format("%n%-32s %8s %8s %11s %11s %11s %11s%n", "Endpoint", "first n", "last n",
+                    "first p50", "last p50", "first p99", "last p99"));
+            Map<String, Histogram> last = windows.get(windows.size() - 1).getLatency();
+            for (Map.Entry<String, Histogram> endpoint : new TreeMap<>(windows.get(0).getLatency()).entrySet()) {
+                Histogram before = endpoint.getValue();
+                Histogram after = last.get(endpoint.getKey());
+                if (!comparable(before, after)) {
+                    continue;
+                }
+                report.append(String.format("%-32s %8d %8d %11.2f %11.2f %11.2f %11.2f%n", endpoint.getKey(),
+                        before.getTotalCount(), after.getTotalCount(),
+                        before.getValueAtPercentile(50) / 1000.0, after.getValueAtPercentile(50) / 1000.0,
+                        before.getValueAtPercentile(99) / 1000.0, after.getValueAtPercentile(99) / 1000.0));
+            }
+        }
+        report.append(String.format("%n"));
+        if (flags.isEmpty()) {
+            report.append(String.format("No growth or latency drift over %d windows%n", windows.size()));
+        }
+        for (String flag : flags) {
+            report.append(flag).append(String.format("%n"));
+        }
+        return report.toString();
+    }
+    
+    private static double megabytes(double bytes) {
+        return bytes < 0 ? -1 : bytes / (1024.0 * 1024.0);
+    }
+    
+    /**
+     * Samples taken during one window, starting with the one that closed the previous window, and the
+     * latencies recorded in between, in microseconds by method and endpoint template
+     */
+    public static final class Window {
+        private final List<ResourceSample> samples;
+        private final Map<String, Histogram> latency;
+        
+        Window(List<ResourceSample> samples, Map<String, Histogram> latency) {
+            if (samples.isEmpty()) {
+                throw new IllegalArgumentException("A window needs at least one sample");
+            }
+            this.samples = List.copyOf(samples);
+            this.latency = Map.copyOf(latency);
+        }
+        
+        public List<ResourceSample> getSamples() {
+            return samples;
+        }
+        
+        public Map<String, Histogram> getLatency() {
+            return latency;
+        }
+        
+        public long getEndMillis() {
+            return getLast().getElapsedMillis();
+        }
+        
+        public double getGcPauseMillisPerMinute() {
+            return rate(ResourceSample::getGcPauseMillis, 60_000.0);
+        }
+        
+        public double getAllocationMbPerSecond() {
+            return rate(ResourceSample::getAllocatedBytes, megabytes(1000));
+        }
+        
+        // the counter's increase over the window per elapsed millisecond, scaled
+        private double rate(ToLongFunction<ResourceSample> counter, double scale) {
+            long first = counter.applyAsLong(samples.get(0));
+            long last = counter.applyAsLong(getLast());
+            if (first < 0 || last < 0) {
+                return -1;
+            }
+            long millis = getLast().getElapsedMillis() - samples.get(0).getElapsedMillis();
+            return millis > 0 ? (last - first) * scale / millis : 0;
+        }
+        
+        double max(ToLongFunction<ResourceSample> value) {
+            long max = -1;
+            for (ResourceSample sample : samples) {
+                max = Math.max(max, value.applyAsLong(sample));
+            }
+            return max;
+        }
+        
+        public ResourceSample getLast() {
+            return samples.get(samples.size() - 1);
+        }
+    }
+    
+    private static final class Resource {
+        private final String name;
+        private final String pattern;
+        // false for readings that swing with load and collections, shown but never flagged
+        private final boolean trend;
+        private final ToDoubleFunction<Window> value;
+        
+        Resource(String name, String pattern, ToDoubleFunction<Window> value) {
+            this(name, pattern, true, value);
+        }
+        
+        Resource(String name, String pattern, boolean trend, ToDoubleFunction<Window> value) {
+            this.name = name;
+            this.pattern = pattern;
+            this.trend = trend;
+            this.value = value;
+        }
+        
+        String format(double value) {
+            return value < 0 ? "n/a" : String.format(pattern, value);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,64 @@
+package client;
+
+import util.TestDataLoader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the non-blocking API client
+ */
+@Tag("client")
+@Tag("get")
+public class AsyncApiClientTests {
+    
+    private AsyncApiClient asyncClient;
+    
+    @BeforeEach
+    void setUp() {
+        asyncClient = new AsyncApiClient();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        asyncClient.close();
+    }
+    
+    @Test
+    @DisplayName("Async GET Specific Post")
+    void testAsyncGet() throws Exception {
+        String endpoint = TestDataLoader.getEndpoint("posts.getuser");
+        int expectedStatus = TestDataLoader.getStatusCode("status.success");
+        
+        ApiClient.ApiResponse response = asyncClient.get(endpoint).get(30, TimeUnit.SECONDS);
+        
+        assertEquals(expectedStatus, response.getStatusCode(), "Expected status code " + expectedStatus);
+        assertTrue(response.getBodyLength() > 0, "Response body must not be empty");
+    }
+    
+    @Test
+    @DisplayName("Async GET Many In-Flight Requests")
+    void testManyInFlightRequests() throws Exception {
+        String endpoint = TestDataLoader.getEndpoint("users.getuser");
+        int expectedStatus = TestDataLoader.getStatusCode("status.success");
+        
+        List<CompletableFuture<ApiClient.ApiResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            futures.add(asyncClient.get(endpoint));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(60, TimeUnit.SECONDS);
+        
+        for (CompletableFuture<ApiClient.ApiResponse> future : futures) {
+            assertEquals(expectedStatus, future.join().getStatusCode(), "Expected status code " + expectedStatus);
+        }
+    }
+}
\ No newline at end of file
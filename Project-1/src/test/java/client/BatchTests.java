@@ -0,0 +1,118 @@
+package client;
+
+import config.ApiConfiguration;
+import util.TestDataLoader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for concurrent batch execution
+ */
+@Tag("client")
+public class BatchTests {
+    
+    private ApiClient apiClient;
+    
+    @BeforeEach
+    void setUp() {
+        apiClient = new ApiClient();
+    }
+    
+    @AfterEach
+    void tearDown() throws Exception {
+        apiClient.close();
+    }
+    
+    @Test
+    @DisplayName("Batch Results Keep Request Order")
+    void testResultsInRequestOrder() throws Exception {
+        String endpoint = TestDataLoader.getEndpoint("posts.base");
+        int expectedStatus = TestDataLoader.getStatusCode("status.success");
+        List<ApiRequest> requests = new ArrayList<>();
+        for (int id = 1; id <= 10; id++) {
+            requests.add(ApiRequest.get(endpoint + "/" + id));
+        }
+        
+        BatchResult result = apiClient.executeAll(requests, 4, ApiClient.BatchMode.COLLECT_ALL);
+        
+        assertEquals(requests.size(), result.size(), "Batch must return one outcome per request");
+        assertEquals(requests.size(), result.getSuccessCount(), "Every request must succeed");
+        for (int i = 0; i < requests.size(); i++) {
+            BatchResult.Outcome outcome = result.get(i);
+            assertSame(requests.get(i), outcome.getRequest(), "Outcome " + i + " must belong to request " + i);
+            assertEquals(expectedStatus, outcome.getResponse().getStatusCode(), "Expected status code " + expectedStatus);
+            int id = JsonCodec.mapper().readTree(outcome.getResponse().getBodyBytes()).get("id").asInt();
+            assertEquals(i + 1, id, "Outcome " + i + " must carry post " + (i + 1));
+            assertTrue(outcome.getLatencyNanos() > 0, "Per-request latency must be recorded");
+        }
+        assertTrue(result.getWallNanos() > 0, "Batch wall time must be recorded");
+    }
+    
+    @Test
+    @DisplayName("Batch Mixes Methods")
+    void testMixedMethods() throws Exception {
+        String endpoint = TestDataLoader.getEndpoint("posts.base");
+        List<ApiRequest> requests = List.of(
+                ApiRequest.get(endpoint + "/1"),
+                ApiRequest.post(endpoint, "{\"title\":\"batch\",\"body\":\"post\",\"userId\":1}"),
+                ApiRequest.put(endpoint + "/1", "{\"id\":1,\"title\":\"batch\",\"body\":\"put\",\"userId\":1}"),
+                ApiRequest.delete(endpoint + "/1"));
+        
+        BatchResult result = apiClient.executeAll(requests);
+        
+        assertEquals(0, result.getFailureCount(), "No request must fail: " + result.getFailures());
+        assertEquals(TestDataLoader.getStatusCode("status.created"), result.get(1).getResponse().getStatusCode(),
+                "POST must return created");
+    }
+    
+    @Test
+    @DisplayName("Fail-Fast Batch Cancels Requests In Flight")
+    void testFailFast() throws Exception {
+        ApiConfiguration config = ApiConfiguration.getInstance();
+        // one request a second: the first goes out at once, the next two are still waiting when the fourth fails
+        config.setProperty("api.ratelimit.batch-abort", "1/s");
+        try {
+            List<ApiRequest> requests = new ArrayList<>();
+            for (int id = 1; id <= 3; id++) {
+                requests.add(ApiRequest.get("/batch-abort/" + id));
+            }
+            requests.add(ApiRequest.get("/batch-abort/not a uri"));
+            requests.add(ApiRequest.get("/batch-abort/5"));
+            
+            long start = System.nanoTime();
+            BatchException abort = assertThrows(BatchException.class,
+                    () -> apiClient.executeAll(requests, 4, ApiClient.BatchMode.FAIL_FAST),
+                    "A fail-fast batch must throw on the first failure");
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            
+            BatchResult result = abort.getResult();
+            assertEquals(3, abort.getFailedIndex(), "The invalid request must be reported as the failure");
+            assertEquals(1, result.getFailureCount(), "Only the request that failed may count: " + result.getFailures());
+            assertNull(result.get(0).getError(), "The unthrottled request must be answered or cancelled, not failed");
+            assertTrue(result.get(1).isCancelled() && result.get(2).isCancelled(),
+                    "Requests interrupted by the abort must be cancelled: " + result.getOutcomes());
+            assertTrue(result.get(4).isSkipped(), "The request never sent must be skipped");
+            // the last throttled request would only go out after two seconds
+            assertTrue(elapsedMillis < 2000, "The abort must not wait for the throttled requests, took " + elapsedMillis);
+        } finally {
+            config.setProperty("api.ratelimit.batch-abort", "");
+        }
+    }
+    
+    @Test
+    @DisplayName("Batch Rejects Non-Positive Concurrency")
+    void testInvalidConcurrency() {
+        assertThrows(IllegalArgumentException.class,
+                () -> apiClient.executeAll(List.of(), 0, ApiClient.BatchMode.COLLECT_ALL),
+                "Concurrency below one must be rejected");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,81 @@
+package client;
+
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.apache.hc.core5.http.io.entity.StringEntity;
+import util.TestDataLoader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for response decoding, request body compression and compressed/uncompressed byte counts
+ */
+@Tag("client")
+public class CompressionTests {
+    
+    private ApiClient apiClient;
+    
+    @BeforeEach
+    void setUp() {
+        apiClient = new ApiClient(null, null);
+    }
+    
+    @AfterEach
+    void tearDown() throws Exception {
+        apiClient.close();
+    }
+    
+    @Test
+    @DisplayName("GET Large List Is Decoded And Both Sizes Recorded")
+    void testGzippedListIsDecoded() throws Exception {
+        String endpoint = TestDataLoader.getEndpoint("posts.base");
+        
+        ApiClient.ApiResponse response = apiClient.get(endpoint);
+        
+        assertEquals(200, response.getStatusCode(), "Expected status code 200");
+        assertTrue(JsonCodec.mapper().readTree(response.getBodyBytes()).isArray(), "Decoded body must be a JSON array");
+        RequestTimings timings = response.getTimings();
+        assertEquals(response.getBodyLength(), timings.getUncompressedBytesReceived(),
+                "Uncompressed count must match the decoded body");
+        assertTrue(timings.getBytesReceived() < timings.getUncompressedBytesReceived(),
+                "List must arrive compressed: " + timings);
+    }
+    
+    @Test
+    @DisplayName("Per-Request Accept-Encoding Turns Compression Off")
+    void testIdentityEncoding() throws Exception {
+        String endpoint = TestDataLoader.getEndpoint("posts.base");
+        
+        ApiClient.ApiResponse response = apiClient.get(endpoint, Map.of("Accept-Encoding", "identity"));
+        
+        RequestTimings timings = response.getTimings();
+        assertEquals(200, response.getStatusCode(), "Expected status code 200");
+        assertEquals(timings.getBytesReceived(), timings.getUncompressedBytesReceived(), "Identity body must not be decoded");
+        assertEquals(response.getBodyLength(), timings.getBytesReceived(), "Whole body must be counted on the wire");
+    }
+    
+    @Test
+    @DisplayName("Only Bodies Past The Threshold Are Gzipped")
+    void testRequestBodyEncoding() throws Exception {
+        String json = "{\"title\":\"" + "compressible ".repeat(200) + "\"}";
+        HttpEntity large = new StringEntity(json, ContentType.APPLICATION_JSON);
+        HttpEntity small = new StringEntity("{\"title\":\"short\"}", ContentType.APPLICATION_JSON);
+        
+        HttpEntity encoded = Compression.encode(large, 1024);
+        
+        assertEquals("gzip", encoded.getContentEncoding(), "Large body must be gzipped");
+        assertTrue(encoded.getContentLength() < large.getContentLength(), "Gzipped body must be smaller");
+        assertTrue(encoded.isRepeatable(), "Gzipped body must be resendable by retries and hedges");
+        assertSame(large, Compression.uncompressed(encoded), "Original body must be kept for logging");
+        assertEquals(json, EntityUtils.toString(Compression.decode(encoded)), "Gzip must round-trip");
+        assertSame(small, Compression.encode(small, 1024), "Small body must be sent as is");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,179 @@
+package client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import config.ApiConfiguration;
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.junit.jupiter.api.parallel.Isolated;
+import server.StandInServer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the HTTP/2 transport: multiplexing against the h2c stand-in and falling back for HTTP/1.1-only hosts
+ */
+@Tag("client")
+@Isolated
+public class Http2TransportTests {
+    
+    private static StandInServer server;
+    private static String originalBaseUrl;
+    private static String originalVersion;
+    
+    @BeforeAll
+    static void startServer() throws Exception {
+        server = new StandInServer(0, HttpVersionPolicy.FORCE_HTTP_2);
+        server.start();
+        ApiConfiguration config = ApiConfiguration.getInstance();
+        originalBaseUrl = config.getBaseUrl();
+        originalVersion = config.getHttpVersion();
+        config.setProperty("api.base.url", server.getBaseUrl());
+        config.setProperty("api.http.version", "2");
+    }
+    
+    @AfterAll
+    static void stopServer() throws Exception {
+        ApiConfiguration config = ApiConfiguration.getInstance();
+        config.setProperty("api.http.version", originalVersion);
+        config.setProperty("api.base.url", originalBaseUrl);
+        server.close();
+    }
+    
+    @Test
+    @DisplayName("Concurrent Requests Share One HTTP/2 Connection")
+    void testMultiplexing() throws Exception {
+        int requests = 40;
+        ApiClient apiClient = new ApiClient(null, null);
+        ExecutorService executor = Executors.newFixedThreadPool(requests);
+        try {
+            // warm up so the connection exists before the burst
+            assertEquals(200, apiClient.get("/posts/1").getStatusCode(), "Expected status code 200");
+            long connections = H2Transport.getConnectionsOpened();
+            long streams = H2Transport.getStreamsOpened();
+            long fallbacks = H2Transport.getFallbacks();
+            
+            List<Future<ApiClient.ApiResponse>> futures = new ArrayList<>();
+            for (int i = 1; i <= requests; i++) {
+                String endpoint = "/posts/" + i;
+                futures.add(executor.submit(() -> apiClient.get(endpoint)));
+            }
+            for (int i = 0; i < requests; i++) {
+                ApiClient.ApiResponse response = futures.get(i).get();
+                assertEquals(200, response.getStatusCode(), "Expected status code 200");
+                assertEquals(i + 1, JsonCodec.mapper().readTree(response.getBodyBytes()).get("id").asInt(),
+                        "Each stream must get its own response");
+            }
+            
+            assertEquals(streams + requests, H2Transport.getStreamsOpened(), "Every request must go out as a stream");
+            assertEquals(connections, H2Transport.getConnectionsOpened(), "Streams must reuse the open connection");
+            assertEquals(fallbacks, H2Transport.getFallbacks(), "The stand-in speaks h2c, nothing may fall back");
+        } finally {
+            executor.shutdownNow();
+            apiClient.close();
+        }
+    }
+    
+    @Test
+    @DisplayName("Bodies And Compression Work Over HTTP/2")
+    void testBodiesOverHttp2() throws Exception {
+        ApiClient apiClient = new ApiClient(null, null);
+        try {
+            ApiClient.ApiResponse list = apiClient.get("/posts");
+            ApiClient.ApiResponse created = apiClient.post("/posts", "{\"userId\":1,\"title\":\"h2\",\"body\":\"stream\"}");
+            
+            assertEquals(100, JsonCodec.mapper().readTree(list.getBodyBytes()).size(), "List must decode to 100 posts");
+            assertTrue(list.getTimings().getBytesReceived() < list.getTimings().getUncompressedBytesReceived(),
+                    "List must arrive gzipped: " + list.getTimings());
+            assertEquals(201, created.getStatusCode(), "Expected status code 201");
+            JsonNode post = JsonCodec.mapper().readTree(created.getBodyBytes());
+            assertEquals("h2", post.get("title").asText(), "Request body must reach the server");
+        } finally {
+            apiClient.close();
+        }
+    }
+    
+    @Test
+    @DisplayName("HTTP/1.1-Only Host Falls Back")
+    void testFallback() throws Exception {
+        // plain NEGOTIATE listener, closes the connection on the h2c preface
+        StandInServer http1 = new StandInServer(0);
+        http1.start();
+        ApiConfiguration config = ApiConfiguration.getInstance();
+        config.setProperty("api.base.url", http1.getBaseUrl());
+        long fallbacks = H2Transport.getFallbacks();
+        ApiClient apiClient = new ApiClient(null, null);
+        try {
+            ApiClient.ApiResponse first = apiClient.get("/posts/1");
+            ApiClient.ApiResponse second = apiClient.get("/posts/2");
+            
+            assertEquals(200, first.getStatusCode(), "First request must be resent over HTTP/1.1");
+            assertEquals(200, second.getStatusCode(), "Expected status code 200");
+            assertEquals(fallbacks + 2, H2Transport.getFallbacks(), "Both requests must be served by HTTP/1.1");
+            assertEquals(2, http1.getRequestCount(), "The h2c attempt must not reach the handler");
+        } finally {
+            apiClient.close();
+            config.setProperty("api.base.url", server.getBaseUrl());
+            http1.close();
+        }
+    }
+    
+    @Test
+    @DisplayName("Refused POST Is Reported, Not Resent")
+    void testNoFallbackResend() throws Exception {
+        StandInServer http1 = new StandInServer(0);
+        http1.start();
+        ApiConfiguration config = ApiConfiguration.getInstance();
+        config.setProperty("api.base.url", http1.getBaseUrl());
+        String body = "{\"userId\":1,\"title\":\"once\",\"body\":\"only\"}";
+        ApiClient apiClient = new ApiClient(null, null);
+        try {
+            assertThrows(IOException.class, () -> apiClient.post("/posts", body),
+                    "A POST the host may have read must fail instead of going out twice");
+            assertEquals(0, http1.getRequestCount(), "The refused POST must not be resent over HTTP/1.1");
+            
+            assertEquals(201, apiClient.post("/posts", body).getStatusCode(),
+                    "The host must be remembered as HTTP/1.1-only for the next request");
+            assertEquals(1, http1.getRequestCount(), "Expected one request over HTTP/1.1");
+        } finally {
+            apiClient.close();
+            config.setProperty("api.base.url", server.getBaseUrl());
+            http1.close();
+        }
+    }
+    
+    @Test
+    @DisplayName("HTTP/2 Responses Are Buffered Before The Handler Runs")
+    void testResponsesBuffered() throws Exception {
+        ApiClient apiClient = new ApiClient(null, null);
+        H2Transport transport = H2Transport.acquire();
+        try {
+            // no HTTP/1.1 client, the stand-in speaks h2c
+            HttpGet request = new HttpGet(server.getBaseUrl() + "/posts");
+            request.setConfig(RequestConfig.DEFAULT);
+            Boolean repeatable = transport.execute(request, response -> response.getEntity().isRepeatable(), null);
+            assertTrue(repeatable, "The handler must get the body from memory, not from the stream");
+            
+            int count = apiClient.getStreaming("/posts", (status, parser) -> parser.readValueAsTree().size());
+            assertEquals(100, count, "Streaming handlers must still see the whole body");
+            ApiClient.ApiResponse discarded = apiClient.get("/posts", ApiClient.BodyMode.DISCARD);
+            assertEquals(0, discarded.getBodyBytes().length, "DISCARD must not keep the body");
+            assertTrue(discarded.getBodyLength() > 0, "The discarded body must still be counted");
+        } finally {
+            H2Transport.release();
+            apiClient.close();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,54 @@
+package client;
+
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.core5.pool.PoolStats;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Isolated;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the shared, reference-counted HTTP client
+ */
+@Tag("client")
+@Isolated
+public class HttpClientFactoryTests {
+    
+    @Test
+    @DisplayName("ApiClient instances share one pooled client")
+    void testClientsShareOnePool() throws Exception {
+        ApiClient first = new ApiClient();
+        ApiClient second = new ApiClient();
+        try {
+            CloseableHttpClient shared = HttpClientFactory.acquire();
+            assertSame(shared, HttpClientFactory.acquire(), "Factory must hand out the same client");
+            HttpClientFactory.release();
+            HttpClientFactory.release();
+            
+            assertTrue(HttpClientFactory.getReferenceCount() >= 2, "Both ApiClients must hold a reference");
+            
+            PoolStats stats = HttpClientFactory.getPoolStats();
+            assertTrue(stats.getMax() > 0, "Pool must report a positive max");
+            assertEquals(0, stats.getPending(), "No connection requests should be pending");
+        } finally {
+            first.close();
+            second.close();
+        }
+    }
+    
+    @Test
+    @DisplayName("Closing an ApiClient twice releases only one reference")
+    void testDoubleCloseReleasesOnce() throws Exception {
+        ApiClient holder = new ApiClient();
+        ApiClient client = new ApiClient();
+        int before = HttpClientFactory.getReferenceCount();
+        
+        client.close();
+        client.close();
+        
+        assertEquals(before - 1, HttpClientFactory.getReferenceCount(), "Second close must be a no-op");
+        holder.close();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,74 @@
+package client;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Isolated;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the lock-free token bucket, run alone so a busy suite cannot stall a thread past its next permit
+ */
+@Tag("client")
+@Isolated
+public class RateLimiterTests {
+    
+    @Test
+    @DisplayName("Burst Is Granted Immediately")
+    void testBurst() {
+        RateLimiter limiter = new RateLimiter(1, 5);
+        
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limiter.tryAcquire(), "Permit " + i + " must be inside the burst");
+        }
+        assertFalse(limiter.tryAcquire(), "Permit beyond the burst must be refused");
+    }
+    
+    @Test
+    @DisplayName("Blocking Acquire Spaces Permits At The Rate")
+    void testBlockingRate() throws Exception {
+        RateLimiter limiter = new RateLimiter(100, 1);
+        
+        long start = System.nanoTime();
+        for (int i = 0; i < 21; i++) {
+            limiter.acquire();
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        
+        assertTrue(elapsedMillis >= 190, "21 permits at 100/s must take about 200 ms, took " + elapsedMillis);
+        assertEquals(20, limiter.getThrottled(), "Every permit after the first must wait");
+    }
+    
+    @Test
+    @DisplayName("Async Acquire Completes At The Rate")
+    void testAsyncRate() {
+        RateLimiter limiter = new RateLimiter(200, 2);
+        
+        long start = System.nanoTime();
+        List<CompletableFuture<Void>> permits = new ArrayList<>();
+        for (int i = 0; i < 22; i++) {
+            permits.add(limiter.acquireAsync());
+        }
+        assertTrue(permits.get(0).isDone() && permits.get(1).isDone(), "Burst permits must complete immediately");
+        CompletableFuture.allOf(permits.toArray(new CompletableFuture[0])).join();
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        
+        assertTrue(elapsedMillis >= 95, "20 permits past the burst at 200/s must take about 100 ms, took " + elapsedMillis);
+    }
+    
+    @Test
+    @DisplayName("Parses Rate Specifications")
+    void testParse() {
+        assertEquals(200, RateLimiter.parse("200/s", 1).getPermitsPerSecond(), 1e-9, "Per second rate");
+        assertEquals(10, RateLimiter.parse("600/m", 1).getPermitsPerSecond(), 1e-9, "Per minute rate");
+        assertEquals(50, RateLimiter.parse(" 50 ", 1).getPermitsPerSecond(), 1e-9, "Bare rate is per second");
+        assertThrows(IllegalArgumentException.class, () -> RateLimiter.parse("10/week", 1), "Unknown unit must be rejected");
+        assertThrows(IllegalArgumentException.class, () -> RateLimiter.parse("fast", 1), "Non-numeric rate must be rejected");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,93 @@
+package client;
+
+import config.ApiConfiguration;
+import org.apache.hc.client5.http.HttpResponseException;
+import org.apache.hc.core5.http.NoHttpResponseException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for retry decisions, backoff bounds and per-method defaults
+ */
+@Tag("client")
+public class ResiliencePolicyTests {
+    
+    @Test
+    @DisplayName("Retries Gateway Errors Until Attempts Run Out")
+    void testRetryableStatuses() {
+        ResiliencePolicy policy = ResiliencePolicy.retrying(3, 100, 1000);
+        
+        assertTrue(policy.shouldRetry(1, 503), "503 must be retried");
+        assertTrue(policy.shouldRetry(2, 502), "502 must be retried");
+        assertFalse(policy.shouldRetry(3, 504), "No retry once attempts are used up");
+        assertFalse(policy.shouldRetry(1, 500), "500 must not be retried");
+        assertFalse(policy.shouldRetry(1, 404), "404 must not be retried");
+    }
+    
+    @Test
+    @DisplayName("Retries Transport Failures But Not Interrupts")
+    void testRetryableErrors() {
+        ResiliencePolicy policy = ResiliencePolicy.retrying(3, 100, 1000);
+        
+        assertTrue(policy.shouldRetry(1, new NoHttpResponseException("dropped")), "Dropped connection must be retried");
+        assertTrue(policy.shouldRetry(1, new SocketTimeoutException("slow")), "Timeout must be retried");
+        assertFalse(policy.shouldRetry(1, new InterruptedIOException("interrupted")), "Interrupt must not be retried");
+        assertTrue(policy.shouldRetry(1, new HttpResponseException(503, "unavailable")), "Typed 503 must be retried");
+        assertFalse(policy.shouldRetry(1, new HttpResponseException(404, "not found")), "Typed 404 must not be retried");
+    }
+    
+    @Test
+    @DisplayName("Backoff Stays Within The Jitter Ceiling")
+    void testBackoffBounds() {
+        ResiliencePolicy policy = ResiliencePolicy.retrying(10, 100, 800);
+        
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(policy.backoffNanos(1) <= TimeUnit.MILLISECONDS.toNanos(100), "First backoff must not exceed the base delay");
+            assertTrue(policy.backoffNanos(3) <= TimeUnit.MILLISECONDS.toNanos(400), "Third backoff must not exceed 4x the base delay");
+            assertTrue(policy.backoffNanos(40) <= TimeUnit.MILLISECONDS.toNanos(800), "Backoff must be capped at the max delay");
+            assertTrue(policy.backoffNanos(2) >= 0, "Backoff must not be negative");
+        }
+    }
+    
+    @Test
+    @DisplayName("POST Is Never Retried By Default")
+    void testNonIdempotentDefault() {
+        ApiConfiguration config = ApiConfiguration.getInstance();
+        
+        assertEquals(1, ResiliencePolicy.fromConfig(config, "POST").getMaxAttempts(), "POST must make a single attempt");
+        assertEquals(config.getRetryMaxAttempts(), ResiliencePolicy.fromConfig(config, "GET").getMaxAttempts(),
+                "GET must use the configured attempts");
+        assertFalse(ResiliencePolicy.fromConfig(config, "PUT").isHedged(), "Only GET may be hedged");
+    }
+    
+    @Test
+    @DisplayName("Configured Retry Methods Are Limited To Idempotent Ones")
+    void testRetryMethodsIntersected() {
+        ApiConfiguration config = ApiConfiguration.getInstance();
+        String original = config.getProperty("api.retry.methods");
+        config.setProperty("api.retry.methods", "GET,POST,PATCH");
+        try {
+            assertEquals(1, ResiliencePolicy.fromConfig(config, "POST").getMaxAttempts(), "POST must not be retried");
+            assertEquals(1, ResiliencePolicy.fromConfig(config, "PATCH").getMaxAttempts(), "PATCH must not be retried");
+            assertEquals(config.getRetryMaxAttempts(), ResiliencePolicy.fromConfig(config, "GET").getMaxAttempts(),
+                    "GET must still be retried");
+        } finally {
+            config.setProperty("api.retry.methods", original);
+        }
+    }
+    
+    @Test
+    @DisplayName("Hedge Percentile Must Be In Range")
+    void testHedgePercentileValidation() {
+        assertThrows(IllegalArgumentException.class, () -> ResiliencePolicy.none().withHedging(100, 50),
+                "Percentile of 100 must be rejected");
+        assertTrue(ResiliencePolicy.none().withHedging(95, 50).isHedged(), "Policy must be hedged");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,79 @@
+package client;
+
+import com.fasterxml.jackson.core.JsonToken;
+import util.TestDataLoader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for byte, streaming and discarding response body modes
+ */
+@Tag("client")
+@Tag("get")
+public class ResponseBodyTests {
+    
+    private ApiClient apiClient;
+    
+    @BeforeEach
+    void setUp() {
+        apiClient = new ApiClient();
+    }
+    
+    @AfterEach
+    void tearDown() throws Exception {
+        apiClient.close();
+    }
+    
+    @Test
+    @DisplayName("GET Keeps Raw Body Bytes")
+    void testBufferedBodyBytes() throws Exception {
+        String endpoint = TestDataLoader.getEndpoint("posts.getuser");
+        
+        ApiClient.ApiResponse response = apiClient.get(endpoint);
+        
+        byte[] bytes = response.getBodyBytes();
+        assertEquals(bytes.length, response.getBodyLength(), "Body length must match the raw bytes");
+        assertEquals(new String(bytes, StandardCharsets.UTF_8), response.getBody(), "Decoded body must match the raw bytes");
+        assertTrue(response.getBodyBuffer().isReadOnly(), "Body buffer must be read-only");
+    }
+    
+    @Test
+    @DisplayName("GET All Posts Streaming")
+    void testStreamingParser() throws Exception {
+        String endpoint = TestDataLoader.getEndpoint("posts.base");
+        int expectedStatus = TestDataLoader.getStatusCode("status.success");
+        
+        int count = apiClient.getStreaming(endpoint, (status, parser) -> {
+            assertEquals(expectedStatus, status, "Expected status code " + expectedStatus);
+            assertEquals(JsonToken.START_ARRAY, parser.nextToken(), "Response must be an array");
+            int items = 0;
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                items++;
+            }
+            return items;
+        });
+        
+        assertTrue(count > 0, "Streamed array must contain posts");
+    }
+    
+    @Test
+    @DisplayName("GET All Todos Discarding Body")
+    void testDiscardedBodyIsCounted() throws Exception {
+        String endpoint = TestDataLoader.getEndpoint("todos.base");
+        int expectedStatus = TestDataLoader.getStatusCode("status.success");
+        
+        ApiClient.ApiResponse response = apiClient.get(endpoint, ApiClient.BodyMode.DISCARD);
+        
+        assertEquals(expectedStatus, response.getStatusCode(), "Expected status code " + expectedStatus);
+        assertTrue(response.getBodyLength() > 0, "Discarded bytes must still be counted");
+        assertEquals(0, response.getBodyBytes().length, "Discarded body must not be kept");
+    }
+}
\ No newline at end of file
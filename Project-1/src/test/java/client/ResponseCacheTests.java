@@ -0,0 +1,135 @@
+package client;
+
+import model.Post;
+import org.apache.hc.client5.http.HttpResponseException;
+import util.TestDataLoader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the opt-in GET response cache
+ */
+@Tag("client")
+@Tag("get")
+public class ResponseCacheTests {
+    
+    private ResponseCache cache;
+    private ApiClient apiClient;
+    
+    @BeforeEach
+    void setUp() {
+        cache = new ResponseCache(1024 * 1024);
+        apiClient = new ApiClient(cache);
+    }
+    
+    @AfterEach
+    void tearDown() throws Exception {
+        apiClient.close();
+    }
+    
+    @Test
+    @DisplayName("Repeated GET Is Served From Cache")
+    void testRepeatedGetIsCached() throws Exception {
+        String endpoint = TestDataLoader.getEndpoint("posts.getuser");
+        int expectedStatus = TestDataLoader.getStatusCode("status.success");
+        
+        ApiClient.ApiResponse first = apiClient.get(endpoint);
+        ApiClient.ApiResponse second = apiClient.get(endpoint);
+        
+        assertEquals(expectedStatus, first.getStatusCode(), "Expected status code " + expectedStatus);
+        assertEquals(expectedStatus, second.getStatusCode(), "Cached status code must match");
+        assertEquals(first.getBody(), second.getBody(), "Cached body must match the network body");
+        assertEquals(1, cache.getMisses(), "First request must miss the cache");
+        assertEquals(1, cache.getHits() + cache.getNotModified(), "Second request must be answered by the cache");
+    }
+    
+    @Test
+    @DisplayName("POST Bypasses Cache")
+    void testPostIsNotCached() throws Exception {
+        String endpoint = TestDataLoader.getEndpoint("posts.base");
+        
+        apiClient.post(endpoint, "{\"title\":\"cache\",\"body\":\"bypass\",\"userId\":1}");
+        
+        assertEquals(0, cache.size(), "POST responses must not be cached");
+        assertEquals(0, cache.getMisses(), "POST must not consult the cache");
+    }
+    
+    @Test
+    @DisplayName("Stale Entry Is Revalidated And Refreshed By 304")
+    void testStaleEntryIsRevalidated() throws Exception {
+        String endpoint = TestDataLoader.getEndpoint("posts.getuser");
+        ApiClient.ApiResponse first = apiClient.get(endpoint);
+        
+        cache.expireAll();
+        ApiClient.ApiResponse revalidated = apiClient.get(endpoint);
+        ApiClient.ApiResponse fresh = apiClient.get(endpoint);
+        
+        assertEquals(1, cache.getRevalidations(), "Stale entry must be sent as a conditional request");
+        assertEquals(1, cache.getNotModified(), "Stand-in must answer the If-None-Match with 304");
+        assertEquals(200, revalidated.getStatusCode(), "A 304 must be handed to the caller as the cached 200");
+        assertEquals(first.getBody(), revalidated.getBody(), "Revalidated body must be the cached one");
+        assertEquals(first.getBody(), fresh.getBody(), "Refreshed entry must keep its body");
+        assertEquals(1, cache.getHits(), "The 304 must make the entry fresh again");
+    }
+    
+    @Test
+    @DisplayName("Successful Write Invalidates The Cached Entry")
+    void testWriteInvalidates() throws Exception {
+        String endpoint = TestDataLoader.getEndpoint("posts.getuser");
+        apiClient.get(endpoint);
+        apiClient.get("/posts/2");
+        
+        // the stand-in acknowledges every DELETE without changing its data
+        assertEquals(200, apiClient.delete(endpoint).getStatusCode(), "Expected status code 200");
+        apiClient.get(endpoint);
+        apiClient.get("/posts/2");
+        
+        assertEquals(1, cache.getInvalidations(), "Only the deleted URL may be dropped");
+        assertEquals(3, cache.getMisses(), "GET after the write must go to the network");
+        assertEquals(1, cache.getHits(), "Other URLs must stay cached");
+    }
+    
+    @Test
+    @DisplayName("Typed GET Goes Through The Cache")
+    void testTypedGetIsCached() throws Exception {
+        Post first = apiClient.get(TestDataLoader.getEndpoint("posts.getuser"), Post.class);
+        Post second = apiClient.get(TestDataLoader.getEndpoint("posts.getuser"), Post.class);
+        List<Post> posts = apiClient.getList(TestDataLoader.getEndpoint("posts.base"), Post.class);
+        
+        assertEquals(first.getTitle(), second.getTitle(), "Cached body must decode to the same post");
+        assertEquals(1, cache.getHits(), "Second typed GET must be served from the cache");
+        assertEquals(100, posts.size(), "List must decode from the buffered body");
+        assertThrows(HttpResponseException.class, () -> apiClient.get("/posts/999", Post.class),
+                "Non-2xx must still raise HttpResponseException");
+    }
+    
+    @Test
+    @DisplayName("Least Recently Used Entries Are Evicted")
+    void testCacheIsBounded() throws Exception {
+        apiClient.get("/posts/1");
+        long entrySize = cache.getCurrentBytes();
+        // room for two entries of about this size, not three
+        ResponseCache small = new ResponseCache(entrySize * 5 / 2);
+        ApiClient client = new ApiClient(small);
+        try {
+            for (int id = 1; id <= 4; id++) {
+                client.get("/posts/" + id);
+            }
+            client.get("/posts/1");
+        } finally {
+            client.close();
+        }
+        
+        assertTrue(small.getEvictions() >= 2, "Older entries must be evicted: " + small);
+        assertTrue(small.size() <= 2, "At most two entries fit: " + small);
+        assertTrue(small.getCurrentBytes() <= small.getMaxBytes(), "Cache must not exceed its byte budget");
+        assertEquals(0, small.getHits(), "/posts/1 was evicted before it was asked for again: " + small);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,117 @@
+package client;
+
+import util.TestDataLoader;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for recording traffic to and replaying it from the memory-mapped traffic log
+ */
+@Tag("client")
+public class TrafficLogTests {
+    
+    @TempDir
+    Path tempDir;
+    
+    @Test
+    @DisplayName("Replay Serves Recorded Responses")
+    void testReplayServesRecordedResponses() throws Exception {
+        Path file = tempDir.resolve("session.tlog");
+        String getEndpoint = TestDataLoader.getEndpoint("posts.getuser");
+        String postEndpoint = TestDataLoader.getEndpoint("posts.base");
+        String postBody = "{\"title\":\"replay\",\"body\":\"recorded\",\"userId\":1}";
+        
+        ApiClient.ApiResponse recordedGet;
+        ApiClient.ApiResponse recordedPost;
+        ApiClient recorder = new ApiClient(null, TrafficLog.record(file));
+        try {
+            recordedGet = recorder.get(getEndpoint);
+            recordedPost = recorder.post(postEndpoint, postBody);
+        } finally {
+            recorder.close();
+            recorder.getTrafficLog().close();
+        }
+        
+        try (TrafficLog log = TrafficLog.replay(file)) {
+            assertEquals(2, log.size(), "Both exchanges must be in the log");
+            ApiClient replayer = new ApiClient(null, log);
+            try {
+                ApiClient.ApiResponse get = replayer.get(getEndpoint);
+                ApiClient.ApiResponse post = replayer.post(postEndpoint, postBody);
+                
+                assertEquals(recordedGet.getStatusCode(), get.getStatusCode(), "Replayed GET status must match");
+                assertEquals(recordedGet.getBody(), get.getBody(), "Replayed GET body must match");
+                assertEquals(recordedPost.getStatusCode(), post.getStatusCode(), "Replayed POST status must match");
+                assertEquals(recordedPost.getBody(), post.getBody(), "Replayed POST body must match");
+            } finally {
+                replayer.close();
+            }
+        }
+    }
+    
+    @Test
+    @DisplayName("Replay Never Falls Back To The Network")
+    void testUnrecordedRequestFails() throws Exception {
+        Path file = tempDir.resolve("empty.tlog");
+        TrafficLog.record(file).close();
+        
+        try (TrafficLog log = TrafficLog.replay(file)) {
+            ApiClient replayer = new ApiClient(null, log);
+            try {
+                String endpoint = TestDataLoader.getEndpoint("users.getuser");
+                NotRecordedException error = assertThrows(NotRecordedException.class, () -> replayer.get(endpoint),
+                        "A request missing from the log must not reach the API");
+                assertEquals(endpoint, error.getEndpoint(), "Exception must name the endpoint");
+            } finally {
+                replayer.close();
+            }
+        }
+    }
+    
+    @Test
+    @DisplayName("Repeated Requests Replay In Recorded Order")
+    void testRepeatedRequestsReplayInOrder() throws Exception {
+        Path file = tempDir.resolve("repeated.tlog");
+        long fingerprint = TrafficLog.fingerprint("GET", "/todos/1", null);
+        try (TrafficLog log = TrafficLog.record(file)) {
+            log.append(fingerprint, "GET", "/todos/1", 503, null, 0, new byte[0]);
+            log.append(fingerprint, "GET", "/todos/1", 200, "application/json", 0, "{}".getBytes());
+        }
+        
+        try (TrafficLog log = TrafficLog.replay(file)) {
+            assertEquals(503, log.find(fingerprint).status, "First replay must be the first recording");
+            assertEquals(200, log.find(fingerprint).status, "Second replay must be the second recording");
+            assertEquals(200, log.find(fingerprint).status, "Last recording must repeat once all were served");
+        }
+    }
+    
+    @Test
+    @DisplayName("Log Grows Past One Mapped Region")
+    void testLogGrowsAcrossRegions() throws Exception {
+        Path file = tempDir.resolve("large.tlog");
+        byte[] body = new byte[3 * 1024 * 1024];
+        Arrays.fill(body, (byte) 'x');
+        try (TrafficLog log = TrafficLog.record(file)) {
+            for (int i = 0; i < 5; i++) {
+                String endpoint = "/posts/" + i;
+                log.append(TrafficLog.fingerprint("GET", endpoint, null), "GET", endpoint, 200, null, 0, body);
+            }
+        }
+        
+        assertTrue(Files.size(file) < 5L * body.length + 4096, "Closed log must be trimmed to its records");
+        try (TrafficLog log = TrafficLog.replay(file)) {
+            assertEquals(5, log.size(), "Every record must survive remapping");
+            TrafficLog.Recorded last = log.find(TrafficLog.fingerprint("GET", "/posts/4", null));
+            assertNotNull(last, "Records in later regions must be indexed");
+            assertArrayEquals(body, last.body, "Body must survive remapping");
+        }
+    }
+}
\ No newline at end of file
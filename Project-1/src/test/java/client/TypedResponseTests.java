@@ -0,0 +1,78 @@
+package client;
+
+import model.Post;
+import model.Todo;
+import model.User;
+import util.TestDataLoader;
+import org.apache.hc.client5.http.HttpResponseException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for typed response mapping
+ */
+@Tag("client")
+public class TypedResponseTests {
+    
+    private ApiClient apiClient;
+    
+    @BeforeEach
+    void setUp() {
+        apiClient = new ApiClient();
+    }
+    
+    @AfterEach
+    void tearDown() throws Exception {
+        apiClient.close();
+    }
+    
+    @Test
+    @DisplayName("GET Specific User As DTO")
+    void testGetTypedUser() throws Exception {
+        User user = apiClient.get(TestDataLoader.getEndpoint("users.getuser"), User.class);
+        
+        assertEquals(1, user.getId(), "User ID must be 1");
+        assertFalse(user.getEmail().isEmpty(), "Email must not be empty");
+    }
+    
+    @Test
+    @DisplayName("GET All Posts As DTO List")
+    void testGetTypedPostList() throws Exception {
+        List<Post> posts = apiClient.getList(TestDataLoader.getEndpoint("posts.base"), Post.class);
+        
+        assertFalse(posts.isEmpty(), "Post list must not be empty");
+        assertNotNull(posts.get(0).getTitle(), "Post must have a title");
+    }
+    
+    @Test
+    @DisplayName("POST Todo As DTO")
+    void testPostTypedTodo() throws Exception {
+        Todo todo = new Todo();
+        todo.setUserId(1);
+        todo.setTitle("Typed Todo");
+        todo.setCompleted(false);
+        
+        Todo created = apiClient.postForObject(TestDataLoader.getEndpoint("todos.base"), todo, Todo.class);
+        
+        assertTrue(created.getId() > 0, "Created todo ID must be positive");
+        assertEquals(todo.getTitle(), created.getTitle(), "Title must match");
+    }
+    
+    @Test
+    @DisplayName("GET Non-Existent User As DTO")
+    void testGetTypedNotFound() {
+        int expectedStatus = TestDataLoader.getStatusCode("status.notfound");
+        
+        HttpResponseException error = assertThrows(HttpResponseException.class,
+                () -> apiClient.get(TestDataLoader.getEndpoint("users.negativeuser"), User.class));
+        
+        assertEquals(expectedStatus, error.getStatusCode(), "Expected status code " + expectedStatus);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,79 @@
+package config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for configuration snapshots, change listeners and hot reload
+ */
+@Tag("config")
+public class ApiConfigurationTests {
+    
+    @TempDir
+    Path tempDir;
+    
+    @Test
+    @DisplayName("setProperty Publishes A New Snapshot")
+    void testSetPropertyPublishesSnapshot() {
+        ApiConfiguration config = new ApiConfiguration(null);
+        List<Set<String>> changes = new CopyOnWriteArrayList<>();
+        config.addChangeListener(changes::add);
+        long version = config.getVersion();
+        
+        config.setProperty("api.timeout", "12");
+        
+        assertEquals(12, config.getTimeout(), "Typed getter must see the new value");
+        assertTrue(config.getVersion() > version, "Change must bump the version");
+        assertEquals(List.of(Set.of("api.timeout")), changes, "Listener must get exactly the changed key");
+        assertTrue(config.reload(), "Reload must succeed");
+        assertEquals(12, config.getTimeout(), "setProperty values must survive a reload");
+    }
+    
+    @Test
+    @DisplayName("Malformed File Keeps The Current Snapshot")
+    void testMalformedReloadIsRejected() throws Exception {
+        Path file = tempDir.resolve("override.properties");
+        Files.writeString(file, "api.timeout=5\n");
+        ApiConfiguration config = new ApiConfiguration(file);
+        assertEquals(5, config.getTimeout(), "api.config.file must override config.properties");
+        
+        Files.writeString(file, "api.timeout=five\n");
+        
+        assertFalse(config.reload(), "Reload of a malformed file must fail");
+        assertEquals(5, config.getTimeout(), "Failed reload must keep the previous value");
+    }
+    
+    @Test
+    @DisplayName("Watched File Is Reloaded On Change")
+    void testWatchedFileReloads() throws Exception {
+        Path file = tempDir.resolve("watched.properties");
+        Files.writeString(file, "api.pool.max.total=10\napi.ratelimit.posts=100/s\n");
+        ApiConfiguration config = new ApiConfiguration(file);
+        config.startWatching();
+        try {
+            // give the watcher time to register before the file changes
+            Thread.sleep(200);
+            Files.writeString(file, "api.pool.max.total=40\napi.ratelimit.posts=5/s\n");
+            
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (config.getPoolMaxTotal() != 40 && System.nanoTime() < deadline) {
+                Thread.sleep(20);
+            }
+            assertEquals(40, config.getPoolMaxTotal(), "Pool size must follow the edited file");
+            assertEquals("5/s", config.getRateLimit("posts"), "Rate limit must follow the edited file");
+        } finally {
+            config.stopWatching();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,70 @@
+package config;
+
+import org.apache.hc.core5.http.message.BasicHttpRequest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the immutable default header set
+ */
+@Tag("config")
+public class HeaderSetTests {
+    
+    @Test
+    @DisplayName("Adding A Header Returns A New Version")
+    void testWithReturnsNewVersion() {
+        HeaderSet original = HeaderSet.EMPTY.with("Accept", "application/json");
+        HeaderSet replaced = original.with("accept", "text/plain");
+        HeaderSet added = replaced.with("X-Trace", "1");
+        
+        assertEquals("application/json", original.get("Accept"), "Original set must not change");
+        assertEquals("text/plain", replaced.get("ACCEPT"), "Header names must match case-insensitively");
+        assertEquals(1, replaced.size(), "Same name must replace, not add");
+        assertEquals(2, added.size(), "New name must be appended");
+        assertTrue(added.getVersion() > replaced.getVersion() && replaced.getVersion() > original.getVersion(),
+                "Every change must bump the version");
+    }
+    
+    @Test
+    @DisplayName("Per-Request Headers Replace Defaults")
+    void testOverlayReplacesDefaults() {
+        HeaderSet defaults = HeaderSet.EMPTY.with("Accept", "application/json").with("User-Agent", "tests");
+        BasicHttpRequest request = new BasicHttpRequest("GET", "/posts/1");
+        
+        defaults.applyTo(request, Map.of("accept", "text/plain", "If-None-Match", "\"v1\""));
+        
+        assertEquals(1, request.getHeaders("Accept").length, "Overlay must not duplicate a default header");
+        assertEquals("text/plain", request.getFirstHeader("Accept").getValue(), "Overlay value must win");
+        assertEquals("tests", request.getFirstHeader("User-Agent").getValue(), "Other defaults must be kept");
+        assertNotNull(request.getFirstHeader("If-None-Match"), "Overlay-only headers must be added");
+    }
+    
+    @Test
+    @DisplayName("Concurrent addHeader Loses No Update")
+    void testConcurrentAddHeader() throws Exception {
+        ApiConfiguration config = ApiConfiguration.getInstance();
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            int thread = t;
+            threads[t] = Thread.startVirtualThread(() -> {
+                for (int i = 0; i < 50; i++) {
+                    config.addHeader("X-Header-Set-Test-" + thread, String.valueOf(i));
+                    config.getHeaderSet().applyTo(new BasicHttpRequest("GET", "/"), null);
+                }
+            });
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        
+        HeaderSet headers = config.getHeaderSet();
+        for (int t = 0; t < threads.length; t++) {
+            assertEquals("49", headers.get("X-Header-Set-Test-" + t), "Last value of every thread must be present");
+        }
+    }
+}
\ No newline at end of file
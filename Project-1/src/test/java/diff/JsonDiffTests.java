@@ -0,0 +1,133 @@
+package diff;
+
+import client.JsonCodec;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the streaming JSON diff: member order, ignored paths, tolerances, unordered arrays and golden files
+ */
+@Tag("diff")
+public class JsonDiffTests {
+    
+    private static final String EXPECTED = "{\"a\":\"x\",\"b\":1,\"c\":[1,2,3],\"d\":{\"e\":true},\"f\":null}";
+    private static final String ACTUAL = "{\"a\":\"y\",\"b\":\"1\",\"c\":[1,2],\"d\":{\"e\":false,\"g\":1}}";
+    
+    @Test
+    @DisplayName("Member Order Does Not Matter, Ignored Paths Are Skipped")
+    void testMemberOrderAndIgnore() {
+        String expected = "{\"userId\":1,\"title\":\"a\",\"tags\":[\"x\",\"y\"]}";
+        String actual = "{\"id\":101,\"tags\":[\"x\",\"y\"],\"title\":\"a\",\"userId\":1}";
+        
+        assertEquals(List.of(), JsonDiff.exact().ignoring("/id").compare(bytes(expected), bytes(actual)),
+                "Reordered members with an ignored id must match");
+        assertEquals(List.of("#/id: unexpected member"), diff(JsonDiff.exact(), expected, actual),
+                "Without the ignore the generated id is a difference");
+    }
+    
+    @Test
+    @DisplayName("Every Difference Is Reported With Its Pointer")
+    void testAllDifferences() {
+        assertEquals(List.of(
+                "#/a: expected \"x\" but found \"y\"",
+                "#/b: expected 1 but found \"1\"",
+                "#/c: expected 3 elements but found 2",
+                "#/d/e: expected true but found false",
+                "#/d/g: unexpected member",
+                "#/f: missing, expected null"), diff(JsonDiff.exact(), EXPECTED, ACTUAL),
+                "Comparison must go on past the first difference");
+        assertEquals(List.of("#/a: expected \"x\" but found \"y\""),
+                diff(JsonDiff.exact().failFast(), EXPECTED, ACTUAL), "Fail-fast must stop at the first difference");
+    }
+    
+    @Test
+    @DisplayName("Numbers Match Within Tolerance")
+    void testTolerance() {
+        String expected = "{\"lat\":-37.3159,\"n\":[1.0,2]}";
+        String actual = "{\"lat\":-37.31591,\"n\":[1,2.0000001]}";
+        
+        assertEquals(List.of("#/lat: expected -37.3159 but found -37.31591", "#/n/1: expected 2 but found 2.0000001"),
+                diff(JsonDiff.exact(), expected, actual), "Exact comparison must only treat 1.0 and 1 as equal");
+        assertEquals(List.of("#/n/1: expected 2 but found 2.0000001"),
+                diff(JsonDiff.exact().withTolerance("/lat", 1e-4), expected, actual),
+                "Tolerance must apply to its path only");
+        assertEquals(List.of(), diff(JsonDiff.exact().withTolerance(1e-4), expected, actual),
+                "Document-wide tolerance must apply everywhere");
+    }
+    
+    @Test
+    @DisplayName("Unordered Arrays Pair Elements In Any Order")
+    void testUnorderedArrays() {
+        String expected = "[{\"id\":1,\"t\":\"a\",\"tags\":[1,2]},{\"id\":2,\"t\":\"b\"},{\"id\":3,\"t\":\"c\"}]";
+        String actual = "[{\"id\":3,\"t\":\"c\"},{\"id\":7,\"t\":\"a\",\"tags\":[2,1]},{\"id\":2,\"t\":\"x\"}]";
+        
+        assertEquals(List.of("#/1: no matching element in the actual array", "#/2: unexpected element"),
+                diff(JsonDiff.exact().unordered("", "/*/tags").ignoring("/*/id"), expected, actual),
+                "Elements must pair up regardless of position, with nested unordered and ignored paths");
+        assertEquals(List.of("#/0/id: expected 1 but found 3"), diff(JsonDiff.exact().failFast(), expected, actual),
+                "Arrays are ordered unless configured");
+    }
+    
+    @Test
+    @DisplayName("Large List Streams Against A Golden File")
+    void testGoldenFile(@TempDir Path dir) throws Exception {
+        Path golden = dir.resolve("posts.json");
+        try (OutputStream out = Files.newOutputStream(golden)) {
+            writePosts(out, -1);
+        }
+        ByteArrayOutputStream changed = new ByteArrayOutputStream();
+        writePosts(changed, 5000);
+        byte[] truncated = bytes("[{\"userId\":1,\"id\":1,\"title\":\"post 1\"");
+        
+        try (JsonParser same = JsonCodec.mapper().getFactory().createParser(Files.readAllBytes(golden));
+             JsonParser different = JsonCodec.mapper().getFactory().createParser(changed.toByteArray());
+             JsonParser broken = JsonCodec.mapper().getFactory().createParser(truncated)) {
+            assertEquals(List.of(), JsonDiff.exact().compare(golden, same),
+                    "Identical list must match its golden file");
+            assertEquals(List.of("#/5000/title: expected \"post 5001\" but found \"changed\""),
+                    JsonDiff.exact().compare(golden, different).stream().map(Difference::toString).toList(),
+                    "The one changed element must be found");
+            List<Difference> malformed = JsonDiff.exact().compare(golden, broken);
+            assertEquals(1, malformed.size(), "Truncated body must give one difference: " + malformed);
+            assertTrue(malformed.get(0).getMessage().startsWith("malformed JSON"), "Parse error must be reported");
+        }
+    }
+    
+    // 10000 posts, the one at changedIndex with a different title
+    private static void writePosts(OutputStream out, int changedIndex) throws IOException {
+        try (JsonGenerator generator = JsonCodec.mapper().getFactory().createGenerator(out)) {
+            generator.writeStartArray();
+            for (int i = 0; i < 10_000; i++) {
+                generator.writeStartObject();
+                generator.writeNumberField("userId", i / 10 + 1);
+                generator.writeNumberField("id", i + 1);
+                generator.writeStringField("title", i == changedIndex ? "changed" : "post " + (i + 1));
+                generator.writeStringField("body", "body of post " + (i + 1));
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+        }
+    }
+    
+    private static List<String> diff(JsonDiff diff, String expected, String actual) {
+        return diff.compare(bytes(expected), bytes(actual)).stream().map(Difference::toString).toList();
+    }
+    
+    private static byte[] bytes(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,53 @@
+package load;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for load target parsing and latency recording
+ */
+@Tag("load")
+public class LatencyRecorderTests {
+    
+    @Test
+    @DisplayName("Latency is measured from the intended start time")
+    void testLatencyFromIntendedStart() {
+        LatencyRecorder recorder = new LatencyRecorder();
+        LoadTarget target = new LoadTarget("get", "/posts/1", null);
+        
+        // request was scheduled 200ms before it completed, even if it was only sent late
+        long intendedStart = 0;
+        recorder.record(target, intendedStart, TimeUnit.MILLISECONDS.toNanos(200), false);
+        recorder.record(target, intendedStart, TimeUnit.MILLISECONDS.toNanos(10), true);
+        
+        LatencyRecorder.Series series = recorder.getByEndpoint().get("GET /posts/1");
+        assertNotNull(series, "Endpoint series must be recorded");
+        assertEquals(2, series.getHistogram().getTotalCount(), "Both requests must be counted");
+        assertEquals(1, series.getErrors(), "One error must be counted");
+        assertEquals(200, series.getHistogram().getMaxValue() / 1000, "Max must be 200ms");
+        assertEquals(2, recorder.getByMethod().get("GET").getHistogram().getTotalCount(), "Method series must be recorded");
+        assertTrue(recorder.report().contains("GET /posts/1"), "Report must list the endpoint");
+    }
+    
+    @Test
+    @DisplayName("Load targets resolve endpoint keys")
+    void testParseTargets() {
+        Properties endpoints = new Properties();
+        endpoints.setProperty("posts.getuser", "/posts/1");
+        endpoints.setProperty("posts.base", "/posts");
+        
+        List<LoadTarget> targets = LoadTarget.parse("GET posts.getuser, POST posts.base testdata/posts-create.json", endpoints);
+        
+        assertEquals(2, targets.size(), "Two targets must be parsed");
+        assertEquals("/posts/1", targets.get(0).getEndpoint(), "Endpoint key must be resolved");
+        assertNull(targets.get(0).getBody(), "GET must not carry a body");
+        assertTrue(targets.get(1).getBody().contains("New Post Title"), "POST body must come from the test data file");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,132 @@
+package load;
+
+import client.JsonCodec;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for synthetic payloads generated from testdata templates
+ */
+@Tag("load")
+public class PayloadGeneratorTests {
+    
+    private static final ObjectMapper mapper = JsonCodec.mapper();
+    
+    @TempDir
+    Path tempDir;
+    
+    @Test
+    @DisplayName("Payloads Are Unique, Reproducible And Shaped Like The Template")
+    void testPayloadsFollowTemplate() throws Exception {
+        PayloadGenerator generator = PayloadGenerator.fromResource("testdata/users-create.json", 42);
+        JsonNode template = mapper.readTree(getClass().getClassLoader().getResource("testdata/users-create.json")).get(0);
+        Set<String> emails = new HashSet<>();
+        
+        for (Iterator<byte[]> payloads = generator.stream(0, 2000).iterator(); payloads.hasNext(); ) {
+            JsonNode user = mapper.readTree(payloads.next());
+            assertEquals(template.size(), user.size(), "Payload must have the template's fields");
+            for (Iterator<String> names = template.fieldNames(); names.hasNext(); ) {
+                String name = names.next();
+                assertEquals(template.get(name).getNodeType(), user.get(name).getNodeType(), "Type of " + name);
+            }
+            assertTrue(user.get("email").asText().endsWith("@example.com"), "Email must keep the template's domain");
+            assertTrue(emails.add(user.get("email").asText()), "Emails must be unique: " + user);
+        }
+        assertArrayEquals(generator.payload(1234), PayloadGenerator.fromResource("testdata/users-create.json", 42)
+                .payload(1234), "Same seed and index must give the same payload");
+        assertNotEquals(new String(generator.payload(7)),
+                new String(PayloadGenerator.fromResource("testdata/users-create.json", 43).payload(7)),
+                "Different seeds must give different payloads");
+    }
+    
+    @Test
+    @DisplayName("Reference Ids Stay In Range And Record Ids Are Kept")
+    void testIdFields() throws Exception {
+        PayloadGenerator posts = PayloadGenerator.fromResource("testdata/posts-create.json", 1);
+        PayloadGenerator todos = PayloadGenerator.fromResource("testdata/todos-update.json", 1);
+        
+        for (int i = 0; i < 500; i++) {
+            int userId = mapper.readTree(posts.payload(i)).get("userId").asInt();
+            assertTrue(userId >= 1 && userId <= 10, "userId must reference an existing user: " + userId);
+            assertEquals(3, mapper.readTree(todos.payload(i)).get("id").asInt(), "id of the updated record must be kept");
+        }
+    }
+    
+    @Test
+    @DisplayName("Nested Objects And Arrays Are Generated, Not Copied")
+    void testNestedValues() throws Exception {
+        JsonNode template = mapper.readTree("{\"id\":1,\"phone\":\"1-770-736-8031 x56442\","
+                + "\"address\":{\"street\":\"Kulas Light\",\"zipcode\":\"92998-3874\","
+                + "\"geo\":{\"lat\":\"-37.3159\",\"lng\":\"81.1496\"}},"
+                + "\"company\":{\"name\":\"Romaguera-Crona\",\"tags\":[\"harness\",\"real-time\"],\"teamId\":3}}");
+        PayloadGenerator generator = new PayloadGenerator(template, 5);
+        
+        JsonNode user = mapper.readTree(generator.payload(17));
+        JsonNode address = user.get("address");
+        JsonNode company = user.get("company");
+        assertNotEquals(template.get("address"), address, "Nested objects must not be copied verbatim");
+        assertTrue(address.get("street").asText().endsWith("17"), "Nested text must carry the index: " + address);
+        assertTrue(address.get("zipcode").asText().matches("\\d{5}-\\d{4}"), "Zip code must keep its shape: " + address);
+        assertTrue(address.get("geo").get("lat").asText().matches("-\\d{2}\\.\\d{4}"),
+                "Coordinates must keep their shape: " + address);
+        assertTrue(company.get("tags").get(1).asText().endsWith("17"), "Array elements must be generated: " + company);
+        int teamId = company.get("teamId").asInt();
+        assertTrue(teamId >= 1 && teamId <= 10, "Nested reference ids must stay in range: " + teamId);
+        String phone = user.get("phone").asText();
+        assertTrue(phone.matches("\\d-\\d{3}-\\d{3}-\\d{4} x\\d{5}"), "Phone extension must keep its shape: " + phone);
+        assertNotEquals("1-770-736-8031 x56442", phone, "Phone digits must be generated");
+    }
+    
+    @Test
+    @DisplayName("NDJSON File Holds One Payload Per Line")
+    void testWriteNdjson() throws Exception {
+        PayloadGenerator generator = PayloadGenerator.fromResource("testdata/posts-create.json", 7);
+        Path file = tempDir.resolve("out/posts.ndjson");
+        
+        long bytes = generator.writeNdjson(file, 10_000);
+        
+        assertEquals(Files.size(file), bytes, "Returned size must match the file");
+        long lines = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            for (String line; (line = reader.readLine()) != null; lines++) {
+                if (lines == 9_999) {
+                    assertArrayEquals(generator.payload(9_999), line.getBytes(), "Line i must be payload i");
+                }
+                assertTrue(mapper.readTree(line).isObject(), "Every line must be a JSON object");
+            }
+        }
+        assertEquals(10_000, lines, "Every payload must be written");
+    }
+    
+    @Test
+    @DisplayName("gen: Targets Send A New Payload Per Request")
+    void testGeneratedTarget() {
+        Properties endpoints = new Properties();
+        endpoints.setProperty("users.base", "/users");
+        
+        List<LoadTarget> targets = LoadTarget.parse("POST users.base gen:testdata/users-create.json", endpoints, 5);
+        LoadTarget target = targets.get(0);
+        
+        assertNotNull(target.getGenerator(), "gen: body must use a generator");
+        assertNotEquals(new String(target.nextBody()), new String(target.nextBody()),
+                "Consecutive requests must carry different payloads");
+        assertThrows(IllegalArgumentException.class,
+                () -> LoadTarget.parse("GET users.base gen:testdata/users-create.json", endpoints, 5),
+                "Generated bodies must be rejected for GET");
+    }
+}
\ No newline at end of file
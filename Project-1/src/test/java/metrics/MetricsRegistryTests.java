@@ -0,0 +1,60 @@
+package metrics;
+
+import client.JsonCodec;
+import client.RequestTimings;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for endpoint templating and metrics export
+ */
+@Tag("metrics")
+public class MetricsRegistryTests {
+    
+    @Test
+    @DisplayName("Concrete endpoints collapse into templates")
+    void testEndpointTemplates() {
+        assertEquals("/posts/{id}", EndpointTemplate.of("/posts/1"));
+        assertEquals("/posts/{id}", EndpointTemplate.of("/posts/-1"));
+        assertEquals("/users/{id}/todos", EndpointTemplate.of("/users/3/todos?completed=true"));
+        assertEquals("/todos", EndpointTemplate.of("/todos"));
+    }
+    
+    @Test
+    @DisplayName("Recorded requests appear in JSON and Prometheus output")
+    void testExportFormats() throws Exception {
+        MetricsRegistry registry = MetricsRegistry.getInstance();
+        long millis = TimeUnit.MILLISECONDS.toNanos(1);
+        registry.record("GET", "/metrics-check/1", 200, new RequestTimings(millis, 0, 5 * millis, millis, 7 * millis, 0, 120));
+        registry.record("GET", "/metrics-check/2", 404, new RequestTimings(0, 0, 2 * millis, 0, 2 * millis, 0, 2));
+        registry.recordFailure("GET", "/metrics-check/3", 30 * millis);
+        
+        EndpointMetrics metrics = registry.metricsFor("GET", "/metrics-check/{id}");
+        assertEquals(3, metrics.getRequests(), "All requests must share the template");
+        assertEquals(1, metrics.getFailures(), "Failure must be counted");
+        assertEquals(2, metrics.getLatency().getTotalCount(), "Failures must stay out of the response latencies");
+        assertEquals(1, metrics.getFailureLatency().getTotalCount(), "Failure latency must be recorded apart");
+        assertEquals(122, metrics.getBytesReceived(), "Received bytes must be summed");
+        
+        String prometheus = registry.toPrometheus();
+        assertTrue(prometheus.contains("api_requests_total{method=\"GET\",endpoint=\"/metrics-check/{id}\",status=\"404\"} 1"),
+                "Prometheus output must contain the status counter");
+        
+        JsonNode json = JsonCodec.mapper().readTree(registry.toJson());
+        assertTrue(json.isArray(), "JSON output must be an array");
+        boolean found = false;
+        for (JsonNode node : json) {
+            if ("/metrics-check/{id}".equals(node.get("endpoint").asText())) {
+                found = true;
+                assertEquals(3, node.get("requests").asInt(), "JSON must report the request count");
+            }
+        }
+        assertTrue(found, "JSON output must contain the endpoint");
+    }
+}
\ No newline at end of file
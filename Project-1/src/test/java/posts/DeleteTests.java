@@ -1,13 +1,16 @@
 package posts;
 
 import client.ApiClient;
+import util.ApiClientExtension;
+import util.TagResourceLocks;
 import util.TestDataLoader;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.parallel.ResourceLock;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -16,15 +19,16 @@ import static org.junit.jupiter.api.Assertions.*;
  */
 @Tag("posts")
 @Tag("delete")
+@ExtendWith(ApiClientExtension.class)
+@ResourceLock(providers = TagResourceLocks.class)
 public class DeleteTests {
     
-    private ApiClient apiClient;
-    private ObjectMapper objectMapper;
+    private final ApiClient apiClient;
+    private final ObjectMapper objectMapper;
     
-    @BeforeEach
-    void setUp() {
-        apiClient = new ApiClient();
-        objectMapper = new ObjectMapper();
+    DeleteTests(ApiClient apiClient, ObjectMapper objectMapper) {
+        this.apiClient = apiClient;
+        this.objectMapper = objectMapper;
     }
     
     @Test
@@ -42,7 +46,7 @@ public class DeleteTests {
         
         // Validate response is valid JSON (even if empty)
         if (!response.getBody().trim().isEmpty()) {
-            JsonNode jsonResponse = objectMapper.readTree(response.getBody());
+            JsonNode jsonResponse = objectMapper.readTree(response.getBodyBytes());
             assertNotNull(jsonResponse, "Response must be valid JSON");
         }
     }
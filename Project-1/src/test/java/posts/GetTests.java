@@ -1,13 +1,25 @@
 package posts;
 
 import client.ApiClient;
+import diff.Difference;
+import diff.JsonDiff;
+import schema.Schemas;
+import schema.Violation;
+import util.ApiClientExtension;
+import util.TagResourceLocks;
 import util.TestDataLoader;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.api.parallel.ResourceLock;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -16,15 +28,16 @@ import static org.junit.jupiter.api.Assertions.*;
  */
 @Tag("posts")
 @Tag("get")
+@ExtendWith(ApiClientExtension.class)
+@ResourceLock(providers = TagResourceLocks.class)
 public class GetTests {
     
-    private ApiClient apiClient;
-    private ObjectMapper objectMapper;
+    private final ApiClient apiClient;
+    private final ObjectMapper objectMapper;
     
-    @BeforeEach
-    void setUp() {
-        apiClient = new ApiClient();
-        objectMapper = new ObjectMapper();
+    GetTests(ApiClient apiClient, ObjectMapper objectMapper) {
+        this.apiClient = apiClient;
+        this.objectMapper = objectMapper;
     }
     
     @Test
@@ -39,19 +52,24 @@ public class GetTests {
         
         // Validate response body is not null and not empty
         assertNotNull(response.getBody(), "Response body must not be null");
-        assertFalse(response.getBody().isEmpty(), "Response body must not be empty");
+        assertTrue(response.getBodyLength() > 0, "Response body must not be empty");
+        
+        // every post in the list must match the posts schema
+        List<Violation> violations = Schemas.list("posts").validate(response.getBodyBytes());
+        assertTrue(violations.isEmpty(), "Response must be a list of posts: " + violations);
+    }
+    
+    @Test
+    @DisplayName("GET All Posts Matches Golden File")
+    void testGetAllPostsAgainstGolden(@TempDir Path dir) throws Exception {
+        String endpoint = TestDataLoader.getEndpoint("posts.base");
+        // golden copy from a first request, the second response is diffed against it as it streams in
+        Path golden = dir.resolve("posts.json");
+        Files.write(golden, apiClient.get(endpoint).getBodyBytes());
         
-        JsonNode jsonArray = objectMapper.readTree(response.getBody());
-        assertTrue(jsonArray.isArray(), "Response must be an array");
+        List<Difference> differences = apiClient.getStreaming(endpoint, JsonDiff.exact().against(golden));
         
-        // Validate posts have expected structure if any posts exist
-        if (jsonArray.size() > 0) {
-            JsonNode firstPost = jsonArray.get(0);
-            assertTrue(firstPost.has("id"), "Post must have id field");
-            assertTrue(firstPost.has("title"), "Post must have title field");
-            assertTrue(firstPost.has("body"), "Post must have body field");
-            assertTrue(firstPost.has("userId"), "Post must have userId field");
-        }
+        assertTrue(differences.isEmpty(), "Posts must not change between requests: " + differences);
     }
     
     @Test
@@ -64,15 +82,12 @@ public class GetTests {
         
         assertEquals(expectedStatus, response.getStatusCode(), "Expected status code " + expectedStatus);
         
-        JsonNode jsonObject = objectMapper.readTree(response.getBody());
-        assertFalse(jsonObject.isArray(), "Response must be a single object");
+        List<Violation> violations = Schemas.item("posts").validate(response.getBodyBytes());
+        assertTrue(violations.isEmpty(), "Response must be a single post: " + violations);
         
-        // Validate fields are present 
+        JsonNode jsonObject = objectMapper.readTree(response.getBodyBytes());
         int expectedId = Integer.parseInt(endpoint.substring(endpoint.lastIndexOf('/') + 1));
         assertEquals(expectedId, jsonObject.get("id").asInt(), "Post ID must be " + expectedId);
-        assertFalse(jsonObject.get("title").asText().isEmpty(), "Title must not be empty");
-        assertFalse(jsonObject.get("body").asText().isEmpty(), "Body must not be empty");
-        assertTrue(jsonObject.get("userId").asInt() > 0, "UserId must be positive");
     }
     
     @Test
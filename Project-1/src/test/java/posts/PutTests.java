@@ -1,13 +1,22 @@
 package posts;
 
 import client.ApiClient;
+import diff.Difference;
+import diff.JsonDiff;
+import schema.Schemas;
+import schema.Violation;
+import util.ApiClientExtension;
+import util.TagResourceLocks;
 import util.TestDataLoader;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.parallel.ResourceLock;
+
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -16,16 +25,19 @@ import static org.junit.jupiter.api.Assertions.*;
  */
 @Tag("posts")
 @Tag("put")
+@ExtendWith(ApiClientExtension.class)
+@ResourceLock(providers = TagResourceLocks.class)
 public class PutTests {
     
-    private ApiClient apiClient;
-    private ObjectMapper objectMapper;
+    private final ApiClient apiClient;
     private JsonNode postsTestData;
     
+    PutTests(ApiClient apiClient) {
+        this.apiClient = apiClient;
+    }
+    
     @BeforeEach
     void setUp() {
-        apiClient = new ApiClient();
-        objectMapper = new ObjectMapper();
         postsTestData = TestDataLoader.getPostUpdateData();
     }
     
@@ -35,30 +47,18 @@ public class PutTests {
         JsonNode testPost = TestDataLoader.getTestDataItem(postsTestData, 0);
         String endpoint = TestDataLoader.getEndpoint("posts.base") + "/" + testPost.get("id").asInt();
         int expectedStatus = TestDataLoader.getStatusCode("status.success");
-        String requestBody = objectMapper.writeValueAsString(testPost);
+        byte[] requestBody = TestDataLoader.getRequestBody(postsTestData, 0);
         
         ApiClient.ApiResponse response = apiClient.put(endpoint, requestBody);
         
         assertEquals(expectedStatus, response.getStatusCode(), "Expected status code " + expectedStatus);
         
-        JsonNode jsonResponse = objectMapper.readTree(response.getBody());
-        
-        // Validate all expected fields are present
-        assertTrue(jsonResponse.has("id"), "Response must have id field");
-        assertTrue(jsonResponse.has("title"), "Response must have title field");
-        assertTrue(jsonResponse.has("body"), "Response must have body field");
-        assertTrue(jsonResponse.has("userId"), "Response must have userId field");
-        
-        // Validate all fields were updated
-        assertEquals(testPost.get("title").asText(), jsonResponse.get("title").asText(), 
-            "Title must match test data");
-        assertEquals(testPost.get("body").asText(), jsonResponse.get("body").asText(), 
-            "Body must match test data");
-        assertEquals(testPost.get("userId").asInt(), jsonResponse.get("userId").asInt(), 
-            "UserId must match test data");
+        List<Violation> violations = Schemas.item("posts").validate(response.getBodyBytes());
+        assertTrue(violations.isEmpty(), "Response must be a valid post: " + violations);
         
-        // Validate the ID is preserved 
-        assertEquals(testPost.get("id").asInt(), jsonResponse.get("id").asInt(), "Post ID must be preserved");
+        // the replacement echoes the test data, id included
+        List<Difference> differences = JsonDiff.exact().compare(testPost, response.getBodyBytes());
+        assertTrue(differences.isEmpty(), "Response must match the test data: " + differences);
     }
     
     @Test
@@ -68,7 +68,7 @@ public class PutTests {
         JsonNode testPost = TestDataLoader.getTestDataItem(negativeTestData, 0);
         String endpoint = TestDataLoader.getEndpoint("posts.base") + "/" + testPost.get("id").asInt();
         int expectedStatus = TestDataLoader.getStatusCode("status.internalerror");
-        String requestBody = objectMapper.writeValueAsString(testPost);
+        byte[] requestBody = TestDataLoader.getRequestBody(negativeTestData, 0);
         
         ApiClient.ApiResponse response = apiClient.put(endpoint, requestBody);
         
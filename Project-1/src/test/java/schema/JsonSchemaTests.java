@@ -0,0 +1,108 @@
+package schema;
+
+import client.JsonCodec;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for compiled schema validation: pointers, reporting every violation and the resource schema registry
+ */
+@Tag("schema")
+public class JsonSchemaTests {
+    
+    @Test
+    @DisplayName("Valid Resources Pass")
+    void testValidResources() {
+        String post = "{\"userId\":1,\"id\":1,\"title\":\"t\",\"body\":\"b\"}";
+        String user = "{\"id\":1,\"name\":\"Ada Lovell\",\"username\":\"alovell\",\"email\":\"alovell@example.com\","
+                + "\"phone\":\"555-0101\",\"website\":\"alovell.example.org\","
+                + "\"address\":{\"city\":\"Gwenborough\",\"geo\":{\"lat\":\"-37.3159\",\"lng\":\"81.1496\"}}}";
+        
+        assertEquals(List.of(), Schemas.item("posts").validate(bytes(post)), "A post must match the posts schema");
+        assertEquals(List.of(), Schemas.list("posts").validate(bytes("[" + post + "," + post + "]")),
+                "A list of posts must match the list schema");
+        assertEquals(List.of(), Schemas.item("users").validate(bytes(user)), "Nested address must be accepted");
+        assertEquals(List.of(), Schemas.list("todos").validate(bytes("[]")), "An empty list is a valid list");
+    }
+    
+    @Test
+    @DisplayName("Every Violation Is Reported With Its Pointer")
+    void testAllViolationsReported() {
+        String posts = "[{\"userId\":1,\"id\":1,\"title\":\"t\",\"body\":\"b\"},"
+                + "{\"userId\":\"1\",\"id\":2,\"body\":\"b\"},"
+                + "{\"userId\":1,\"id\":0,\"title\":\"\",\"body\":{\"text\":\"b\"}}]";
+        
+        List<String> violations = Schemas.list("posts").validate(bytes(posts)).stream()
+                .map(Violation::toString).toList();
+        
+        assertEquals(List.of(
+                "#/1/userId: expected integer but found string",
+                "#/1: missing required property 'title'",
+                "#/2/id: expected at least 1 but found 0",
+                "#/2/title: expected at least 1 characters but found 0",
+                "#/2/body: expected string but found object"), violations,
+                "Validation must go on past the first violation");
+        assertEquals(List.of("#: expected array but found object"),
+                Schemas.list("posts").validate(bytes("{\"id\":1}")).stream().map(Violation::toString).toList(),
+                "A single object is not a list");
+    }
+    
+    @Test
+    @DisplayName("Additional Properties, Formats And Escaped Pointers")
+    void testKeywords() throws Exception {
+        JsonSchema schema = JsonSchema.compile(JsonCodec.mapper().readTree(
+                "{\"type\":\"object\",\"additionalProperties\":false,\"properties\":{"
+                        + "\"a/b\":{\"type\":\"array\",\"maxItems\":2,"
+                        + "\"items\":{\"type\":\"string\",\"format\":\"email\"}},"
+                        + "\"code\":{\"type\":[\"string\",\"null\"],\"pattern\":\"^[A-Z]{3}$\"}}}"));
+        
+        List<String> violations = schema.validate(bytes(
+                "{\"a/b\":[\"x@example.com\",\"nope\",\"y@example.com\"],\"code\":\"abc\",\"extra\":[1,{\"z\":2}]}"))
+                .stream().map(Violation::toString).toList();
+        
+        assertEquals(List.of(
+                "#/a~1b/1: not an email address: 'nope'",
+                "#/a~1b: expected at most 2 items but found 3",
+                "#/code: does not match pattern ^[A-Z]{3}$",
+                "#/extra: unexpected property"), violations, "Each keyword must report at the value it checks");
+        assertTrue(schema.isValid(bytes("{\"code\":null}")), "A type list must accept each of its types");
+    }
+    
+    @Test
+    @DisplayName("Malformed JSON Is A Violation, Unsupported Keywords Fail To Compile")
+    void testMalformedAndUnsupported() throws Exception {
+        List<Violation> truncated = Schemas.list("todos").validate(bytes("[{\"userId\":1,\"id\":1,\"title\":\"t\""));
+        
+        assertEquals(1, truncated.size(), "Truncated body must give one violation: " + truncated);
+        assertTrue(truncated.get(0).getMessage().startsWith("malformed JSON"), "Parse error must be reported");
+        assertEquals("/0", truncated.get(0).getPointer(), "Parse error must point where it was found");
+        assertEquals("empty document", Schemas.item("todos").validate(new byte[0]).get(0).getMessage(),
+                "Empty body must be reported");
+        assertThrows(IllegalArgumentException.class,
+                () -> JsonSchema.compile(JsonCodec.mapper().readTree("{\"type\":\"string\",\"oneOf\":[]}")),
+                "Unsupported keywords must not be ignored");
+    }
+    
+    @Test
+    @DisplayName("Endpoints Map To Item And List Schemas")
+    void testForRequest() {
+        assertSame(Schemas.list("posts"), Schemas.forRequest("GET", "/posts"), "Collection is a list");
+        assertSame(Schemas.list("posts"), Schemas.forRequest("GET", "/posts?userId=1"), "Query is ignored");
+        assertSame(Schemas.item("posts"), Schemas.forRequest("GET", "/posts/1"), "Item path is one item");
+        assertSame(Schemas.item("posts"), Schemas.forRequest("POST", "/posts"), "POST answers with the created item");
+        assertSame(Schemas.item("users"), Schemas.forRequest("PUT", "/users/3"), "PUT answers with the replacement");
+        assertSame(Schemas.list("todos"), Schemas.forRequest("GET", "/users/1/todos"), "Nested path lists the child");
+        assertNull(Schemas.forRequest("DELETE", "/posts/1"), "DELETE carries no resource");
+        assertNull(Schemas.forRequest("GET", "/comments"), "Resources without a schema are not validated");
+    }
+    
+    private static byte[] bytes(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+}
\ No newline at end of file
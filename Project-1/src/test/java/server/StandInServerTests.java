@@ -0,0 +1,161 @@
+package server;
+
+import client.ApiClient;
+import client.JsonCodec;
+import client.ResiliencePolicy;
+import com.fasterxml.jackson.databind.JsonNode;
+import config.ApiConfiguration;
+import metrics.EndpointMetrics;
+import metrics.MetricsRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Isolated;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for stand-in routing, compression and latency/bandwidth injection, against a private server instance
+ */
+@Tag("server")
+@Isolated
+public class StandInServerTests {
+    
+    private static StandInServer server;
+    private static String originalBaseUrl;
+    private static ApiClient apiClient;
+    
+    @BeforeAll
+    static void startServer() throws Exception {
+        server = new StandInServer(0);
+        server.start();
+        originalBaseUrl = ApiConfiguration.getInstance().getBaseUrl();
+        ApiConfiguration.getInstance().setProperty("api.base.url", server.getBaseUrl());
+        apiClient = new ApiClient();
+    }
+    
+    @AfterAll
+    static void stopServer() throws Exception {
+        apiClient.close();
+        ApiConfiguration.getInstance().setProperty("api.base.url", originalBaseUrl);
+        server.close();
+    }
+    
+    @Test
+    @DisplayName("Nested Resources Are Filtered By Parent")
+    void testNestedResources() throws Exception {
+        ApiClient.ApiResponse response = apiClient.get("/users/2/todos");
+        
+        assertEquals(200, response.getStatusCode(), "Expected status code 200");
+        JsonNode todos = JsonCodec.mapper().readTree(response.getBodyBytes());
+        assertEquals(20, todos.size(), "Each user must own 20 todos");
+        for (JsonNode todo : todos) {
+            assertEquals(2, todo.get("userId").asInt(), "Todo must belong to user 2");
+        }
+    }
+    
+    @Test
+    @DisplayName("Query Parameters Filter Lists")
+    void testQueryFilter() throws Exception {
+        JsonNode posts = JsonCodec.mapper().readTree(apiClient.get("/posts?userId=3").getBodyBytes());
+        
+        assertEquals(10, posts.size(), "Each user must own 10 posts");
+    }
+    
+    @Test
+    @DisplayName("Writes Are Not Persisted")
+    void testWritesNotPersisted() throws Exception {
+        String before = apiClient.get("/posts/5").getBody();
+        apiClient.put("/posts/5", "{\"title\":\"changed\"}");
+        apiClient.delete("/posts/5");
+        
+        assertEquals(before, apiClient.get("/posts/5").getBody(), "Stand-in data must not change between requests");
+    }
+    
+    @Test
+    @DisplayName("Injected Latency Delays Responses")
+    void testLatencyInjection() throws Exception {
+        server.setLatency(150, 0);
+        try {
+            long start = System.nanoTime();
+            apiClient.get("/users/1");
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            
+            assertTrue(elapsedMillis >= 150, "Response must take at least the injected latency, took " + elapsedMillis);
+        } finally {
+            server.setLatency(0, 0);
+        }
+    }
+    
+    @Test
+    @DisplayName("Streaming Handlers Are Never Hedged")
+    void testStreamingNotHedged() throws Exception {
+        ApiClient hedging = new ApiClient();
+        // the lowest recorded latency is far below the injected one, so every hedgeable GET hedges
+        hedging.setResiliencePolicy("GET", ResiliencePolicy.none().withHedging(1, 1));
+        EndpointMetrics metrics = MetricsRegistry.getInstance().metricsFor("GET", "/users/{id}");
+        server.setLatency(100, 0);
+        try {
+            long hedges = metrics.getHedges();
+            AtomicInteger calls = new AtomicInteger();
+            int id = hedging.getStreaming("/users/3", (status, parser) -> {
+                calls.incrementAndGet();
+                return parser.<JsonNode>readValueAsTree().get("id").asInt();
+            });
+            
+            assertEquals(3, id, "Streaming handler must read the response");
+            assertEquals(1, calls.get(), "The caller's handler must run exactly once");
+            assertEquals(hedges, metrics.getHedges(), "No hedge may be sent for a streaming handler");
+            assertEquals(200, hedging.get("/users/3").getStatusCode(), "Expected status code 200");
+            assertEquals(hedges + 1, metrics.getHedges(), "A buffered GET must still be hedged");
+        } finally {
+            server.setLatency(0, 0);
+            hedging.close();
+        }
+    }
+    
+    @Test
+    @DisplayName("Injected Bandwidth Throttles Bodies")
+    void testBandwidthInjection() throws Exception {
+        server.setBandwidth(50_000);
+        try {
+            long start = System.nanoTime();
+            ApiClient.ApiResponse response = apiClient.get("/todos");
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            // the limit applies to the bytes on the wire, after gzip
+            long wireBytes = response.getTimings().getBytesReceived();
+            long expectedMillis = wireBytes * 1000 / 50_000;
+            
+            assertEquals(200, response.getStatusCode(), "Expected status code 200");
+            assertTrue(elapsedMillis >= expectedMillis * 9 / 10,
+                    "Body of " + wireBytes + " bytes must take about " + expectedMillis + " ms, took " + elapsedMillis);
+        } finally {
+            server.setBandwidth(0);
+        }
+    }
+    
+    @Test
+    @DisplayName("Gzipped Request Bodies Are Decoded")
+    void testGzippedRequestBody() throws Exception {
+        String body = "{\"userId\":1,\"title\":\"compressed\",\"body\":\"" + "lorem ipsum ".repeat(400) + "\"}";
+        String originalCompression = ApiConfiguration.getInstance().getCompression();
+        ApiConfiguration.getInstance().setProperty("api.compression", "all");
+        try {
+            ApiClient.ApiResponse response = apiClient.post("/posts", body);
+            
+            assertEquals(201, response.getStatusCode(), "Gzipped body must be accepted");
+            assertEquals("compressed", JsonCodec.mapper().readTree(response.getBodyBytes()).get("title").asText(),
+                    "Echoed post must match the uncompressed body");
+            assertEquals(body.length(), response.getTimings().getUncompressedBytesSent(), "Uncompressed size must be recorded");
+            assertTrue(response.getTimings().getBytesSent() < body.length() / 4,
+                    "Repetitive body must shrink on the wire, sent " + response.getTimings().getBytesSent());
+        } finally {
+            ApiConfiguration.getInstance().setProperty("api.compression", originalCompression);
+        }
+    }
+}
\ No newline at end of file
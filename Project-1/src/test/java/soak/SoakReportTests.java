@@ -0,0 +1,93 @@
+package soak;
+
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for soak reports: growth trends across windows, latency drift and sampling the live JVM
+ */
+@Tag("soak")
+public class SoakReportTests {
+    
+    private static final long MB = 1024 * 1024;
+    
+    @Test
+    @DisplayName("Resources That Only Grow Are Flagged, Fluctuating Ones Are Not")
+    void testGrowthTrends() {
+        // client references leak by two per window, heap goes up and down around 100 MB
+        long[] heapMb = {100, 140, 95, 130, 105};
+        List<SoakReport.Window> windows = new ArrayList<>();
+        for (int i = 0; i < heapMb.length; i++) {
+            windows.add(window(i, heapMb[i], 1 + 2L * i, Map.of()));
+        }
+        
+        SoakReport report = new SoakReport(windows, 0.10, 0.25);
+        
+        assertEquals(List.of("GROWING ApiClient references: 1 -> 9 over 5 windows"), report.getFlags(),
+                "Only the leaking references must be flagged: " + report.format());
+        assertTrue(report.format().contains("n/a"), "Unsupported readings must be shown as n/a");
+        assertFalse(new SoakReport(windows.subList(0, 2), 0.10, 0.25).hasFlags(),
+                "Two windows are too few for a trend");
+    }
+    
+    @Test
+    @DisplayName("Latency Drift Between First And Last Window Is Flagged")
+    void testLatencyDrift() {
+        Map<String, Histogram> first = Map.of("GET /posts/{id}", latency(20, 2000), "GET /users", latency(20, 3000),
+                "GET /todos", latency(5, 1000));
+        Map<String, Histogram> last = Map.of("GET /posts/{id}", latency(20, 5000), "GET /users", latency(20, 3100),
+                "GET /todos", latency(5, 9000));
+        
+        SoakReport report = new SoakReport(List.of(window(0, 100, 1, first), window(1, 100, 1, Map.of()),
+                window(2, 100, 1, last)), 0.10, 0.25);
+        
+        List<String> flags = report.getFlags();
+        assertEquals(2, flags.size(), "p50 and p99 of the slowed endpoint must be flagged: " + flags);
+        assertTrue(flags.get(0).startsWith("DRIFT GET /posts/{id} p50: 2.00 ms -> 5.00 ms"),
+                "Flag must show both latencies: " + flags.get(0));
+        assertTrue(report.format().contains("GET /users"), "Compared endpoints must be listed");
+        assertFalse(report.format().contains("GET /todos"), "Endpoints with too few samples must be left out");
+    }
+    
+    @Test
+    @DisplayName("Monitor Samples The Running JVM")
+    void testMonitorSamples() throws Exception {
+        SoakMonitor monitor = new SoakMonitor(Duration.ofMillis(20), Duration.ofMillis(100));
+        Thread.sleep(250);
+        monitor.close();
+        
+        SoakReport report = monitor.report(0.10, 0.25);
+        assertTrue(report.getWindows().size() >= 2, "Closed windows must be kept: " + report.getWindows().size());
+        ResourceSample sample = report.getWindows().get(0).getSamples().get(0);
+        assertTrue(sample.getHeapUsedBytes() > 0, "Heap usage must be sampled");
+        assertTrue(sample.getThreads() > 0, "Threads must be counted");
+        assertThrows(IllegalArgumentException.class,
+                () -> new SoakMonitor(Duration.ofSeconds(10), Duration.ofSeconds(1)),
+                "Windows shorter than the sample interval must be rejected");
+    }
+    
+    // two samples a minute apart with the given heap and client references, nothing else reported
+    private static SoakReport.Window window(int index, long heapMb, long references, Map<String, Histogram> latency) {
+        long start = index * 60_000L;
+        return new SoakReport.Window(List.of(
+                new ResourceSample(start, heapMb * MB, heapMb * MB, 0, -1, -1, 4, references, 20),
+                new ResourceSample(start + 60_000, heapMb * MB, heapMb * MB, 0, -1, -1, 4, references, 20)), latency);
+    }
+    
+    private static Histogram latency(int count, long micros) {
+        Histogram histogram = new Histogram(3);
+        for (int i = 0; i < count; i++) {
+            histogram.recordValue(micros);
+        }
+        return histogram;
+    }
+}
\ No newline at end of file
@@ -1,13 +1,20 @@
 package todos;
 
 import client.ApiClient;
+import schema.Schemas;
+import schema.Violation;
+import util.ApiClientExtension;
+import util.TagResourceLocks;
 import util.TestDataLoader;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.parallel.ResourceLock;
+
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -16,15 +23,16 @@ import static org.junit.jupiter.api.Assertions.*;
  */
 @Tag("todos")
 @Tag("get")
+@ExtendWith(ApiClientExtension.class)
+@ResourceLock(providers = TagResourceLocks.class)
 public class GetTests {
     
-    private ApiClient apiClient;
-    private ObjectMapper objectMapper;
+    private final ApiClient apiClient;
+    private final ObjectMapper objectMapper;
     
-    @BeforeEach
-    void setUp() {
-        apiClient = new ApiClient();
-        objectMapper = new ObjectMapper();
+    GetTests(ApiClient apiClient, ObjectMapper objectMapper) {
+        this.apiClient = apiClient;
+        this.objectMapper = objectMapper;
     }
     
     @Test
@@ -39,19 +47,11 @@ public class GetTests {
         
         // Validate response body is not null and not empty
         assertNotNull(response.getBody(), "Response body must not be null");
-        assertFalse(response.getBody().isEmpty(), "Response body must not be empty");
-        
-        JsonNode jsonArray = objectMapper.readTree(response.getBody());
-        assertTrue(jsonArray.isArray(), "Response must be an array");
+        assertTrue(response.getBodyLength() > 0, "Response body must not be empty");
         
-        // Validate todos have expected structure if any todos exist
-        if (jsonArray.size() > 0) {
-            JsonNode firstTodo = jsonArray.get(0);
-            assertTrue(firstTodo.has("id"), "Todo must have id field");
-            assertTrue(firstTodo.has("title"), "Todo must have title field");
-            assertTrue(firstTodo.has("completed"), "Todo must have completed field");
-            assertTrue(firstTodo.has("userId"), "Todo must have userId field");
-        }
+        // every todo in the list must match the todos schema
+        List<Violation> violations = Schemas.list("todos").validate(response.getBodyBytes());
+        assertTrue(violations.isEmpty(), "Response must be a list of todos: " + violations);
     }
     
     @Test
@@ -64,15 +64,12 @@ public class GetTests {
         
         assertEquals(expectedStatus, response.getStatusCode(), "Expected status code " + expectedStatus);
         
-        JsonNode jsonObject = objectMapper.readTree(response.getBody());
-        assertFalse(jsonObject.isArray(), "Response must be a single object");
+        List<Violation> violations = Schemas.item("todos").validate(response.getBodyBytes());
+        assertTrue(violations.isEmpty(), "Response must be a single todo: " + violations);
         
-        // Validate fields are present 
+        JsonNode jsonObject = objectMapper.readTree(response.getBodyBytes());
         int expectedId = Integer.parseInt(endpoint.substring(endpoint.lastIndexOf('/') + 1));
         assertEquals(expectedId, jsonObject.get("id").asInt(), "Todo ID must be " + expectedId);
-        assertFalse(jsonObject.get("title").asText().isEmpty(), "Title must not be empty");
-        assertNotNull(jsonObject.get("completed"), "Completed must not be null");
-        assertTrue(jsonObject.get("userId").asInt() > 0, "UserId must be positive");
     }
     
     @Test
@@ -1,13 +1,22 @@
 package todos;
 
 import client.ApiClient;
+import diff.Difference;
+import diff.JsonDiff;
+import schema.Schemas;
+import schema.Violation;
+import util.ApiClientExtension;
+import util.TagResourceLocks;
 import util.TestDataLoader;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.parallel.ResourceLock;
+
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -16,16 +25,21 @@ import static org.junit.jupiter.api.Assertions.*;
  */
 @Tag("todos")
 @Tag("post")
+@ExtendWith(ApiClientExtension.class)
+@ResourceLock(providers = TagResourceLocks.class)
 public class PostTests {
     
-    private ApiClient apiClient;
-    private ObjectMapper objectMapper;
+    private static final JsonDiff CREATED = JsonDiff.exact().ignoring("/id");
+    
+    private final ApiClient apiClient;
     private JsonNode todosTestData;
     
+    PostTests(ApiClient apiClient) {
+        this.apiClient = apiClient;
+    }
+    
     @BeforeEach
     void setUp() {
-        apiClient = new ApiClient();
-        objectMapper = new ObjectMapper();
         todosTestData = TestDataLoader.getTodoCreationData();
     }
     
@@ -36,30 +50,18 @@ public class PostTests {
         int expectedStatus = TestDataLoader.getStatusCode("status.created");
         
         JsonNode testTodo = TestDataLoader.getTestDataItem(todosTestData, 0);
-        String requestBody = objectMapper.writeValueAsString(testTodo);
+        byte[] requestBody = TestDataLoader.getRequestBody(todosTestData, 0);
         
         ApiClient.ApiResponse response = apiClient.post(endpoint, requestBody);
         
         assertEquals(expectedStatus, response.getStatusCode(), "Expected status code " + expectedStatus);
         
-        JsonNode jsonResponse = objectMapper.readTree(response.getBody());
-        
-        // Validate response has expected fields
-        assertTrue(jsonResponse.has("id"), "Response must have id field");
-        assertTrue(jsonResponse.has("title"), "Response must have title field");
-        assertTrue(jsonResponse.has("completed"), "Response must have completed field");
-        assertTrue(jsonResponse.has("userId"), "Response must have userId field");
-        
-        // Validate that created todo has an ID
-        assertTrue(jsonResponse.get("id").asInt() > 0, "Created todo ID must be positive");
+        List<Violation> violations = Schemas.item("todos").validate(response.getBodyBytes());
+        assertTrue(violations.isEmpty(), "Response must be a valid todo: " + violations);
         
-        // Validate other fields match test data
-        assertEquals(testTodo.get("title").asText(), jsonResponse.get("title").asText(), 
-            "Title must match test data");
-        assertEquals(testTodo.get("completed").asBoolean(), jsonResponse.get("completed").asBoolean(), 
-            "Completed must match test data");
-        assertEquals(testTodo.get("userId").asInt(), jsonResponse.get("userId").asInt(), 
-            "UserId must match test data");
+        // the created todo echoes the test data, with an id generated by the server
+        List<Difference> differences = CREATED.compare(testTodo, response.getBodyBytes());
+        assertTrue(differences.isEmpty(), "Response must match the test data: " + differences);
     }
     
     @Test
@@ -70,7 +72,7 @@ public class PostTests {
         
         JsonNode negativeTestData = TestDataLoader.getInvalidTodoCreationData();
         JsonNode testTodo = TestDataLoader.getTestDataItem(negativeTestData, 0);
-        String requestBody = objectMapper.writeValueAsString(testTodo);
+        byte[] requestBody = TestDataLoader.getRequestBody(negativeTestData, 0);
         
         ApiClient.ApiResponse response = apiClient.post(endpoint, requestBody);
         
@@ -1,13 +1,22 @@
 package todos;
 
 import client.ApiClient;
+import diff.Difference;
+import diff.JsonDiff;
+import schema.Schemas;
+import schema.Violation;
+import util.ApiClientExtension;
+import util.TagResourceLocks;
 import util.TestDataLoader;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.parallel.ResourceLock;
+
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -16,16 +25,19 @@ import static org.junit.jupiter.api.Assertions.*;
  */
 @Tag("todos")
 @Tag("put")
+@ExtendWith(ApiClientExtension.class)
+@ResourceLock(providers = TagResourceLocks.class)
 public class PutTests {
     
-    private ApiClient apiClient;
-    private ObjectMapper objectMapper;
+    private final ApiClient apiClient;
     private JsonNode todosTestData;
     
+    PutTests(ApiClient apiClient) {
+        this.apiClient = apiClient;
+    }
+    
     @BeforeEach
     void setUp() {
-        apiClient = new ApiClient();
-        objectMapper = new ObjectMapper();
         todosTestData = TestDataLoader.getTodoUpdateData();
     }
     
@@ -35,30 +47,18 @@ public class PutTests {
         JsonNode testTodo = TestDataLoader.getTestDataItem(todosTestData, 0);
         String endpoint = TestDataLoader.getEndpoint("todos.base") + "/" + testTodo.get("id").asInt();
         int expectedStatus = TestDataLoader.getStatusCode("status.success");
-        String requestBody = objectMapper.writeValueAsString(testTodo);
+        byte[] requestBody = TestDataLoader.getRequestBody(todosTestData, 0);
         
         ApiClient.ApiResponse response = apiClient.put(endpoint, requestBody);
         
         assertEquals(expectedStatus, response.getStatusCode(), "Expected status code " + expectedStatus);
         
-        JsonNode jsonResponse = objectMapper.readTree(response.getBody());
-        
-        // Validate all expected fields are present
-        assertTrue(jsonResponse.has("id"), "Response must have id field");
-        assertTrue(jsonResponse.has("title"), "Response must have title field");
-        assertTrue(jsonResponse.has("completed"), "Response must have completed field");
-        assertTrue(jsonResponse.has("userId"), "Response must have userId field");
-        
-        // Validate other fields were updated
-        assertEquals(testTodo.get("title").asText(), jsonResponse.get("title").asText(), 
-            "Title must match test data");
-        assertEquals(testTodo.get("completed").asBoolean(), jsonResponse.get("completed").asBoolean(), 
-            "Completed must match test data");
-        assertEquals(testTodo.get("userId").asInt(), jsonResponse.get("userId").asInt(), 
-            "UserId must match test data");
+        List<Violation> violations = Schemas.item("todos").validate(response.getBodyBytes());
+        assertTrue(violations.isEmpty(), "Response must be a valid todo: " + violations);
         
-        // Validate the ID is preserved
-        assertEquals(testTodo.get("id").asInt(), jsonResponse.get("id").asInt(), "Todo ID must be preserved");
+        // the replacement echoes the test data, id included
+        List<Difference> differences = JsonDiff.exact().compare(testTodo, response.getBodyBytes());
+        assertTrue(differences.isEmpty(), "Response must match the test data: " + differences);
     }
     
     @Test
@@ -68,7 +68,7 @@ public class PutTests {
         JsonNode testTodo = TestDataLoader.getTestDataItem(negativeTestData, 0);
         String endpoint = TestDataLoader.getEndpoint("todos.base") + "/" + testTodo.get("id").asInt();
         int expectedStatus = TestDataLoader.getStatusCode("status.internalerror");
-        String requestBody = objectMapper.writeValueAsString(testTodo);
+        byte[] requestBody = TestDataLoader.getRequestBody(negativeTestData, 0);
         
         ApiClient.ApiResponse response = apiClient.put(endpoint, requestBody);
         
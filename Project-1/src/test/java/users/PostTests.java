@@ -1,13 +1,22 @@
 package users;
 
 import client.ApiClient;
+import diff.Difference;
+import diff.JsonDiff;
+import schema.Schemas;
+import schema.Violation;
+import util.ApiClientExtension;
+import util.TagResourceLocks;
 import util.TestDataLoader;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.parallel.ResourceLock;
+
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -16,16 +25,21 @@ import static org.junit.jupiter.api.Assertions.*;
  */
 @Tag("users")
 @Tag("post")
+@ExtendWith(ApiClientExtension.class)
+@ResourceLock(providers = TagResourceLocks.class)
 public class PostTests {
     
-    private ApiClient apiClient;
-    private ObjectMapper objectMapper;
+    private static final JsonDiff CREATED = JsonDiff.exact().ignoring("/id");
+    
+    private final ApiClient apiClient;
     private JsonNode usersTestData;
     
+    PostTests(ApiClient apiClient) {
+        this.apiClient = apiClient;
+    }
+    
     @BeforeEach
     void setUp() {
-        apiClient = new ApiClient();
-        objectMapper = new ObjectMapper();
         usersTestData = TestDataLoader.getUserCreationData();
     }
     
@@ -36,36 +50,18 @@ public class PostTests {
         int expectedStatus = TestDataLoader.getStatusCode("status.created");
         
         JsonNode testUser = TestDataLoader.getTestDataItem(usersTestData, 0);
-        String requestBody = objectMapper.writeValueAsString(testUser);
+        byte[] requestBody = TestDataLoader.getRequestBody(usersTestData, 0);
         
         ApiClient.ApiResponse response = apiClient.post(endpoint, requestBody);
         
         assertEquals(expectedStatus, response.getStatusCode(), "Expected status code " + expectedStatus);
         
-        JsonNode jsonResponse = objectMapper.readTree(response.getBody());
-        
-        // Validate response has expected fields
-        assertTrue(jsonResponse.has("id"), "Response must have id field");
-        assertTrue(jsonResponse.has("name"), "Response must have name field");
-        assertTrue(jsonResponse.has("username"), "Response must have username field");
-        assertTrue(jsonResponse.has("email"), "Response must have email field");
-        assertTrue(jsonResponse.has("phone"), "Response must have phone field");
-        assertTrue(jsonResponse.has("website"), "Response must have website field");
-        
-        // Validate that created user has an ID
-        assertTrue(jsonResponse.get("id").asInt() > 0, "Created user ID must be positive");
+        List<Violation> violations = Schemas.item("users").validate(response.getBodyBytes());
+        assertTrue(violations.isEmpty(), "Response must be a valid user: " + violations);
         
-        // Validate other fields match test data
-        assertEquals(testUser.get("name").asText(), jsonResponse.get("name").asText(), 
-            "Name must match test data");
-        assertEquals(testUser.get("username").asText(), jsonResponse.get("username").asText(), 
-            "Username must match test data");
-        assertEquals(testUser.get("email").asText(), jsonResponse.get("email").asText(), 
-            "Email must match test data");
-        assertEquals(testUser.get("phone").asText(), jsonResponse.get("phone").asText(), 
-            "Phone must match test data");
-        assertEquals(testUser.get("website").asText(), jsonResponse.get("website").asText(), 
-            "Website must match test data");
+        // the created user echoes the test data, with an id generated by the server
+        List<Difference> differences = CREATED.compare(testUser, response.getBodyBytes());
+        assertTrue(differences.isEmpty(), "Response must match the test data: " + differences);
     }
     
     @Test
@@ -76,7 +72,7 @@ public class PostTests {
         
         JsonNode negativeTestData = TestDataLoader.getInvalidUserCreationData();
         JsonNode testUser = TestDataLoader.getTestDataItem(negativeTestData, 0);
-        String requestBody = objectMapper.writeValueAsString(testUser);
+        byte[] requestBody = TestDataLoader.getRequestBody(negativeTestData, 0);
         
         ApiClient.ApiResponse response = apiClient.post(endpoint, requestBody);
         
@@ -1,13 +1,22 @@
 package users;
 
 import client.ApiClient;
+import diff.Difference;
+import diff.JsonDiff;
+import schema.Schemas;
+import schema.Violation;
+import util.ApiClientExtension;
+import util.TagResourceLocks;
 import util.TestDataLoader;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.parallel.ResourceLock;
+
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -16,16 +25,19 @@ import static org.junit.jupiter.api.Assertions.*;
  */
 @Tag("users")
 @Tag("put")
+@ExtendWith(ApiClientExtension.class)
+@ResourceLock(providers = TagResourceLocks.class)
 public class PutTests {
     
-    private ApiClient apiClient;
-    private ObjectMapper objectMapper;
+    private final ApiClient apiClient;
     private JsonNode usersTestData;
     
+    PutTests(ApiClient apiClient) {
+        this.apiClient = apiClient;
+    }
+    
     @BeforeEach
     void setUp() {
-        apiClient = new ApiClient();
-        objectMapper = new ObjectMapper();
         usersTestData = TestDataLoader.getUserUpdateData();
     }
     
@@ -35,33 +47,18 @@ public class PutTests {
         JsonNode testUser = TestDataLoader.getTestDataItem(usersTestData, 0);
         String endpoint = TestDataLoader.getEndpoint("users.base") + "/" + testUser.get("id").asInt();
         int expectedStatus = TestDataLoader.getStatusCode("status.success");
-        String requestBody = objectMapper.writeValueAsString(testUser);
+        byte[] requestBody = TestDataLoader.getRequestBody(usersTestData, 0);
         
         ApiClient.ApiResponse response = apiClient.put(endpoint, requestBody);
         
         assertEquals(expectedStatus, response.getStatusCode(), "Expected status code " + expectedStatus);
         
-        JsonNode jsonResponse = objectMapper.readTree(response.getBody());
-        
-        // Validate the response is a valid JSON object
-        assertFalse(jsonResponse.isArray(), "Response must be a single object");
-        
-        // Validate all expected fields are present
-        assertTrue(jsonResponse.has("id"), "Response must have id field");
-        assertTrue(jsonResponse.has("name"), "Response must have name field");
-        assertTrue(jsonResponse.has("username"), "Response must have username field");
-        assertTrue(jsonResponse.has("email"), "Response must have email field");
-        
-        // Validate other fields were updated
-        assertEquals(testUser.get("name").asText(), jsonResponse.get("name").asText(), 
-            "Name must match test data");
-        assertEquals(testUser.get("username").asText(), jsonResponse.get("username").asText(), 
-            "Username must match test data");
-        assertEquals(testUser.get("email").asText(), jsonResponse.get("email").asText(), 
-            "Email must match test data");
+        List<Violation> violations = Schemas.item("users").validate(response.getBodyBytes());
+        assertTrue(violations.isEmpty(), "Response must be a valid user: " + violations);
         
-        // Validate ID is preserved
-        assertEquals(testUser.get("id").asInt(), jsonResponse.get("id").asInt(), "User ID must be preserved");
+        // the replacement echoes the test data, id included
+        List<Difference> differences = JsonDiff.exact().compare(testUser, response.getBodyBytes());
+        assertTrue(differences.isEmpty(), "Response must match the test data: " + differences);
     }
     
     @Test
@@ -71,7 +68,7 @@ public class PutTests {
         JsonNode testUser = TestDataLoader.getTestDataItem(negativeTestData, 0);
         String endpoint = TestDataLoader.getEndpoint("users.base") + "/" + testUser.get("id").asInt();
         int expectedStatus = TestDataLoader.getStatusCode("status.internalerror");
-        String requestBody = objectMapper.writeValueAsString(testUser);
+        byte[] requestBody = TestDataLoader.getRequestBody(negativeTestData, 0);
         
         ApiClient.ApiResponse response = apiClient.put(endpoint, requestBody);
         
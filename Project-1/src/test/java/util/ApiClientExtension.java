@@ -0,0 +1,59 @@
+package util;
+
+import client.ApiClient;
+import client.JsonCodec;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ParameterContext;
+import org.junit.jupiter.api.extension.ParameterResolver;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Injects one suite-wide ApiClient and the shared ObjectMapper into test constructors and methods.
+ * The client lives in the root store, so it is built once and closed when the test run ends.
+ */
+public class ApiClientExtension implements BeforeAllCallback, ParameterResolver {
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(ApiClientExtension.class);
+    
+    // built before the first test class runs rather than by whichever test thread asks first
+    @Override
+    public void beforeAll(ExtensionContext context) {
+        sharedClient(context);
+    }
+    
+    @Override
+    public boolean supportsParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        Class<?> type = parameterContext.getParameter().getType();
+        return type == ApiClient.class || type == ObjectMapper.class;
+    }
+    
+    @Override
+    public Object resolveParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        if (parameterContext.getParameter().getType() == ObjectMapper.class) {
+            return JsonCodec.mapper();
+        }
+        return sharedClient(extensionContext);
+    }
+    
+    private static ApiClient sharedClient(ExtensionContext context) {
+        return context.getRoot().getStore(NAMESPACE)
+                .getOrComputeIfAbsent(SharedClient.class, key -> new SharedClient(), SharedClient.class).client;
+    }
+    
+    // closed by JUnit when the root context is, i.e. once after the last test
+    private static final class SharedClient implements ExtensionContext.Store.CloseableResource {
+        private final ApiClient client = new ApiClient();
+        
+        @Override
+        public void close() {
+            try {
+                client.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,55 @@
+package util;
+
+import config.ApiConfiguration;
+import org.junit.platform.engine.ConfigurationParameters;
+import org.junit.platform.engine.support.hierarchical.ParallelExecutionConfiguration;
+import org.junit.platform.engine.support.hierarchical.ParallelExecutionConfigurationStrategy;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
+
+/**
+ * Runs as many tests at once as the client can have requests in flight to the API host:
+ * api.pool.max.per.route connections, or api.http2.max.streams streams with api.http.version=2
+ */
+public class PoolSizedParallelism implements ParallelExecutionConfigurationStrategy {
+    
+    @Override
+    public ParallelExecutionConfiguration createConfiguration(ConfigurationParameters configurationParameters) {
+        ApiConfiguration config = ApiConfiguration.getInstance();
+        int parallelism = "2".equals(config.getHttpVersion()) ? config.getHttp2MaxStreams() : config.getPoolMaxPerRoute();
+        return new ParallelExecutionConfiguration() {
+            @Override
+            public int getParallelism() {
+                return parallelism;
+            }
+            
+            @Override
+            public int getMinimumRunnable() {
+                return parallelism;
+            }
+            
+            // threads blocked on a resource lock are replaced, up to one spare per worker
+            @Override
+            public int getMaxPoolSize() {
+                return parallelism * 2;
+            }
+            
+            @Override
+            public int getCorePoolSize() {
+                return parallelism;
+            }
+            
+            @Override
+            public int getKeepAliveSeconds() {
+                return 30;
+            }
+            
+            // past the maximum a blocked worker waits instead of failing the run
+            @Override
+            public Predicate<? super ForkJoinPool> getSaturatePredicate() {
+                return pool -> true;
+            }
+        };
+    }
+}
\ No newline at end of file
@@ -0,0 +1,23 @@
+package util;
+
+import org.junit.jupiter.api.ClassDescriptor;
+import org.junit.jupiter.api.ClassOrderer;
+import org.junit.jupiter.api.ClassOrdererContext;
+
+import java.util.Comparator;
+
+/**
+ * Starts test classes in order of their TestHistory duration, slowest first, so a long class is not
+ * the last thing left running while the other workers sit idle
+ */
+public class SlowestFirst implements ClassOrderer {
+    
+    @Override
+    public void orderClasses(ClassOrdererContext context) {
+        TestHistory history = TestHistory.shared();
+        context.getClassDescriptors().sort(Comparator
+                .comparingLong((ClassDescriptor descriptor) -> history.millis(descriptor.getTestClass().getName()))
+                .reversed()
+                .thenComparing(descriptor -> descriptor.getTestClass().getName()));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,135 @@
+package util;
+
+import client.ApiClient;
+import load.LoadRunner;
+import load.LoadTarget;
+import org.junit.platform.engine.DiscoverySelector;
+import org.junit.platform.engine.discovery.DiscoverySelectors;
+import org.junit.platform.launcher.LauncherDiscoveryRequest;
+import org.junit.platform.launcher.LauncherSession;
+import org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder;
+import org.junit.platform.launcher.core.LauncherFactory;
+import org.junit.platform.launcher.listeners.SummaryGeneratingListener;
+import org.junit.platform.launcher.listeners.TestExecutionSummary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import soak.SoakMonitor;
+import soak.SoakReport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Runs test classes and load scenarios over and over for a fixed time while a SoakMonitor watches for
+ * resources that keep growing and latency that drifts, e.g. ./gradlew soakTest -Dsoak.duration=3600
+ */
+public class SoakRunner {
+    private static final Logger logger = LoggerFactory.getLogger(SoakRunner.class);
+    
+    public static void main(String[] args) throws IOException {
+        Duration duration = Duration.ofSeconds(Long.parseLong(System.getProperty("soak.duration", "600")));
+        Duration interval = Duration.ofSeconds(Long.parseLong(System.getProperty("soak.interval", "10")));
+        int windowCount = Integer.parseInt(System.getProperty("soak.windows", "6"));
+        // packages or fully qualified test classes, e.g. "posts,client.BatchTests"
+        String classes = System.getProperty("soak.classes", "posts,users,todos");
+        // load targets in load.targets syntax, run for soak.round seconds after every pass over the classes
+        String spec = System.getProperty("soak.targets", "");
+        double rate = Double.parseDouble(System.getProperty("soak.rate", "20"));
+        Duration round = Duration.ofSeconds(Long.parseLong(System.getProperty("soak.round", "30")));
+        double growth = Double.parseDouble(System.getProperty("soak.growth", "0.10"));
+        double drift = Double.parseDouble(System.getProperty("soak.drift", "0.25"));
+        String reportFile = System.getProperty("soak.report", "");
+        
+        List<DiscoverySelector> selectors = selectors(classes);
+        List<LoadTarget> targets = spec.isBlank() ? List.of() : LoadTarget.parse(spec, loadEndpoints(), 1);
+        if (selectors.isEmpty() && targets.isEmpty()) {
+            throw new IllegalArgumentException("Nothing to soak, set soak.classes or soak.targets");
+        }
+        LauncherDiscoveryRequest request = LauncherDiscoveryRequestBuilder.request().selectors(selectors).build();
+        
+        int rounds = 0;
+        long failures = 0;
+        SoakReport report;
+        // the session starts the stand-in API once for the whole run, see StandInSession
+        try (LauncherSession session = LauncherFactory.openSession()) {
+            ApiClient apiClient = targets.isEmpty() ? null : new ApiClient();
+            SoakMonitor monitor = new SoakMonitor(interval, duration.dividedBy(windowCount));
+            try {
+                long deadline = System.nanoTime() + duration.toNanos();
+                while (System.nanoTime() < deadline) {
+                    rounds++;
+                    if (!selectors.isEmpty()) {
+                        SummaryGeneratingListener summary = new SummaryGeneratingListener();
+                        session.getLauncher().execute(request, summary);
+                        failures += failures(rounds, summary.getSummary());
+                    }
+                    if (apiClient != null) {
+                        new LoadRunner(apiClient, targets, rate, round).run();
+                    }
+                }
+            } finally {
+                monitor.close();
+                if (apiClient != null) {
+                    apiClient.close();
+                }
+            }
+            report = monitor.report(growth, drift);
+        }
+        
+        String output = String.format("Soak: %d rounds in %ds, %d failed tests%n%n", rounds, duration.getSeconds(),
+                failures) + report.format();
+        System.out.println(output);
+        if (!reportFile.isBlank()) {
+            Files.writeString(Path.of(reportFile), output, StandardCharsets.UTF_8);
+        }
+        if (failures > 0 || report.hasFlags()) {
+            System.exit(1);
+        }
+    }
+    
+    // a last segment starting upper case names a class, anything else a package
+    private static List<DiscoverySelector> selectors(String classes) {
+        List<DiscoverySelector> selectors = new ArrayList<>();
+        for (String name : classes.split(",")) {
+            name = name.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            String simpleName = name.substring(name.lastIndexOf('.') + 1);
+            selectors.add(Character.isUpperCase(simpleName.charAt(0))
+                    ? DiscoverySelectors.selectClass(name) : DiscoverySelectors.selectPackage(name));
+        }
+        return selectors;
+    }
+    
+    private static long failures(int round, TestExecutionSummary summary) {
+        if (summary.getTotalFailureCount() > 0) {
+            for (TestExecutionSummary.Failure failure : summary.getFailures()) {
+                logger.warn("Round {}: {} failed: {}", round, failure.getTestIdentifier().getDisplayName(),
+                        failure.getException().toString());
+            }
+        }
+        if (summary.getTestsFoundCount() == 0) {
+            throw new IllegalStateException("soak.classes matched no tests");
+        }
+        return summary.getTotalFailureCount();
+    }
+    
+    // endpoint keys for soak.targets
+    private static Properties loadEndpoints() throws IOException {
+        Properties endpoints = new Properties();
+        try (InputStream input = SoakRunner.class.getClassLoader().getResourceAsStream("test.properties")) {
+            if (input != null) {
+                endpoints.load(input);
+            }
+        }
+        return endpoints;
+    }
+}
\ No newline at end of file
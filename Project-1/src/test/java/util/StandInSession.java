@@ -0,0 +1,40 @@
+package util;
+
+import config.ApiConfiguration;
+import org.junit.platform.launcher.LauncherSession;
+import org.junit.platform.launcher.LauncherSessionListener;
+import server.StandInServer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Starts the stand-in API once per test run and points api.base.url at it when api.standin.enabled is set
+ */
+public class StandInSession implements LauncherSessionListener {
+    
+    private StandInServer server;
+    
+    @Override
+    public void launcherSessionOpened(LauncherSession session) {
+        ApiConfiguration config = ApiConfiguration.getInstance();
+        if (!config.isStandInEnabled()) {
+            return;
+        }
+        server = StandInServer.fromConfig(config);
+        try {
+            server.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to start stand-in API", e);
+        }
+        config.setProperty("api.base.url", server.getBaseUrl());
+    }
+    
+    @Override
+    public void launcherSessionClosed(LauncherSession session) {
+        if (server != null) {
+            server.close();
+            server = null;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,38 @@
+package util;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.parallel.ResourceAccessMode;
+import org.junit.jupiter.api.parallel.ResourceLocksProvider;
+import org.junit.platform.commons.support.AnnotationSupport;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Resource locks from a test class's tags: @Tag("posts") locks api.posts, read-only when the class
+ * is also tagged get and read/write for post, put and delete, so only mutating classes serialize
+ */
+public class TagResourceLocks implements ResourceLocksProvider {
+    private static final Set<String> RESOURCES = Set.of("posts", "users", "todos");
+    private static final Set<String> READ_ONLY = Set.of("get");
+    
+    @Override
+    public Set<Lock> provideForClass(Class<?> testClass) {
+        List<Tag> tags = AnnotationSupport.findRepeatableAnnotations(testClass, Tag.class);
+        boolean readOnly = tags.stream().anyMatch(tag -> READ_ONLY.contains(tag.value()))
+                && tags.stream().noneMatch(tag -> isMutating(tag.value()));
+        ResourceAccessMode mode = readOnly ? ResourceAccessMode.READ : ResourceAccessMode.READ_WRITE;
+        Set<Lock> locks = new HashSet<>();
+        for (Tag tag : tags) {
+            if (RESOURCES.contains(tag.value())) {
+                locks.add(new Lock("api." + tag.value(), mode));
+            }
+        }
+        return locks;
+    }
+    
+    private static boolean isMutating(String tag) {
+        return "post".equals(tag) || "put".equals(tag) || "delete".equals(tag) || "patch".equals(tag);
+    }
+}
\ No newline at end of file
@@ -1,19 +1,24 @@
 package util;
 
+import client.JsonCodec;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Utility to load test data and configuration
  */
 public class TestDataLoader {
     
-    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final ObjectMapper objectMapper = JsonCodec.mapper();
     private static Properties testProperties = null;
+    // parsed test data and its serialized items per resource path
+    private static final Map<String, TestData> cache = new ConcurrentHashMap<>();
     
     // load properties from test.properties file
     private static synchronized Properties getTestProperties() {
@@ -53,8 +58,12 @@ public class TestDataLoader {
         return Integer.parseInt(value);
     }
     
-    // load json test data from file
+    // load json test data from file once, the returned node is shared and must not be modified
     public static JsonNode loadTestData(String resourcePath) {
+        return cache.computeIfAbsent(resourcePath, TestDataLoader::readTestData).node;
+    }
+    
+    private static TestData readTestData(String resourcePath) {
         try (InputStream inputStream = TestDataLoader.class.getClassLoader()
                 .getResourceAsStream(resourcePath)) {
             
@@ -62,7 +71,7 @@ public class TestDataLoader {
                 throw new RuntimeException("Could not find resource: " + resourcePath);
             }
             
-            return objectMapper.readTree(inputStream);
+            return new TestData(objectMapper.readTree(inputStream));
         } catch (IOException e) {
             throw new RuntimeException("Failed to load test data from: " + resourcePath, e);
         }
@@ -123,4 +132,39 @@ public class TestDataLoader {
         }
         throw new RuntimeException("Invalid test data index: " + index);
     }
+    
+    // UTF-8 JSON of a test data item, serialized once for data returned by loadTestData and shared
+    // between callers, so it must not be modified
+    public static byte[] getRequestBody(JsonNode testData, int index) {
+        for (TestData data : cache.values()) {
+            if (data.node == testData) {
+                if (index < 0 || index >= data.bodies.length) {
+                    throw new RuntimeException("Invalid test data index: " + index);
+                }
+                return data.bodies[index];
+            }
+        }
+        return serialize(getTestDataItem(testData, index));
+    }
+    
+    private static byte[] serialize(JsonNode node) {
+        try {
+            return objectMapper.writeValueAsBytes(node);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to serialize test data", e);
+        }
+    }
+    
+    private static final class TestData {
+        private final JsonNode node;
+        private final byte[][] bodies;
+        
+        TestData(JsonNode node) {
+            this.node = node;
+            this.bodies = new byte[node.isArray() ? node.size() : 0][];
+            for (int i = 0; i < bodies.length; i++) {
+                bodies[i] = serialize(node.get(i));
+            }
+        }
+    }
 }
\ No newline at end of file
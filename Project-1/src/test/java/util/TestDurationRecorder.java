@@ -0,0 +1,74 @@
+package util;
+
+import org.junit.platform.engine.TestExecutionResult;
+import org.junit.platform.engine.support.descriptor.ClassSource;
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestIdentifier;
+import org.junit.platform.launcher.TestPlan;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Times each top-level test class, from before its @BeforeAll to after its @AfterAll, and averages
+ * the run into the history when the test plan finishes, see TestHistory.outputFile
+ */
+public class TestDurationRecorder implements TestExecutionListener {
+    private final Map<String, Long> started = new ConcurrentHashMap<>();
+    private final Map<String, Long> finished = new ConcurrentHashMap<>();
+    private volatile TestPlan testPlan;
+    
+    @Override
+    public void testPlanExecutionStarted(TestPlan testPlan) {
+        this.testPlan = testPlan;
+        started.clear();
+        finished.clear();
+    }
+    
+    @Override
+    public void executionStarted(TestIdentifier testIdentifier) {
+        String className = topLevelClass(testIdentifier);
+        if (className != null) {
+            started.put(className, System.nanoTime());
+        }
+    }
+    
+    @Override
+    public void executionFinished(TestIdentifier testIdentifier, TestExecutionResult testExecutionResult) {
+        String className = topLevelClass(testIdentifier);
+        Long start = className != null ? started.remove(className) : null;
+        if (start != null) {
+            finished.put(className, Math.max(1, (System.nanoTime() - start) / 1_000_000));
+        }
+    }
+    
+    @Override
+    public void testPlanExecutionFinished(TestPlan testPlan) {
+        Path file = TestHistory.outputFile();
+        if (file == null || finished.isEmpty()) {
+            return;
+        }
+        try {
+            if (file.equals(TestHistory.file())) {
+                TestHistory.load(file).merge(finished).save(file);
+            } else {
+                // averaged against the history this run started from, only the classes that ran
+                TestHistory.shared().merge(finished).retain(finished.keySet()).save(file);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write test history " + file, e);
+        }
+    }
+    
+    // class name of a container directly under an engine, null for engines, nested classes and tests
+    private String topLevelClass(TestIdentifier identifier) {
+        if (!identifier.isContainer() || !(identifier.getSource().orElse(null) instanceof ClassSource source)) {
+            return null;
+        }
+        boolean topLevel = testPlan.getParent(identifier).map(parent -> parent.getParentIdObject().isEmpty()).orElse(false);
+        return topLevel ? source.getClassName() : null;
+    }
+}
\ No newline at end of file
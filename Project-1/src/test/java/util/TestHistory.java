@@ -0,0 +1,140 @@
+package util;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+/**
+ * Per-class test durations from earlier runs, one "class millis" line each in the file named by
+ * test.history.file. Each run is averaged into the previous value so one slow run does not dominate.
+ * Sharded runs only read that file; their timings go to test.history.out for CI to merge.
+ */
+public final class TestHistory {
+    // estimate for a class with no history when nothing else is known
+    private static final long DEFAULT_MILLIS = 1000;
+    private static volatile TestHistory shared;
+    
+    private final Map<String, Long> millis;
+    private final long unknownMillis;
+    
+    TestHistory(Map<String, Long> millis) {
+        this.millis = Collections.unmodifiableMap(new TreeMap<>(millis));
+        // a new class is assumed to be average, so it is neither piled onto one shard nor left for last
+        this.unknownMillis = millis.isEmpty() ? DEFAULT_MILLIS
+                : Math.max(1, millis.values().stream().mapToLong(Long::longValue).sum() / millis.size());
+    }
+    
+    // history from test.history.file, loaded once per JVM; empty when the property or the file is missing
+    public static TestHistory shared() {
+        TestHistory history = shared;
+        if (history == null) {
+            synchronized (TestHistory.class) {
+                history = shared;
+                if (history == null) {
+                    Path file = file();
+                    history = shared = file != null ? load(file) : new TestHistory(Map.of());
+                }
+            }
+        }
+        return history;
+    }
+    
+    static Path file() {
+        String file = System.getProperty("test.history.file");
+        return file == null || file.isBlank() ? null : Path.of(file);
+    }
+    
+    // where this run records its timings: test.history.out when given, otherwise test.history.file
+    // unless the run is sharded, since the shards of one build must all partition the same history
+    static Path outputFile() {
+        String out = System.getProperty("test.history.out");
+        if (out != null && !out.isBlank()) {
+            return Path.of(out);
+        }
+        return TestShards.isSharded() ? null : file();
+    }
+    
+    public static TestHistory load(Path file) {
+        Map<String, Long> millis = new TreeMap<>();
+        if (!Files.exists(file)) {
+            return new TestHistory(millis);
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int space = line.indexOf(' ');
+                if (line.startsWith("#") || space < 0) {
+                    continue;
+                }
+                try {
+                    millis.put(line.substring(0, space), Long.parseLong(line.substring(space + 1).trim()));
+                } catch (NumberFormatException e) {
+                    // a damaged line costs one estimate, not the whole history
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read test history " + file, e);
+        }
+        return new TestHistory(millis);
+    }
+    
+    // expected duration of a test class, the average of known classes when it has no history
+    public long millis(String className) {
+        Long known = millis.get(className);
+        return known != null ? known : unknownMillis;
+    }
+    
+    public Map<String, Long> asMap() {
+        return millis;
+    }
+    
+    // this history with the latest run averaged in, classes that did not run keep their value
+    public TestHistory merge(Map<String, Long> latest) {
+        Map<String, Long> merged = new TreeMap<>(millis);
+        latest.forEach((className, value) -> merged.merge(className, value, (old, now) -> (old + now + 1) / 2));
+        return new TestHistory(merged);
+    }
+    
+    // only the given classes, e.g. those one shard ran, so shard outputs can be concatenated
+    public TestHistory retain(Collection<String> classNames) {
+        Map<String, Long> kept = new TreeMap<>(millis);
+        kept.keySet().retainAll(classNames);
+        return new TestHistory(kept);
+    }
+    
+    // CRC32 of the entries in hex, equal on every machine that loaded the same history
+    public String fingerprint() {
+        CRC32 crc = new CRC32();
+        for (Map.Entry<String, Long> entry : millis.entrySet()) {
+            crc.update((entry.getKey() + " " + entry.getValue() + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+        return String.format("%08x", crc.getValue());
+    }
+    
+    public void save(Path file) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            writer.write("# test class and average duration in ms, written by util.TestDurationRecorder");
+            writer.newLine();
+            for (Map.Entry<String, Long> entry : millis.entrySet()) {
+                writer.write(entry.getKey() + " " + entry.getValue());
+                writer.newLine();
+            }
+        }
+        // readers on other shards see the old file or the new one, never half of it
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
\ No newline at end of file
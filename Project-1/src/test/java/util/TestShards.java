@@ -0,0 +1,112 @@
+package util;
+
+import org.junit.platform.engine.FilterResult;
+import org.junit.platform.engine.TestDescriptor;
+import org.junit.platform.engine.support.descriptor.ClassSource;
+import org.junit.platform.launcher.PostDiscoveryFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.ToLongFunction;
+
+/**
+ * Runs one shard of the suite when test.shard=K/N is set (K from 1 to N). Classes are split into N shards
+ * of near-equal expected time by longest-processing-time first: the slowest class by TestHistory goes
+ * to the least loaded shard, then the next slowest, and so on. Every machine computes the same split.
+ */
+public class TestShards implements PostDiscoveryFilter {
+    private static final Logger logger = LoggerFactory.getLogger(TestShards.class);
+    
+    private final int shard;
+    private final int shards;
+    private volatile Set<String> selected;
+    
+    public TestShards() {
+        String spec = System.getProperty("test.shard");
+        if (!isSharded()) {
+            shard = 1;
+            shards = 1;
+            return;
+        }
+        String[] parts = spec.trim().split("/");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("test.shard must be K/N, e.g. 2/4: " + spec);
+        }
+        shard = Integer.parseInt(parts[0].trim());
+        shards = Integer.parseInt(parts[1].trim());
+        if (shards < 1 || shard < 1 || shard > shards) {
+            throw new IllegalArgumentException("test.shard must be K/N with 1 <= K <= N: " + spec);
+        }
+    }
+    
+    static boolean isSharded() {
+        String spec = System.getProperty("test.shard");
+        return spec != null && !spec.isBlank();
+    }
+    
+    // the engine root is visited before its classes, so the whole suite is partitioned there once
+    @Override
+    public FilterResult apply(TestDescriptor descriptor) {
+        if (shards == 1) {
+            return FilterResult.included("not sharded");
+        }
+        if (descriptor.isRoot()) {
+            List<String> classes = new ArrayList<>();
+            for (TestDescriptor child : descriptor.getChildren()) {
+                child.getSource().filter(ClassSource.class::isInstance)
+                        .ifPresent(source -> classes.add(((ClassSource) source).getClassName()));
+            }
+            TestHistory history = TestHistory.shared();
+            selected = new HashSet<>(partition(classes, history::millis, shards).get(shard - 1));
+            // shards that log different fingerprints split different histories and may skip or repeat classes
+            logger.info("Shard {}/{}: {} of {} classes, split by history {} ({} entries)", shard, shards,
+                    selected.size(), classes.size(), history.fingerprint(), history.asMap().size());
+            return FilterResult.included("engine");
+        }
+        String className = topLevelClass(descriptor);
+        if (className == null) {
+            return FilterResult.included("not in a test class");
+        }
+        return selected.contains(className)
+                ? FilterResult.included("in shard " + shard + "/" + shards)
+                : FilterResult.excluded("in another shard");
+    }
+    
+    // JUnit only prunes excluded leaves, so every test is matched to the class directly under the engine
+    private static String topLevelClass(TestDescriptor descriptor) {
+        TestDescriptor current = descriptor;
+        while (current.getParent().isPresent() && !current.getParent().get().isRoot()) {
+            current = current.getParent().get();
+        }
+        return current.getParent().isPresent() && current.getSource().orElse(null) instanceof ClassSource source
+                ? source.getClassName() : null;
+    }
+    
+    // classes split into n lists, each list slowest first; ties are broken by name so the split is stable
+    static List<List<String>> partition(List<String> classes, ToLongFunction<String> cost, int n) {
+        List<String> longestFirst = new ArrayList<>(classes);
+        longestFirst.sort(Comparator.comparingLong(cost).reversed().thenComparing(Comparator.naturalOrder()));
+        
+        List<List<String>> shards = new ArrayList<>(n);
+        // least loaded shard on top, the lower index on equal load
+        PriorityQueue<long[]> loads = new PriorityQueue<>(
+                Comparator.<long[]>comparingLong(load -> load[0]).thenComparingLong(load -> load[1]));
+        for (int i = 0; i < n; i++) {
+            shards.add(new ArrayList<>());
+            loads.add(new long[] {0, i});
+        }
+        for (String className : longestFirst) {
+            long[] lightest = loads.poll();
+            shards.get((int) lightest[1]).add(className);
+            lightest[0] += cost.applyAsLong(className);
+            loads.add(lightest);
+        }
+        return shards;
+    }
+}
\ No newline at end of file
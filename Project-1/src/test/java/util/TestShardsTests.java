@@ -0,0 +1,72 @@
+package util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for longest-processing-time sharding and the duration history behind it
+ */
+@Tag("util")
+public class TestShardsTests {
+    
+    @Test
+    @DisplayName("Shards Are Balanced And Slowest First")
+    void testPartitionBalance() {
+        Map<String, Long> durations = Map.of("A", 700L, "B", 500L, "C", 400L, "D", 300L, "E", 200L, "F", 100L);
+        
+        List<List<String>> shards = TestShards.partition(new ArrayList<>(durations.keySet()), durations::get, 3);
+        
+        assertEquals(List.of(List.of("A", "F"), List.of("B", "E"), List.of("C", "D")), shards,
+                "Each class must go to the least loaded shard, slowest first");
+        Set<String> all = new HashSet<>();
+        shards.forEach(all::addAll);
+        assertEquals(durations.keySet(), all, "Every class must be in exactly one shard");
+    }
+    
+    @Test
+    @DisplayName("Split Does Not Depend On Discovery Order")
+    void testPartitionIsStable() {
+        List<String> classes = List.of("b.Get", "a.Put", "c.Post", "a.Get");
+        List<String> reversed = new ArrayList<>(classes);
+        Collections.reverse(reversed);
+        
+        // equal costs, only the name decides
+        assertEquals(TestShards.partition(classes, name -> 5, 2), TestShards.partition(reversed, name -> 5, 2),
+                "Every machine must compute the same shards");
+    }
+    
+    @Test
+    @DisplayName("History Averages Runs And Estimates New Classes")
+    void testHistoryRoundTrip() throws Exception {
+        Path file = Files.createTempFile("test-history", ".txt");
+        try {
+            new TestHistory(Map.of("a.Slow", 1000L, "a.Fast", 200L)).save(file);
+            
+            TestHistory history = TestHistory.load(file).merge(Map.of("a.Slow", 2000L));
+            
+            assertEquals(1500, history.millis("a.Slow"), "A new run must be averaged with the last value");
+            assertEquals(200, history.millis("a.Fast"), "A class that did not run must keep its value");
+            assertEquals(850, history.millis("a.New"), "An unknown class must be estimated as average");
+            assertEquals(Map.of("a.Slow", 1500L), history.retain(Set.of("a.Slow")).asMap(),
+                    "A shard's output must only hold the classes it ran");
+            assertEquals(TestHistory.load(file).fingerprint(), new TestHistory(Map.of("a.Fast", 200L,
+                    "a.Slow", 1000L)).fingerprint(), "Equal histories must have equal fingerprints");
+            assertNotEquals(TestHistory.load(file).fingerprint(), history.fingerprint(),
+                    "A changed history must have a different fingerprint");
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
\ No newline at end of file